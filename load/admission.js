@@ -0,0 +1,86 @@
+// Load test for admission control (k6, https://k6.io).
+//
+// Interactive traffic runs alone for a minute to set the baseline, then a batch caller floods
+// /api/persons at many times the service's capacity while the interactive traffic keeps going.
+// With admission control the batch caller gets 429/503 and the p99 of the interactive requests
+// stays where the baseline put it; the summary flags a FAIL if it grows by more than MAX_P99_GROWTH.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 load/admission.js
+//
+// Comparing with CLIENTS_ADMISSION_ENABLED=false on the service shows the starvation it prevents.
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const INTERACTIVE_RATE = Number(__ENV.INTERACTIVE_RATE || 20);
+const BATCH_RATE = Number(__ENV.BATCH_RATE || 2000);
+const MAX_P99_GROWTH = Number(__ENV.MAX_P99_GROWTH || 1.5);
+
+export const options = {
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+  scenarios: {
+    interactive_baseline: {
+      executor: 'constant-arrival-rate',
+      exec: 'interactive',
+      rate: INTERACTIVE_RATE,
+      timeUnit: '1s',
+      duration: '60s',
+      preAllocatedVUs: 20,
+      maxVUs: 100,
+    },
+    interactive_overload: {
+      executor: 'constant-arrival-rate',
+      exec: 'interactive',
+      startTime: '60s',
+      rate: INTERACTIVE_RATE,
+      timeUnit: '1s',
+      duration: '120s',
+      preAllocatedVUs: 20,
+      maxVUs: 100,
+    },
+    batch: {
+      executor: 'constant-arrival-rate',
+      exec: 'batch',
+      startTime: '60s',
+      rate: BATCH_RATE,
+      timeUnit: '1s',
+      duration: '120s',
+      preAllocatedVUs: 200,
+      maxVUs: 2000,
+    },
+  },
+  thresholds: {
+    'http_req_duration{scenario:interactive_baseline}': ['p(99)>=0'],
+    'http_req_duration{scenario:interactive_overload}': ['p(99)>=0'],
+    'checks{scenario:interactive_overload}': ['rate>0.99'],
+  },
+};
+
+export function interactive() {
+  const response = http.get(`${BASE_URL}/api/persons/page?size=20`, {
+    headers: { 'X-Caller-Id': 'web' },
+  });
+  check(response, { 'interactive request served': (r) => r.status === 200 });
+}
+
+export function batch() {
+  const response = http.get(`${BASE_URL}/api/persons`, {
+    headers: { 'X-Caller-Id': 'batch-job' },
+  });
+  check(response, {
+    'batch request served or refused with Retry-After': (r) => r.status === 200
+      || ((r.status === 429 || r.status === 503) && r.headers['Retry-After'] !== undefined),
+  });
+}
+
+export function handleSummary(data) {
+  const p99 = (scenario) => data.metrics[`http_req_duration{scenario:${scenario}}`].values['p(99)'];
+  const baseline = p99('interactive_baseline');
+  const overload = p99('interactive_overload');
+  const growth = overload / baseline;
+  const verdict = growth <= MAX_P99_GROWTH ? 'PASS' : 'FAIL';
+  const report = `interactive p99: baseline ${baseline.toFixed(1)} ms, under overload ${overload.toFixed(1)} ms`
+    + ` (x${growth.toFixed(2)}, limit x${MAX_P99_GROWTH}) ${verdict}\n`;
+  return { stdout: report };
+}
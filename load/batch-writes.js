@@ -0,0 +1,136 @@
+// Load test for chunked batch writes (k6, https://k6.io).
+//
+// Interactive traffic runs alone for a minute to set the baseline, then a batch caller keeps
+// onboarding enterprise clients with SIGNATORIES authorized signatories each. A monitor samples
+// the Mongo connection pool from /actuator/metrics every second. With chunked writes the pool
+// stays well below its size, nothing waits for a connection and the p99 of the interactive
+// requests stays where the baseline put it; the summary flags a FAIL otherwise.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 load/batch-writes.js
+//
+// Rerunning with CLIENTS_BATCH_CONCURRENCY or CLIENTS_BATCH_CHUNK_SIZE changed on the service
+// shows how the pool usage follows them.
+
+import http from 'k6/http';
+import { check } from 'k6';
+import exec from 'k6/execution';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const INTERACTIVE_RATE = Number(__ENV.INTERACTIVE_RATE || 20);
+const BATCH_VUS = Number(__ENV.BATCH_VUS || 2);
+const SIGNATORIES = Number(__ENV.SIGNATORIES || 5000);
+const MAX_P99_GROWTH = Number(__ENV.MAX_P99_GROWTH || 1.5);
+// keeps the document numbers of separate runs apart
+const RUN_OFFSET = Number(__ENV.RUN_OFFSET || Date.now() % 1000) * 100000;
+
+const poolCheckedOut = new Trend('mongo_pool_checked_out');
+const poolWaitQueue = new Trend('mongo_pool_wait_queue');
+const poolSize = new Trend('mongo_pool_size');
+
+export const options = {
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+  scenarios: {
+    interactive_baseline: {
+      executor: 'constant-arrival-rate',
+      exec: 'interactive',
+      rate: INTERACTIVE_RATE,
+      timeUnit: '1s',
+      duration: '60s',
+      preAllocatedVUs: 20,
+      maxVUs: 100,
+    },
+    interactive_batch: {
+      executor: 'constant-arrival-rate',
+      exec: 'interactive',
+      startTime: '60s',
+      rate: INTERACTIVE_RATE,
+      timeUnit: '1s',
+      duration: '120s',
+      preAllocatedVUs: 20,
+      maxVUs: 100,
+    },
+    batch: {
+      executor: 'constant-vus',
+      exec: 'batch',
+      startTime: '60s',
+      vus: BATCH_VUS,
+      duration: '120s',
+    },
+    pool: {
+      executor: 'constant-arrival-rate',
+      exec: 'pool',
+      rate: 1,
+      timeUnit: '1s',
+      duration: '180s',
+      preAllocatedVUs: 2,
+    },
+  },
+  thresholds: {
+    'http_req_duration{scenario:interactive_baseline}': ['p(99)>=0'],
+    'http_req_duration{scenario:interactive_batch}': ['p(99)>=0'],
+    'checks{scenario:interactive_batch}': ['rate>0.99'],
+  },
+};
+
+export function interactive() {
+  const response = http.get(`${BASE_URL}/api/persons/page?size=20`, {
+    headers: { 'X-Caller-Id': 'web' },
+  });
+  check(response, { 'interactive request served': (r) => r.status === 200 });
+}
+
+export function batch() {
+  const first = RUN_OFFSET + exec.scenario.iterationInTest * (SIGNATORIES + 1);
+  const person = (n, documentType) => ({
+    name: `Load ${n}`,
+    lastname: 'Test',
+    documentType,
+    documentNumber: String(n).padStart(documentType === 'RUC' ? 11 : 8, '0'),
+  });
+  const signatories = [];
+  for (let i = 1; i <= SIGNATORIES; i++) {
+    signatories.push({ person: person(first + i, 'DNI'), status: true });
+  }
+  const client = {
+    clientType: 'EMPRESARIAL',
+    person: { ...person(first, 'RUC'), companyName: `Load ${first} SAC` },
+    legalRepresentatives: [],
+    authorizedSignatories: signatories,
+  };
+  const response = http.post(`${BASE_URL}/api/clients`, JSON.stringify(client), {
+    headers: { 'Content-Type': 'application/json', 'X-Caller-Id': 'batch-import' },
+    timeout: '120s',
+  });
+  check(response, { 'batch client created': (r) => r.status === 200 || r.status === 201 });
+}
+
+function metric(name) {
+  const response = http.get(`${BASE_URL}/actuator/metrics/${name}`, { tags: { name: 'actuator' } });
+  if (response.status !== 200) {
+    return undefined;
+  }
+  return response.json().measurements.find((m) => m.statistic === 'VALUE').value;
+}
+
+export function pool() {
+  const record = (trend, value) => value !== undefined && trend.add(value);
+  record(poolCheckedOut, metric('mongodb.driver.pool.checkedout'));
+  record(poolWaitQueue, metric('mongodb.driver.pool.waitqueuesize'));
+  record(poolSize, metric('mongodb.driver.pool.size'));
+}
+
+export function handleSummary(data) {
+  const p99 = (scenario) => data.metrics[`http_req_duration{scenario:${scenario}}`].values['p(99)'];
+  const max = (name) => (data.metrics[name] ? data.metrics[name].values.max : NaN);
+  const baseline = p99('interactive_baseline');
+  const underBatch = p99('interactive_batch');
+  const growth = underBatch / baseline;
+  const waited = max('mongo_pool_wait_queue');
+  const verdict = growth <= MAX_P99_GROWTH && waited === 0 ? 'PASS' : 'FAIL';
+  const report = `mongo pool: max ${max('mongo_pool_checked_out')} checked out of ${max('mongo_pool_size')} open,`
+    + ` max ${waited} waiting\n`
+    + `interactive p99: baseline ${baseline.toFixed(1)} ms, during batch writes ${underBatch.toFixed(1)} ms`
+    + ` (x${growth.toFixed(2)}, limit x${MAX_P99_GROWTH}) ${verdict}\n`;
+  return { stdout: report };
+}
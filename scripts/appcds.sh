@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Builds an AppCDS archive of the classes the service loads while starting (JDK 11).
+#
+#   scripts/appcds.sh [target/msvc-clients-0.0.1-SNAPSHOT.jar]
+#
+# CDS cannot archive classes read from the nested jars of the Spring Boot jar, so the jar is
+# unpacked to target/appcds: app.jar holds the application classes, lib/ the dependencies and
+# classpath.txt the exact classpath the archive was dumped with. Start it with
+# scripts/run-fast-start.sh; a JVM whose classpath differs silently ignores the archive.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=${1:-target/msvc-clients-0.0.1-SNAPSHOT.jar}
+JAR="$(cd "$(dirname "$JAR")" && pwd)/$(basename "$JAR")"
+OUT=target/appcds
+MAIN=com.piere.bootcamp.clients.MsvcClientsApplication
+START_TIMEOUT=${START_TIMEOUT:-120}
+
+rm -rf "$OUT"
+mkdir -p "$OUT/exploded" "$OUT/lib"
+(cd "$OUT/exploded" && jar -xf "$JAR")
+jar -cf "$OUT/app.jar" -C "$OUT/exploded/BOOT-INF/classes" .
+cp "$OUT"/exploded/BOOT-INF/lib/*.jar "$OUT/lib/"
+rm -rf "$OUT/exploded"
+CLASSPATH="$OUT/app.jar:$(ls "$OUT"/lib/*.jar | sort | tr '\n' ':' | sed 's/:$//')"
+echo "$CLASSPATH" > "$OUT/classpath.txt"
+
+echo "Training run: recording the classes loaded until the service has started"
+java -XX:DumpLoadedClassList="$OUT/classes.lst" -cp "$CLASSPATH" "$MAIN" \
+    --spring.profiles.active=fast-start --server.port=0 > "$OUT/training.log" 2>&1 &
+PID=$!
+for _ in $(seq $((START_TIMEOUT * 10))); do
+    grep -q "Started MsvcClientsApplication" "$OUT/training.log" && break
+    kill -0 "$PID" 2>/dev/null || break
+    sleep 0.1
+done
+if ! grep -q "Started MsvcClientsApplication" "$OUT/training.log"; then
+    kill "$PID" 2>/dev/null || true
+    echo "The training run did not start, see $OUT/training.log" >&2
+    exit 1
+fi
+kill "$PID"
+wait "$PID" || true
+
+echo "Dumping $(wc -l < "$OUT/classes.lst") classes to $OUT/app.jsa"
+java -Xshare:dump -XX:SharedClassListFile="$OUT/classes.lst" -XX:SharedArchiveFile="$OUT/app.jsa" \
+    -cp "$CLASSPATH" > "$OUT/dump.log" 2>&1
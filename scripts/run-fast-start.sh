@@ -0,0 +1,15 @@
+#!/usr/bin/env bash
+# Starts the service with the fast-start profile and the AppCDS archive built by scripts/appcds.sh.
+# Extra arguments are passed to the application, e.g. --server.port=8081.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+OUT=target/appcds
+if [ ! -f "$OUT/app.jsa" ]; then
+    echo "No AppCDS archive in $OUT, run scripts/appcds.sh first" >&2
+    exit 1
+fi
+
+exec java -XX:SharedArchiveFile="$OUT/app.jsa" -Xshare:auto ${JAVA_OPTS:-} \
+    -cp "$(cat "$OUT/classpath.txt")" com.piere.bootcamp.clients.MsvcClientsApplication \
+    --spring.profiles.active=fast-start "$@"
@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+# Compares the cold start of the service: the plain jar, the fast-start profile, and the
+# fast-start profile with the AppCDS archive. Reports the "JVM running for" time Spring Boot
+# logs once the server accepts requests, averaged over RUNS starts of each.
+#
+#   mvn -B package -DskipTests && scripts/appcds.sh && scripts/startup-time.sh
+#
+# MongoDB does not need to be up: the service starts without connecting to it.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=${JAR:-target/msvc-clients-0.0.1-SNAPSHOT.jar}
+RUNS=${RUNS:-5}
+START_TIMEOUT=${START_TIMEOUT:-120}
+OUT=target/appcds
+MAIN=com.piere.bootcamp.clients.MsvcClientsApplication
+
+# prints the seconds the JVM had been running when the service started
+start_once() {
+    local log
+    log=$(mktemp)
+    "$@" --server.port=0 > "$log" 2>&1 &
+    local pid=$!
+    local seconds=""
+    for _ in $(seq $((START_TIMEOUT * 10))); do
+        seconds=$(grep -o "JVM running for [0-9.]*" "$log" | grep -o "[0-9.]*$" || true)
+        [ -n "$seconds" ] && break
+        kill -0 "$pid" 2>/dev/null || break
+        sleep 0.1
+    done
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+    if [ -z "$seconds" ]; then
+        echo "The service did not start, see $log" >&2
+        return 1
+    fi
+    rm -f "$log"
+    echo "$seconds"
+}
+
+measure() {
+    local label=$1
+    shift
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        times+=("$(start_once "$@")")
+    done
+    printf '%s\n' "${times[@]}" | sort -n | awk -v label="$label" '
+        { t[NR] = $1; sum += $1 }
+        END { printf "%-28s mean %5.2fs  median %5.2fs  min %5.2fs  (%d runs)\n", label, sum / NR, t[int((NR + 1) / 2)], t[1], NR }'
+}
+
+measure "default" java -jar "$JAR"
+measure "fast-start" java -jar "$JAR" --spring.profiles.active=fast-start
+if [ -f "$OUT/app.jsa" ]; then
+    measure "fast-start + AppCDS" java -XX:SharedArchiveFile="$OUT/app.jsa" -Xshare:auto \
+        -cp "$(cat "$OUT/classpath.txt")" "$MAIN" --spring.profiles.active=fast-start
+else
+    echo "fast-start + AppCDS: skipped, run scripts/appcds.sh to build the archive"
+fi
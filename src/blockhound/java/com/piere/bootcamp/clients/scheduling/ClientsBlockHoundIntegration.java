@@ -0,0 +1,20 @@
+package com.piere.bootcamp.clients.scheduling;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+/**
+ * The blocking calls tolerated on non-blocking threads under {@code -Pblockhound}. Reactor's
+ * own schedulers, the mapping scheduler included, and the Netty event loops are checked by the
+ * integrations BlockHound and Netty ship with.
+ */
+public class ClientsBlockHoundIntegration implements BlockHoundIntegration {
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        // the console appender writes synchronously; switch to an async appender before removing this
+        builder.allowBlockingCallsInside("ch.qos.logback.classic.Logger", "callAppenders");
+        // SecureRandom may read the OS entropy source once, when it is seeded
+        builder.allowBlockingCallsInside("java.util.UUID", "randomUUID");
+    }
+}
@@ -0,0 +1,38 @@
+package com.piere.bootcamp.clients.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * Proves BlockHound is installed under {@code -Pblockhound}: a blocking call on the mapping
+ * scheduler must fail, otherwise the streaming tests would pass without checking anything.
+ */
+class MappingSchedulerBlockHoundTest {
+
+	private final PipelineSchedulers pipelineSchedulers = new PipelineSchedulers(new SchedulingProperties());
+
+	@AfterEach
+	void dispose() {
+		pipelineSchedulers.dispose();
+	}
+
+	@Test
+	void blockingWhileMappingFails() {
+		StepVerifier.create(pipelineSchedulers.map(Flux.just(1), n -> {
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return n;
+		}))
+			.expectErrorSatisfies(error -> assertThat(error).isInstanceOf(BlockingOperationError.class))
+			.verify();
+	}
+}
@@ -0,0 +1,73 @@
+package com.piere.bootcamp.clients.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.model.mapper.ClientMapper;
+import com.piere.bootcamp.clients.model.mapper.PersonMapper;
+import com.piere.bootcamp.clients.support.Fixtures;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * The mapping stage of findAllClients and findAllPersons over a page of documents.
+ * Run with {@code -prof gc} to read the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindAllMappingBenchmark {
+
+    @Param({ "1000" })
+    private int documents;
+
+    private List<Client> clients;
+
+    private List<Person> persons;
+
+    @Setup
+    public void setUp() {
+        clients = new ArrayList<>(documents);
+        persons = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            clients.add(Fixtures.client(2));
+            persons.add(Fixtures.person(i));
+        }
+    }
+
+    @Benchmark
+    public List<ClientDto> findAllClients() {
+        return Flux.fromIterable(clients)
+                .map(ClientMapper::toDto)
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public List<PersonDto> findAllPersons() {
+        return Flux.fromIterable(persons)
+                .map(PersonMapper::toDto)
+                .collectList()
+                .block();
+    }
+}
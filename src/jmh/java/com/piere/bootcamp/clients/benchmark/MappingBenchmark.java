@@ -0,0 +1,88 @@
+package com.piere.bootcamp.clients.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.model.mapper.ClientMapper;
+import com.piere.bootcamp.clients.model.mapper.PersonMapper;
+import com.piere.bootcamp.clients.support.Fixtures;
+
+/**
+ * DTO/entity mapping and JSON serialization of clients with nested persons.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    /**
+     * Legal representatives and authorized signatories per client.
+     */
+    @Param({ "0", "5", "50" })
+    private int people;
+
+    private Client client;
+
+    private ClientDto clientDto;
+
+    private Person person;
+
+    private PersonDto personDto;
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        clientDto = Fixtures.clientDto(people);
+        client = ClientMapper.toEntity(clientDto);
+        person = Fixtures.person(1);
+        personDto = PersonMapper.toDto(person);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public ClientDto clientToDto() {
+        return ClientMapper.toDto(client);
+    }
+
+    @Benchmark
+    public Client clientToEntity() {
+        return ClientMapper.toEntity(clientDto);
+    }
+
+    @Benchmark
+    public PersonDto personToDto() {
+        return PersonMapper.toDto(person);
+    }
+
+    @Benchmark
+    public Person personToEntity() {
+        return PersonMapper.toEntity(personDto);
+    }
+
+    @Benchmark
+    public byte[] serializeClientDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(clientDto);
+    }
+}
@@ -0,0 +1,99 @@
+package com.piere.bootcamp.clients.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.piere.bootcamp.clients.model.dto.AuthorizedSignatoryDto;
+import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+import com.piere.bootcamp.clients.service.AuthorizedSignatoryService;
+import com.piere.bootcamp.clients.service.LegalRepresentativeService;
+import com.piere.bootcamp.clients.support.Fixtures;
+import com.piere.bootcamp.clients.support.ServiceTestConfiguration;
+
+/**
+ * Batch creation of representatives and signatories, dominated by matching the saved persons
+ * back to their inputs. Linear matching keeps the time per entry flat as the batch grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonMatchingBenchmark {
+
+    @Param({ "10", "1000", "10000" })
+    private int entries;
+
+    private ConfigurableApplicationContext context;
+
+    private LegalRepresentativeService legalRepresentativeService;
+
+    private AuthorizedSignatoryService authorizedSignatoryService;
+
+    private List<LegalRepresentativeDto> legalRepresentatives;
+
+    private List<AuthorizedSignatoryDto> authorizedSignatories;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ServiceTestConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .profiles(ServiceTestConfiguration.PROFILE)
+                .run();
+        legalRepresentativeService = context.getBean(LegalRepresentativeService.class);
+        authorizedSignatoryService = context.getBean(AuthorizedSignatoryService.class);
+    }
+
+    /**
+     * Persons with ids, like the ones the services fill back in, so the same entries can be sent
+     * on every call.
+     */
+    @Setup(Level.Iteration)
+    public void newRequest() {
+        legalRepresentatives = Fixtures.legalRepresentatives(entries, 0);
+        legalRepresentatives.forEach(legalRep -> legalRep.getPerson().setId(new ObjectId().toHexString()));
+        authorizedSignatories = Fixtures.authorizedSignatories(entries, 0);
+        authorizedSignatories.forEach(authSignatory -> authSignatory.getPerson().setId(new ObjectId().toHexString()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<LegalRepresentativeDto> createLegalRepresentatives() {
+        return legalRepresentativeService.createLegalRepresentatives(legalRepresentatives)
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public List<AuthorizedSignatoryDto> createAuthorizedSignatories() {
+        return authorizedSignatoryService.createAuthorizedSignatories(authorizedSignatories)
+                .collectList()
+                .block();
+    }
+}
@@ -0,0 +1,103 @@
+package com.piere.bootcamp.clients.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+import com.piere.bootcamp.clients.service.ClientService;
+import com.piere.bootcamp.clients.service.LegalRepresentativeService;
+import com.piere.bootcamp.clients.support.Fixtures;
+import com.piere.bootcamp.clients.support.ServiceTestConfiguration;
+import com.piere.bootcamp.clients.support.StubDaos;
+
+/**
+ * Reactive pipelines of the create paths, wired by {@link ServiceTestConfiguration} to
+ * {@link StubDaos} so only the operator chains and mapping are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServicePipelineBenchmark {
+
+    /**
+     * Legal representatives and authorized signatories per client.
+     */
+    @Param({ "1", "10", "100" })
+    private int people;
+
+    private ConfigurableApplicationContext context;
+
+    private ClientService clientService;
+
+    private LegalRepresentativeService legalRepresentativeService;
+
+    private ClientDto clientDto;
+
+    private List<LegalRepresentativeDto> legalRepresentatives;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ServiceTestConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .profiles(ServiceTestConfiguration.PROFILE)
+                .run();
+        clientService = context.getBean(ClientService.class);
+        legalRepresentativeService = context.getBean(LegalRepresentativeService.class);
+    }
+
+    /**
+     * The services fill the persisted persons back into the request. Every person carries an id
+     * already, as the persisted ones do, so what they fill in changes nothing and every call does
+     * the same work.
+     */
+    @Setup(Level.Iteration)
+    public void newRequest() {
+        clientDto = Fixtures.clientDto(people);
+        clientDto.getLegalRepresentatives().forEach(legalRep -> legalRep.getPerson().setId(new ObjectId().toHexString()));
+        clientDto.getAuthorizedSignatories().forEach(authSignatory -> authSignatory.getPerson().setId(new ObjectId().toHexString()));
+        legalRepresentatives = Fixtures.legalRepresentatives(people, 1_000);
+        legalRepresentatives.forEach(legalRep -> legalRep.getPerson().setId(new ObjectId().toHexString()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ClientDto createClient() {
+        return clientService.createClient(clientDto).block();
+    }
+
+    @Benchmark
+    public List<LegalRepresentativeDto> createLegalRepresentatives() {
+        return legalRepresentativeService.createLegalRepresentatives(legalRepresentatives)
+                .collectList()
+                .block();
+    }
+}
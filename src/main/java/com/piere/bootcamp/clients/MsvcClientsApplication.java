@@ -3,10 +3,13 @@ package com.piere.bootcamp.clients;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import reactor.core.scheduler.Schedulers;
+
 @SpringBootApplication
 public class MsvcClientsApplication {
 
 	public static void main(String[] args) {
+		Schedulers.enableMetrics();
 		SpringApplication.run(MsvcClientsApplication.class, args);
 	}
 
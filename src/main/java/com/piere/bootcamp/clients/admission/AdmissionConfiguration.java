@@ -0,0 +1,24 @@
+package com.piere.bootcamp.clients.admission;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Registers the listener whose in-flight count drives load shedding.
+ */
+@Configuration
+public class AdmissionConfiguration {
+
+    @Bean
+    public InFlightCommandListener inFlightCommandListener(MeterRegistry meterRegistry) {
+        return new InFlightCommandListener(meterRegistry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer inFlightCommandTracking(InFlightCommandListener inFlightCommandListener) {
+        return settings -> settings.addCommandListener(inFlightCommandListener);
+    }
+}
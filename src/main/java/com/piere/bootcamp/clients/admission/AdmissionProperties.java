@@ -0,0 +1,65 @@
+package com.piere.bootcamp.clients.admission;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Admission control of {@code /api/**}: a token bucket per caller, with optional overrides per
+ * caller, e.g. {@code clients.admission.callers.batch-import.requests-per-second=20}, and load
+ * shedding once too many Mongo operations are in flight.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "clients.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Header identifying the caller behind a trusted proxy; other requests are limited by
+     * authenticated principal or remote address.
+     */
+    private String callerHeader = "X-Caller-Id";
+
+    /**
+     * Addresses of the proxies, e.g. the API gateway, whose caller header is believed.
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    private Limit rateLimit = new Limit();
+
+    private Map<String, Limit> callers = new HashMap<>();
+
+    /**
+     * Callers whose buckets are kept; the least recently seen are evicted first.
+     */
+    private long maximumCallers = 100_000;
+
+    private Duration expireAfterAccess = Duration.ofMinutes(10);
+
+    /**
+     * New requests are shed with 503 while at least this many Mongo operations are running.
+     */
+    private int maxInFlightMongoOperations = 200;
+
+    private Duration shedRetryAfter = Duration.ofSeconds(1);
+
+    @Data
+    public static class Limit {
+
+        private double requestsPerSecond = 50;
+
+        /**
+         * Requests a caller may send at once after being idle.
+         */
+        private int burst = 100;
+    }
+}
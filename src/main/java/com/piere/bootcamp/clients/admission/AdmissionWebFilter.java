@@ -0,0 +1,135 @@
+package com.piere.bootcamp.clients.admission;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.piere.bootcamp.clients.metrics.RuntimeMetricsConfiguration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Admission control in front of the API. Each caller spends a token per request and gets 429
+ * once its bucket is empty, so one caller flooding an endpoint cannot starve the others; while the
+ * in-flight Mongo operations are at the threshold, requests within their limit are shed with 503.
+ * Callers are the authenticated principal, else the remote address, or the caller header when the
+ * request comes through a trusted proxy. Both rejections carry {@code Retry-After}. Rejections are written without a body so that they stay cheap
+ * exactly when the service is short of capacity.
+ */
+@Component
+@Order(AdmissionWebFilter.ORDER)
+public class AdmissionWebFilter implements WebFilter {
+
+    /**
+     * Runs after the tracing filter, so rejected requests still show up in traces.
+     */
+    static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    static final String REJECTED_METRIC = "clients.admission.rejected";
+
+    private static final String API_PREFIX = "/api/";
+
+    private static final int MAX_CALLER_LENGTH = 128;
+
+    @Autowired
+    private AdmissionProperties properties;
+
+    @Autowired
+    private CallerRateLimiter rateLimiter;
+
+    @Autowired
+    private InFlightCommandListener inFlightCommandListener;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!properties.isEnabled() || !path.startsWith(API_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .switchIfEmpty(Mono.fromSupplier(() -> caller(exchange)))
+                .flatMap(caller -> admit(exchange, chain, path, caller));
+    }
+
+    /**
+     * Rate limits before shedding: a caller over its limit gets 429 whatever the load, and its
+     * requests do not count towards the 503s of callers that stay under theirs.
+     */
+    private Mono<Void> admit(ServerWebExchange exchange, WebFilterChain chain, String path, String caller) {
+        long waitNanos = rateLimiter.tryAcquire(caller);
+        if (waitNanos > 0) {
+            return reject(exchange, path, HttpStatus.TOO_MANY_REQUESTS, Duration.ofNanos(waitNanos), "rate_limited");
+        }
+        if (inFlightCommandListener.inFlight() >= properties.getMaxInFlightMongoOperations()) {
+            return reject(exchange, path, HttpStatus.SERVICE_UNAVAILABLE, properties.getShedRetryAfter(), "overloaded");
+        }
+        return chain.filter(exchange);
+    }
+
+    /**
+     * Identifies an unauthenticated caller by remote address. The caller header is only believed
+     * from a trusted proxy: anyone else could send a new value with every request, get a fresh
+     * bucket each time and evict the buckets of real callers.
+     */
+    private String caller(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        String address = remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : null;
+        if (address == null) {
+            return "anonymous";
+        }
+        if (properties.getTrustedProxies().contains(address)) {
+            String caller = exchange.getRequest().getHeaders().getFirst(properties.getCallerHeader());
+            if (caller != null && !caller.isEmpty() && caller.length() <= MAX_CALLER_LENGTH) {
+                return caller;
+            }
+        }
+        return address;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String path, HttpStatus status, Duration retryAfter,
+            String reason) {
+        String route = RuntimeMetricsConfiguration.uriTag(path);
+        counters.computeIfAbsent(reason + '|' + route, key -> Counter.builder(REJECTED_METRIC)
+                .description("Requests refused by admission control")
+                .tag("reason", reason)
+                .tag("uri", route)
+                .register(meterRegistry))
+                .increment();
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(retryAfter)));
+        return response.setComplete();
+    }
+
+    /**
+     * Retry-After is in whole seconds; round up so that a retry does not arrive early.
+     */
+    private static long retryAfterSeconds(Duration retryAfter) {
+        long seconds = retryAfter.getSeconds() + (retryAfter.getNano() > 0 ? 1 : 0);
+        return Math.max(1, seconds);
+    }
+}
@@ -0,0 +1,64 @@
+package com.piere.bootcamp.clients.admission;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * One {@link TokenBucket} per caller, in a bounded table so that callers making up identifiers
+ * cannot grow it without limit. Buckets of idle callers expire, which also refills them.
+ */
+@Component
+public class CallerRateLimiter {
+
+    private static final String CACHE_NAME = "caller-rate-limits";
+
+    @Autowired
+    private AdmissionProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, TokenBucket> buckets;
+
+    @PostConstruct
+    void init() {
+        validate(properties.getRateLimit(), "default");
+        properties.getCallers().forEach((caller, limit) -> validate(limit, caller));
+        buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumCallers())
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, CACHE_NAME);
+    }
+
+    /**
+     * Takes a permit from the caller's bucket.
+     *
+     * @return 0 when the request is admitted, otherwise the nanoseconds until the caller may retry
+     */
+    public long tryAcquire(String caller) {
+        long now = System.nanoTime();
+        return buckets.get(caller, key -> newBucket(key, now)).tryAcquire(now);
+    }
+
+    private TokenBucket newBucket(String caller, long now) {
+        AdmissionProperties.Limit limit = properties.getCallers().getOrDefault(caller, properties.getRateLimit());
+        return new TokenBucket(limit.getRequestsPerSecond(), limit.getBurst(), now);
+    }
+
+    private static void validate(AdmissionProperties.Limit limit, String caller) {
+        if (limit.getRequestsPerSecond() <= 0 || limit.getBurst() < 1) {
+            throw new IllegalArgumentException("Invalid rate limit for " + caller
+                    + ": requests-per-second must be positive and burst at least 1");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.piere.bootcamp.clients.admission;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts the Mongo commands currently running. A {@code getMore} with {@code maxTimeMS} is left
+ * out: only tailable cursors such as the person cache's change stream send one, and they wait on
+ * the server by design rather than because it is overloaded.
+ */
+public class InFlightCommandListener implements CommandListener {
+
+    static final String IN_FLIGHT_METRIC = "clients.mongo.in_flight";
+
+    private final Set<Integer> running = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger inFlight;
+
+    public InFlightCommandListener(MeterRegistry meterRegistry) {
+        this.inFlight = meterRegistry.gauge(IN_FLIGHT_METRIC, new AtomicInteger());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if ("getMore".equals(event.getCommandName()) && event.getCommand().containsKey("maxTimeMS")) {
+            return;
+        }
+        if (running.add(event.getRequestId())) {
+            inFlight.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        finished(event.getRequestId());
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        finished(event.getRequestId());
+    }
+
+    private void finished(int requestId) {
+        if (running.remove(requestId)) {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.piere.bootcamp.clients.aggregate;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of comparing {@code client_aggregates} against the normalized collections.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregateVerification implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long checked;
+
+    /**
+     * Clients without an aggregate.
+     */
+    private long missing;
+
+    /**
+     * Aggregates that differ from what the normalized documents produce.
+     */
+    private long mismatched;
+
+    /**
+     * Aggregates whose client no longer exists.
+     */
+    private long orphaned;
+
+    /**
+     * Ids of some of the missing or mismatched clients.
+     */
+    private List<String> sampleIds;
+
+    public boolean isConsistent() {
+        return missing == 0 && mismatched == 0 && orphaned == 0;
+    }
+}
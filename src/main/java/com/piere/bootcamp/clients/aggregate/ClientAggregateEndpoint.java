@@ -0,0 +1,31 @@
+package com.piere.bootcamp.clients.aggregate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * GET /actuator/clientaggregates verifies the embedded client documents,
+ * POST /actuator/clientaggregates rebuilds all of them from the normalized collections.
+ */
+@Component
+@Endpoint(id = "clientaggregates")
+public class ClientAggregateEndpoint {
+
+    @Autowired
+    private ClientAggregateStore clientAggregateStore;
+
+    @ReadOperation
+    public Mono<AggregateVerification> verify() {
+        return clientAggregateStore.verify();
+    }
+
+    @WriteOperation
+    public Mono<Long> backfill() {
+        return clientAggregateStore.backfill();
+    }
+}
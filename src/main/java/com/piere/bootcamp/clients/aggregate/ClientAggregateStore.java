@@ -0,0 +1,256 @@
+package com.piere.bootcamp.clients.aggregate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.piere.bootcamp.clients.dao.AuthorizedSignatoryDao;
+import com.piere.bootcamp.clients.dao.ClientAggregateDao;
+import com.piere.bootcamp.clients.dao.ClientDao;
+import com.piere.bootcamp.clients.dao.LegalRepresentativeDao;
+import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.ClientAggregate;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.mapper.ClientAggregateMapper;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps {@code client_aggregates}, one document per client with its person, legal representatives
+ * and authorized signatories embedded, so that an expanded client is read with a single
+ * {@code findById}. The normalized collections stay the source of truth: every aggregate is
+ * rebuilt from them after a write, and can be backfilled and verified in bulk.
+ * With {@code clients.storage.mode=normalized} every write hook is a no-op.
+ */
+@Slf4j
+@Component
+public class ClientAggregateStore {
+
+    /**
+     * Clients assembled per round-trip; each page costs three {@code $in} queries.
+     */
+    private static final int PAGE_SIZE = 100;
+
+    private static final int SAMPLE_SIZE = 20;
+
+    public enum StorageMode {
+        NORMALIZED,
+        EMBEDDED
+    }
+
+    @Autowired
+    private ClientDao clientDao;
+
+    @Autowired
+    private PersonDao personDao;
+
+    @Autowired
+    private LegalRepresentativeDao legalRepresentativeDao;
+
+    @Autowired
+    private AuthorizedSignatoryDao authorizedSignatoryDao;
+
+    @Autowired
+    private ClientAggregateDao clientAggregateDao;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Value("${clients.storage.mode:normalized}")
+    private StorageMode storageMode;
+
+    @Value("${clients.storage.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    public boolean isEmbedded() {
+        return storageMode == StorageMode.EMBEDDED;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void backfillOnStartup() {
+        if (!isEmbedded() || !backfillOnStartup) {
+            return;
+        }
+        backfill().subscribe(
+                count -> log.info("Backfilled {} client aggregates", count),
+                error -> log.error("Client aggregate backfill failed: {}", error.getMessage()));
+    }
+
+    public Mono<ClientDto> findById(String id) {
+        return clientAggregateDao.findById(id)
+                .map(ClientAggregateMapper::toDto);
+    }
+
+    public Flux<ClientDto> findAllById(Collection<String> ids) {
+        return clientAggregateDao.findAllById(ids)
+                .map(ClientAggregateMapper::toDto);
+    }
+
+    /**
+     * Rebuilds the aggregates of the given clients, and drops those whose client no longer exists.
+     */
+    public Mono<Void> refresh(Collection<String> clientIds) {
+        if (!isEmbedded() || clientIds.isEmpty()) {
+            return Mono.empty();
+        }
+        Set<String> deleted = new HashSet<>(clientIds);
+        return clientDao.findAllById(clientIds)
+                .doOnNext(client -> deleted.remove(client.getId()))
+                .buffer(PAGE_SIZE)
+                .concatMap(clients -> assemble(clients).collectList().flatMapMany(clientAggregateDao::saveAll))
+                .then(Mono.defer(() -> deleted.isEmpty()
+                        ? Mono.<Void>empty()
+                        : clientAggregateDao.deleteAllById(deleted)));
+    }
+
+    public Mono<Void> refresh(String clientId) {
+        return clientId == null ? Mono.empty() : refresh(Collections.singletonList(clientId));
+    }
+
+    /**
+     * Rebuilds every aggregate that embeds the given person, legal representative or authorized signatory.
+     */
+    public Mono<Void> refreshReferencing(String id) {
+        if (!isEmbedded() || id == null) {
+            return Mono.empty();
+        }
+        Query referencing = Query.query(new Criteria().orOperator(
+                Criteria.where("person.id").is(id),
+                Criteria.where("legalRepresentatives.id").is(id),
+                Criteria.where("legalRepresentatives.person.id").is(id),
+                Criteria.where("authorizedSignatories.id").is(id),
+                Criteria.where("authorizedSignatories.person.id").is(id)));
+        referencing.fields().include("id");
+        return mongoTemplate.find(referencing, ClientAggregate.class)
+                .map(ClientAggregate::getId)
+                .collectList()
+                .flatMap(this::refresh);
+    }
+
+    /**
+     * Rebuilds the aggregate of every client. Safe to run again: aggregates are replaced by id.
+     */
+    public Mono<Long> backfill() {
+        return Mono.defer(() -> {
+            if (!backfillRunning.compareAndSet(false, true)) {
+                return Mono.error(new IllegalStateException("A client aggregate backfill is already running"));
+            }
+            return clientDao.findAll()
+                    .buffer(PAGE_SIZE)
+                    .concatMap(clients -> assemble(clients).collectList().flatMapMany(clientAggregateDao::saveAll))
+                    .count()
+                    .doFinally(signal -> backfillRunning.set(false));
+        });
+    }
+
+    /**
+     * Compares every aggregate with the one the normalized documents produce right now.
+     * Documents are compared in their stored form, after conversion.
+     */
+    public Mono<AggregateVerification> verify() {
+        List<String> sampleIds = Collections.synchronizedList(new ArrayList<>());
+        long[] counts = new long[3];
+        return clientDao.findAll()
+                .buffer(PAGE_SIZE)
+                .concatMap(clients -> Mono.zip(
+                        assemble(clients).collectMap(ClientAggregate::getId),
+                        clientAggregateDao.findAllById(clients.stream().map(Client::getId).collect(Collectors.toList()))
+                                .collectMap(ClientAggregate::getId))
+                        .doOnNext(tuple -> tuple.getT1().forEach((id, expected) -> {
+                            ClientAggregate actual = tuple.getT2().get(id);
+                            counts[0]++;
+                            if (actual == null) {
+                                counts[1]++;
+                            } else if (!toDocument(expected).equals(toDocument(actual))) {
+                                counts[2]++;
+                            } else {
+                                return;
+                            }
+                            if (sampleIds.size() < SAMPLE_SIZE) {
+                                sampleIds.add(id);
+                            }
+                        })))
+                .then(clientAggregateDao.count())
+                .map(aggregates -> AggregateVerification.builder()
+                        .checked(counts[0])
+                        .missing(counts[1])
+                        .mismatched(counts[2])
+                        .orphaned(Math.max(0, aggregates - (counts[0] - counts[1])))
+                        .sampleIds(new ArrayList<>(sampleIds))
+                        .build());
+    }
+
+    /**
+     * Resolves the people of a page of clients with three {@code $in} queries.
+     */
+    private Flux<ClientAggregate> assemble(List<Client> clients) {
+        Set<String> legalRepresentativeIds = new HashSet<>();
+        Set<String> authorizedSignatoryIds = new HashSet<>();
+        clients.forEach(client -> {
+            if (client.getLegalRepresentativeIds() != null) {
+                legalRepresentativeIds.addAll(client.getLegalRepresentativeIds());
+            }
+            if (client.getAuthorizedSignatoryIds() != null) {
+                authorizedSignatoryIds.addAll(client.getAuthorizedSignatoryIds());
+            }
+        });
+
+        Mono<Map<String, LegalRepresentative>> legalRepresentatives = legalRepresentativeIds.isEmpty()
+                ? Mono.just(Collections.emptyMap())
+                : legalRepresentativeDao.findAllById(legalRepresentativeIds)
+                        .collectMap(LegalRepresentative::getId);
+
+        Mono<Map<String, AuthorizedSignatory>> authorizedSignatories = authorizedSignatoryIds.isEmpty()
+                ? Mono.just(Collections.emptyMap())
+                : authorizedSignatoryDao.findAllById(authorizedSignatoryIds)
+                        .collectMap(AuthorizedSignatory::getId);
+
+        return Mono.zip(legalRepresentatives, authorizedSignatories)
+                .flatMapMany(tuple -> {
+                    Map<String, LegalRepresentative> legalReps = tuple.getT1();
+                    Map<String, AuthorizedSignatory> authSignatories = tuple.getT2();
+
+                    Set<String> personIds = new HashSet<>();
+                    clients.forEach(client -> personIds.add(client.getPersonId()));
+                    legalReps.values().forEach(legalRep -> personIds.add(legalRep.getPersonId()));
+                    authSignatories.values().forEach(authSignatory -> personIds.add(authSignatory.getPersonId()));
+                    personIds.remove(null);
+
+                    return personDao.findAllById(personIds)
+                            .collectMap(Person::getId)
+                            .flatMapIterable(persons -> clients.stream()
+                                    .map(client -> ClientAggregateMapper.toAggregate(client, persons, legalReps, authSignatories))
+                                    .collect(Collectors.toList()));
+                });
+    }
+
+    private Document toDocument(ClientAggregate aggregate) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(aggregate, document);
+        return document;
+    }
+}
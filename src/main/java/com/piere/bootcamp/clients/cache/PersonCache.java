@@ -0,0 +1,202 @@
+package com.piere.bootcamp.clients.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.mongodb.MongoCommandException;
+import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.lookup.DocumentNumbers;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * In-process cache of persons by document number, bounded by size and TTL.
+ * Entries are loaded asynchronously from {@link PersonDao} and invalidated both by local
+ * writes and by a change stream on {@code persons}, so every replica drops an entry as soon
+ * as any replica changes the underlying document. A standalone server has no change streams;
+ * there entries changed by another replica live until they expire.
+ */
+@Slf4j
+@Component
+public class PersonCache {
+
+    private static final String CACHE_NAME = "persons";
+
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+    @Autowired
+    private PersonDao personDao;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${clients.person-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${clients.person-cache.expire-after-write:5m}")
+    private Duration expireAfterWrite;
+
+    @Value("${clients.person-cache.change-stream.enabled:true}")
+    private boolean changeStreamEnabled;
+
+    /**
+     * Change events only carry the document key, so keep the reverse mapping
+     * of every cached person id to its cache keys.
+     */
+    private final Map<String, Set<String>> keysById = new ConcurrentHashMap<>();
+
+    /**
+     * Loads still in flight, by key. Which person a load finds is only known once it completes,
+     * so an invalidation cannot tell whether a load read the person before its change.
+     */
+    private final Map<String, CompletableFuture<Person>> loading = new ConcurrentHashMap<>();
+
+    private AsyncLoadingCache<String, Person> cache;
+
+    private Disposable changeStream;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .removalListener((String key, Person person, RemovalCause cause) -> {
+                    if (person != null) {
+                        keysById.computeIfPresent(person.getId(), (id, keys) -> {
+                            keys.remove(key);
+                            return keys.isEmpty() ? null : keys;
+                        });
+                    }
+                })
+                .buildAsync((key, executor) -> load(key));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Resolves a person by document number alone, whatever its document type; fails with 409
+     * when persons of different document types share it.
+     */
+    public Mono<Person> findByDocumentNumber(String documentNumber) {
+        return this.findByDocumentNumber(null, documentNumber);
+    }
+
+    /**
+     * Resolves a person by lookup key, or by document number alone when {@code documentType} is {@code null}.
+     */
+    public Mono<Person> findByDocumentNumber(DocumentTypeEnum documentType, String documentNumber) {
+        String key = DocumentNumbers.key(documentType, documentNumber);
+        return key == null ? Mono.empty() : Mono.fromFuture(() -> cache.get(key));
+    }
+
+    /**
+     * Drops the cached entries of the person, and every load in flight: one may have read the
+     * person before the change. Their callers still get what was read, but it is not cached.
+     */
+    public void invalidateById(String id) {
+        Set<String> keys = keysById.remove(id);
+        if (keys != null) {
+            cache.synchronous().invalidateAll(keys);
+        }
+        loading.forEach((key, load) -> cache.asMap().remove(key, load));
+    }
+
+    private CompletableFuture<Person> load(String key) {
+        CompletableFuture<Person> load = DocumentNumbers.unique(personDao.findByKey(key))
+                .doOnNext(person -> keysById.computeIfAbsent(person.getId(), id -> ConcurrentHashMap.newKeySet())
+                        .add(key))
+                .toFuture();
+        loading.put(key, load);
+        load.whenComplete((person, error) -> loading.remove(key, load));
+        return load;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void watchChanges() {
+        if (!changeStreamEnabled) {
+            return;
+        }
+        changeStream = watch(mongoTemplate.changeStream(Document.class)
+                .watchCollection(Person.class)
+                .listen());
+    }
+
+    Disposable watch(Flux<ChangeStreamEvent<Document>> events) {
+        return events
+                .doOnNext(this::onChange)
+                // Events may have been missed while disconnected, so start over from an empty cache.
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofMinutes(1))
+                        .filter(error -> !isUnsupported(error))
+                        .doBeforeRetry(signal -> {
+                            log.warn("Person change stream interrupted: {}", signal.failure().getMessage());
+                            cache.synchronous().invalidateAll();
+                        }))
+                .subscribe(event -> {
+                }, error -> log.warn("Person change stream unavailable, cached persons are only dropped on local writes "
+                        + "or after {}: {}", expireAfterWrite, error.getMessage()));
+    }
+
+    /**
+     * Change streams need a replica set or a sharded cluster; a standalone server rejects them
+     * on every attempt.
+     */
+    private static boolean isUnsupported(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException
+                    && ((MongoCommandException) cause).getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void onChange(ChangeStreamEvent<Document> event) {
+        if (event.getRaw() == null || event.getRaw().getDocumentKey() == null) {
+            cache.synchronous().invalidateAll();
+            return;
+        }
+        BsonValue id = event.getRaw().getDocumentKey().get("_id");
+        if (id == null) {
+            return;
+        }
+        invalidateById(id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue());
+    }
+
+    @PreDestroy
+    void stopWatching() {
+        if (changeStream != null) {
+            changeStream.dispose();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.piere.bootcamp.clients.conditional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.PersonDto;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Strong entity tags derived from document versions, and the {@code If-None-Match} and
+ * {@code If-Match} handling built on them. A client's tag is its version, followed by its
+ * person's when the person is part of the representation, e.g. {@code "3.7"}.
+ */
+public final class ETags {
+
+    private static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final String SEPARATOR = ".";
+
+    private ETags() {
+    }
+
+    /**
+     * @return {@code null} for documents written before they were versioned
+     */
+    public static String of(ClientDto client) {
+        if (client.getVersion() == null) {
+            return null;
+        }
+        if (client.getPerson() == null) {
+            return quote(String.valueOf(client.getVersion()));
+        }
+        if (client.getPerson().getVersion() == null) {
+            return null;
+        }
+        return quote(client.getVersion() + SEPARATOR + client.getPerson().getVersion());
+    }
+
+    public static String of(PersonDto person) {
+        return person.getVersion() == null ? null : quote(String.valueOf(person.getVersion()));
+    }
+
+    /**
+     * Answers a conditional GET. When {@code If-None-Match} matches the tag of {@code current},
+     * a read of the versions only, the answer is a 304 and {@code full} is never subscribed;
+     * otherwise it is {@code full}, tagged with the versions it was actually read at.
+     */
+    public static <T> Mono<ResponseEntity<T>> get(String ifNoneMatch, Mono<T> current, Mono<T> full, Function<T, String> etag) {
+        Mono<ResponseEntity<T>> ok = full.map(body -> ok(body, etag.apply(body)));
+        if (ifNoneMatch == null) {
+            return ok;
+        }
+        return current.flatMap(versions -> {
+            String tag = etag.apply(versions);
+            if (tag != null && matchesAny(ifNoneMatch, tag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).<T>build());
+            }
+            return ok;
+        });
+    }
+
+    /**
+     * A 200 carrying the tag, if there is one.
+     */
+    public static <T> ResponseEntity<T> ok(T body, String etag) {
+        return etag == null ? ResponseEntity.ok(body) : ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    /**
+     * Copies the versions of a single strong tag in {@code If-Match} onto the client and its
+     * person, so the update is rejected if either changed since. {@code *} leaves them as sent.
+     */
+    public static void ifMatch(String ifMatch, ClientDto client) {
+        long[] versions = versions(ifMatch);
+        if (versions == null) {
+            return;
+        }
+        if (versions.length > 2 || (versions.length == 2 && client.getPerson() == null)) {
+            throw preconditionFailed(ifMatch);
+        }
+        client.setVersion(versions[0]);
+        if (versions.length == 2) {
+            client.getPerson().setVersion(versions[1]);
+        }
+    }
+
+    public static void ifMatch(String ifMatch, PersonDto person) {
+        long[] versions = versions(ifMatch);
+        if (versions == null) {
+            return;
+        }
+        if (versions.length != 1) {
+            throw preconditionFailed(ifMatch);
+        }
+        person.setVersion(versions[0]);
+    }
+
+    /**
+     * A save rejected by optimistic locking becomes a 412, as if the caller had sent the
+     * version it read in {@code If-Match}.
+     */
+    public static <T> Mono<T> preconditionFailedOnConflict(Mono<T> update) {
+        return update.onErrorMap(OptimisticLockingFailureException.class,
+                e -> new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "The resource was modified since it was read", e));
+    }
+
+    /**
+     * Weak comparison, as {@code If-None-Match} requires.
+     */
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        return tags(ifNoneMatch).stream()
+                .map(tag -> tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)
+                .anyMatch(tag -> ANY.equals(tag) || etag.equals(tag));
+    }
+
+    /**
+     * @return {@code null} when there is no precondition on the version
+     */
+    private static long[] versions(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        List<String> tags = tags(ifMatch);
+        if (tags.size() == 1 && ANY.equals(tags.get(0))) {
+            return null;
+        }
+        // A weak tag never matches for If-Match, and a version can only be checked against one tag
+        if (tags.size() != 1 || !tags.get(0).startsWith("\"") || !tags.get(0).endsWith("\"") || tags.get(0).length() < 3) {
+            throw preconditionFailed(ifMatch);
+        }
+        String[] parts = tags.get(0).substring(1, tags.get(0).length() - 1).split("\\" + SEPARATOR, -1);
+        long[] versions = new long[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                versions[i] = Long.parseLong(parts[i]);
+            }
+        } catch (NumberFormatException e) {
+            throw preconditionFailed(ifMatch);
+        }
+        return versions;
+    }
+
+    private static List<String> tags(String header) {
+        return Arrays.stream(header.split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    private static ResponseStatusException preconditionFailed(String ifMatch) {
+        return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match " + ifMatch + " does not match the current version");
+    }
+}
@@ -0,0 +1,59 @@
+package com.piere.bootcamp.clients.conditional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.Person;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gives version 0 to the clients, persons, legal representatives and authorized signatories
+ * written before they were versioned. Without a version Spring Data takes an entity for a new
+ * one, and its save for an insert that the existing {@code _id} rejects.
+ */
+@Slf4j
+@Component
+public class VersionBackfill {
+
+    private static final String VERSION = "version";
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Value("${clients.version.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void backfillOnStartup() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        Flux.concat(backfill(Client.class), backfill(Person.class), backfill(LegalRepresentative.class),
+                        backfill(AuthorizedSignatory.class))
+                .reduce(0L, Long::sum)
+                .subscribe(
+                        updated -> log.info("Versioned {} documents", updated),
+                        error -> log.error("Version backfill failed: {}", error.getMessage()));
+    }
+
+    private Mono<Long> backfill(Class<?> type) {
+        return mongoTemplate.updateMulti(
+                        Query.query(Criteria.where(VERSION).exists(false)),
+                        Update.update(VERSION, 0L),
+                        type)
+                .map(result -> result.getModifiedCount());
+    }
+}
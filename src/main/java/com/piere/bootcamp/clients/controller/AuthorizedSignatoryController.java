@@ -1,6 +1,7 @@
 package com.piere.bootcamp.clients.controller;
 
 import java.net.URI;
+import java.util.List;
 
 import javax.validation.Valid;
 
@@ -13,9 +14,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.piere.bootcamp.clients.conditional.ETags;
 import com.piere.bootcamp.clients.model.dto.AuthorizedSignatoryDto;
+import com.piere.bootcamp.clients.model.dto.PageDto;
+import com.piere.bootcamp.clients.routing.ReadRouting;
 import com.piere.bootcamp.clients.service.AuthorizedSignatoryService;
 
 import io.swagger.annotations.ApiOperation;
@@ -32,6 +37,9 @@ public class AuthorizedSignatoryController {
 
     @Autowired
     private AuthorizedSignatoryService authorizedSignatoryService;
+
+    @Autowired
+    private ReadRouting readRouting;
     
     /**
      * POST /api/authorized-signatories : Create authorized signatory
@@ -63,16 +71,18 @@ public class AuthorizedSignatoryController {
      *
      * @param authorizedSignatoryDto  (required)
      * @return Authorized signatory deleted (status code 200)
+     *         or Modified since it was read (status code 412)
      */
     @ApiOperation(value = "Authorized signatory deleted", nickname = "deleteAuthorizedSignatory", notes = "Delete an existing authorized signatory", response = AuthorizedSignatoryDto.class, responseContainer = "List", tags={ "authorizedSignatories", })
     @ApiResponses(value = { 
-        @ApiResponse(code = 200, message = "Authorized signatory deleted", response = AuthorizedSignatoryDto.class, responseContainer = "List") })
+        @ApiResponse(code = 200, message = "Authorized signatory deleted", response = AuthorizedSignatoryDto.class, responseContainer = "List"),
+        @ApiResponse(code = 412, message = "Modified since it was read") })
     @DeleteMapping(
         produces = { "application/json" },
         consumes = { "application/json" }
     )
     Mono<ResponseEntity<Void>> deleteAuthorizedSignatory(@ApiParam(value = "" ,required=true )  @Valid @RequestBody AuthorizedSignatoryDto authorizedSignatoryDto) {
-        return authorizedSignatoryService.deleteAuthorizedSignatory(authorizedSignatoryDto)
+        return ETags.preconditionFailedOnConflict(authorizedSignatoryService.deleteAuthorizedSignatory(authorizedSignatoryDto))
                 .map(authorizedSignatory -> ResponseEntity.ok().body(authorizedSignatory));
     }
 
@@ -81,6 +91,7 @@ public class AuthorizedSignatoryController {
      * GET /api/authorized-signatories : Get all authorized signatories
      * Use to request all authorized signatories
      *
+     * @param fields Comma-separated fields to return, e.g. id,personId,status (optional)
      * @return A list of authorized signatories (status code 200)
      */
     @ApiOperation(value = "Get all authorized signatories", nickname = "findAllAuthorizedSignatories", notes = "Use to request all authorized signatories", response = AuthorizedSignatoryDto.class, responseContainer = "List", tags={ "authorizedSignatories", })
@@ -89,11 +100,34 @@ public class AuthorizedSignatoryController {
     @GetMapping(
         produces = { "application/json" }
     )
-    Mono<ResponseEntity<Flux<AuthorizedSignatoryDto>>> findAllAuthorizedSignatories() {
-        return Mono.just(ResponseEntity.ok().body(authorizedSignatoryService.findAllAuthorizedSignatories()));
+    Mono<ResponseEntity<Flux<AuthorizedSignatoryDto>>> findAllAuthorizedSignatories(@ApiParam(value = "Comma-separated fields to return, e.g. id,personId,status") @RequestParam(value = "fields", required = false) List<String> fields) {
+        return Mono.just(ResponseEntity.ok().body(readRouting.route(ReadRouting.FIND_ALL, authorizedSignatoryService.findAllAuthorizedSignatories(fields))));
     }
 
 
+    /**
+     * GET /api/authorized-signatories/page : Get a page of authorized signatories
+     * Use to request authorized signatories page by page, in ID order
+     *
+     * @param pageToken Token returned by the previous page (optional)
+     * @param size Maximum number of authorized signatories in the page (optional)
+     * @param fields Comma-separated fields to return, e.g. id,personId,status (optional)
+     * @return A page of authorized signatories (status code 200)
+     */
+    @ApiOperation(value = "Get a page of authorized signatories", nickname = "findAuthorizedSignatoriesPage", notes = "Use to request authorized signatories page by page, in ID order", response = PageDto.class, tags={ "authorizedSignatories", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "A page of authorized signatories", response = PageDto.class) })
+    @GetMapping(
+        value = "/page",
+        produces = { "application/json" }
+    )
+    Mono<ResponseEntity<PageDto<AuthorizedSignatoryDto>>> findAuthorizedSignatoriesPage(@ApiParam(value = "Token returned by the previous page") @RequestParam(value = "pageToken", required = false) String pageToken,
+            @ApiParam(value = "Maximum number of authorized signatories in the page") @RequestParam(value = "size", required = false) Integer size,
+            @ApiParam(value = "Comma-separated fields to return, e.g. id,personId,status") @RequestParam(value = "fields", required = false) List<String> fields) {
+        return readRouting.route(ReadRouting.FIND_PAGE, authorizedSignatoryService.findAuthorizedSignatoriesPage(pageToken, size, fields))
+                .map(page -> ResponseEntity.ok(page));
+    }
+
     /**
      * PUT /api/authorized-signatories : Update an existing authorized signatory
      * Update an authorized signatory
@@ -102,18 +136,20 @@ public class AuthorizedSignatoryController {
      * @return Authorized signatory updated (status code 200)
      *         or Bad request (status code 400)
      *         or Not found (status code 404)
+     *         or Modified since it was read (status code 412)
      */
     @ApiOperation(value = "Update an existing authorized signatory", nickname = "updateAuthorizedSignatory", notes = "Update an authorized signatory", response = AuthorizedSignatoryDto.class, tags={ "authorizedSignatories", })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "Authorized signatory updated", response = AuthorizedSignatoryDto.class),
         @ApiResponse(code = 400, message = "Bad request"),
-        @ApiResponse(code = 404, message = "Not found") })
+        @ApiResponse(code = 404, message = "Not found"),
+        @ApiResponse(code = 412, message = "Modified since it was read") })
     @PutMapping(
         produces = { "application/json" },
         consumes = { "application/json" }
     )
     Mono<ResponseEntity<AuthorizedSignatoryDto>> updateAuthorizedSignatory(@ApiParam(value = "" ,required=true )  @Valid @RequestBody AuthorizedSignatoryDto authorizedSignatoryDto) {
-        return authorizedSignatoryService.updateAuthorizedSignatory(authorizedSignatoryDto)
+        return ETags.preconditionFailedOnConflict(authorizedSignatoryService.updateAuthorizedSignatory(authorizedSignatoryDto))
                 .map(authorizedSignatory -> ResponseEntity.ok(authorizedSignatory));
     }
 
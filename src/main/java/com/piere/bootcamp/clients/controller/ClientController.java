@@ -6,6 +6,8 @@ import java.util.List;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,10 +16,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.piere.bootcamp.clients.conditional.ETags;
+import com.piere.bootcamp.clients.model.dto.BulkClientResultDto;
 import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.PageDto;
+import com.piere.bootcamp.clients.routing.ReadRouting;
 import com.piere.bootcamp.clients.service.ClientService;
 
 import io.swagger.annotations.ApiOperation;
@@ -35,50 +43,84 @@ public class ClientController {
     @Autowired
     private ClientService clientService;
 
+    @Autowired
+    private ReadRouting readRouting;
+
     /**
      * POST /api/clients : Create client
      * Create a new client
      *
      * @param clientDto  (required)
+     * @param idempotencyKey Retries with the same key return the original response (optional)
      * @return Client created (status code 201)
      *         or Bad request (status code 400)
      *         or already exists (status code 409)
+     *         or Idempotency key reused with a different request (status code 422)
      */
     @ApiOperation(value = "Create client", nickname = "create", notes = "Create a new client", response = ClientDto.class, tags={ "clients", })
     @ApiResponses(value = { 
         @ApiResponse(code = 201, message = "Client created", response = ClientDto.class),
         @ApiResponse(code = 400, message = "Bad request"),
-        @ApiResponse(code = 409, message = "already exists") })
+        @ApiResponse(code = 409, message = "already exists"),
+        @ApiResponse(code = 422, message = "Idempotency key reused with a different request") })
     @PostMapping(
         produces = { "application/json" },
         consumes = { "application/json" }
     )
-    Mono<ResponseEntity<ClientDto>> createClient(@ApiParam(value = "" ,required=true )  @Valid @RequestBody ClientDto clientDto) {
-        return clientService.createClient(clientDto)
+    Mono<ResponseEntity<ClientDto>> createClient(@ApiParam(value = "" ,required=true )  @Valid @RequestBody ClientDto clientDto,
+            @ApiParam(value = "Retries with the same key return the original response") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return clientService.createClient(clientDto, idempotencyKey)
                 .map(client -> ResponseEntity.created(URI.create("/api/clients/")).body(client));
     }
 
 
+    /**
+     * POST /api/clients/bulk : Create clients in bulk
+     * Create many clients at once, as a JSON array or newline-delimited JSON
+     *
+     * @param clients  (required)
+     * @return One result per client, created or conflict (status code 200)
+     *         or Bad request (status code 400)
+     */
+    @ApiOperation(value = "Create clients in bulk", nickname = "createBulk", notes = "Create many clients at once, as a JSON array or newline-delimited JSON", response = BulkClientResultDto.class, responseContainer = "List", tags={ "clients", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "One result per client", response = BulkClientResultDto.class, responseContainer = "List"),
+        @ApiResponse(code = 400, message = "Bad request") })
+    @PostMapping(
+        value = "/bulk",
+        produces = { "application/json", MediaType.APPLICATION_NDJSON_VALUE },
+        consumes = { "application/json", MediaType.APPLICATION_NDJSON_VALUE }
+    )
+    Flux<BulkClientResultDto> createClients(@ApiParam(value = "" ,required=true )  @RequestBody Flux<ClientDto> clients) {
+        return clientService.createClients(clients);
+    }
+
+
     /**
      * DELETE /api/clients : Client deleted
      * Delete an existing client
      *
      * @param clientDto  (required)
+     * @param ifMatch ETag of the client as it was read; the delete is rejected if it changed since (optional)
      * @return Client deleted (status code 200)
      *         or Bad request (status code 400)
      *         or Not found (status code 404)
+     *         or Modified since it was read (status code 412)
      */
     @ApiOperation(value = "Client deleted", nickname = "delete", notes = "Delete an existing client", response = ClientDto.class, responseContainer = "List", tags={ "clients", })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "Client deleted", response = ClientDto.class, responseContainer = "List"),
         @ApiResponse(code = 400, message = "Bad request"),
-        @ApiResponse(code = 404, message = "Not found") })
+        @ApiResponse(code = 404, message = "Not found"),
+        @ApiResponse(code = 412, message = "Modified since it was read") })
     @DeleteMapping(
         produces = { "application/json" },
         consumes = { "application/json" }
     )
-    Mono<ResponseEntity<Void>> deleteClient(@ApiParam(value = "" ,required=true )  @Valid @RequestBody ClientDto clientDto) {
-        return clientService.deleteClient(clientDto)
+    Mono<ResponseEntity<Void>> deleteClient(@ApiParam(value = "" ,required=true )  @Valid @RequestBody ClientDto clientDto,
+            @ApiParam(value = "ETag of the client as it was read") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ETags.ifMatch(ifMatch, clientDto);
+        return ETags.preconditionFailedOnConflict(clientService.deleteClient(clientDto))
                 .map(client -> ResponseEntity.ok().build());
     }
 
@@ -87,6 +129,8 @@ public class ClientController {
      * GET /api/clients : Get all clients
      * Use to request all clients
      *
+     * @param expand Resolve person, legal representatives and authorized signatories (optional, default to false)
+     * @param fields Comma-separated fields to return, e.g. id,clientType,status; not with expand (optional)
      * @return A list of clients (status code 200)
      */
     @ApiOperation(value = "Get all clients", nickname = "findAll", notes = "Use to request all clients", response = ClientDto.class, responseContainer = "List", tags={ "clients", })
@@ -95,8 +139,48 @@ public class ClientController {
     @GetMapping(
         produces = { "application/json" }
     )
-    Mono<ResponseEntity<Flux<ClientDto>>> findAllClients() {
-        return Mono.just(ResponseEntity.ok(clientService.findAllClients()));
+    Mono<ResponseEntity<Flux<ClientDto>>> findAllClients(@ApiParam(value = "Resolve person, legal representatives and authorized signatories", defaultValue = "false") @RequestParam(value = "expand", required = false, defaultValue = "false") boolean expand,
+            @ApiParam(value = "Comma-separated fields to return, e.g. id,clientType,status; not with expand") @RequestParam(value = "fields", required = false) List<String> fields) {
+        return Mono.just(ResponseEntity.ok(readRouting.route(ReadRouting.FIND_ALL, clientService.findAllClients(expand, fields))));
+    }
+
+    /**
+     * GET /api/clients : Stream all clients
+     * Use to export all clients as newline-delimited JSON or server-sent events
+     *
+     * @return A stream of clients (status code 200)
+     */
+    @ApiOperation(value = "Stream all clients", nickname = "streamAll", notes = "Use to export all clients as newline-delimited JSON or server-sent events", response = ClientDto.class, responseContainer = "List", tags={ "clients", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "A stream of clients", response = ClientDto.class, responseContainer = "List") })
+    @GetMapping(
+        produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE }
+    )
+    Flux<ClientDto> streamAllClients() {
+        return readRouting.route(ReadRouting.STREAM_ALL, clientService.streamAllClients());
+    }
+
+    /**
+     * GET /api/clients/page : Get a page of clients
+     * Use to request clients page by page, in ID order
+     *
+     * @param pageToken Token returned by the previous page (optional)
+     * @param size Maximum number of clients in the page (optional)
+     * @param fields Comma-separated fields to return, e.g. id,clientType,status (optional)
+     * @return A page of clients (status code 200)
+     */
+    @ApiOperation(value = "Get a page of clients", nickname = "findClientsPage", notes = "Use to request clients page by page, in ID order", response = PageDto.class, tags={ "clients", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "A page of clients", response = PageDto.class) })
+    @GetMapping(
+        value = "/page",
+        produces = { "application/json" }
+    )
+    Mono<ResponseEntity<PageDto<ClientDto>>> findClientsPage(@ApiParam(value = "Token returned by the previous page") @RequestParam(value = "pageToken", required = false) String pageToken,
+            @ApiParam(value = "Maximum number of clients in the page") @RequestParam(value = "size", required = false) Integer size,
+            @ApiParam(value = "Comma-separated fields to return, e.g. id,clientType,status") @RequestParam(value = "fields", required = false) List<String> fields) {
+        return readRouting.route(ReadRouting.FIND_PAGE, clientService.findClientsPage(pageToken, size, fields))
+                .map(page -> ResponseEntity.ok(page));
     }
 
     /**
@@ -104,6 +188,7 @@ public class ClientController {
      * Use to request a list of clients by ID
      *
      * @param requestBody  (required)
+     * @param expand Resolve person, legal representatives and authorized signatories (optional, default to false)
      * @return A list of clients (status code 200)
      *         or Not found (status code 404)
      */
@@ -116,8 +201,9 @@ public class ClientController {
         produces = { "application/json" },
         consumes = { "application/json" }
     )
-    Mono<ResponseEntity<Flux<ClientDto>>> findAllByIdList(@ApiParam(value = "" ,required=true )  @Valid @RequestBody List<String> idList) {
-        return Mono.just(ResponseEntity.ok(clientService.findAllByIdList(idList)));
+    Mono<ResponseEntity<Flux<ClientDto>>> findAllByIdList(@ApiParam(value = "" ,required=true )  @Valid @RequestBody List<String> idList,
+            @ApiParam(value = "Resolve person, legal representatives and authorized signatories", defaultValue = "false") @RequestParam(value = "expand", required = false, defaultValue = "false") boolean expand) {
+        return Mono.just(ResponseEntity.ok(readRouting.route(ReadRouting.FIND_ALL_BY_ID_LIST, clientService.findAllByIdList(idList, expand))));
     }
 
     /**
@@ -125,20 +211,28 @@ public class ClientController {
      * Use to request a client by document number
      *
      * @param documentNumber Document number of client to return (required)
+     * @param ifNoneMatch ETag of the client already held (optional)
      * @return A client (status code 200)
+     *         or Not modified (status code 304)
      *         or Not found (status code 404)
+     *         or More than one person has the document number (status code 409)
      */
     @ApiOperation(value = "Get client by document number", nickname = "findByDocumentNumber", notes = "Use to request a client by document number", response = ClientDto.class, tags={ "clients", })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "A client", response = ClientDto.class),
-        @ApiResponse(code = 404, message = "Not found") })
+        @ApiResponse(code = 304, message = "Not modified"),
+        @ApiResponse(code = 404, message = "Not found"),
+        @ApiResponse(code = 409, message = "More than one person has the document number") })
     @GetMapping(
         value = "/findByDocumentNumber/{documentNumber}",
         produces = { "application/json" }
     )
-    Mono<ResponseEntity<ClientDto>> findByDocumentNumber(@ApiParam(value = "Document number of client to return",required=true) @PathVariable("documentNumber") String documentNumber) {
-        return clientService.findByDocumentNumber(documentNumber)
-                .map(client -> ResponseEntity.ok(client));
+    Mono<ResponseEntity<ClientDto>> findByDocumentNumber(@ApiParam(value = "Document number of client to return",required=true) @PathVariable("documentNumber") String documentNumber,
+            @ApiParam(value = "ETag of the client already held") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return readRouting.route(ReadRouting.FIND_BY_DOCUMENT_NUMBER, ETags.get(ifNoneMatch,
+                clientService.findVersionByDocumentNumber(documentNumber),
+                clientService.findByDocumentNumber(documentNumber),
+                ETags::of));
     }
 
     /**
@@ -146,20 +240,33 @@ public class ClientController {
      * Use to request a client by ID
      *
      * @param id ID of client to return (required)
+     * @param expand Resolve person, legal representatives and authorized signatories (optional, default to false)
+     * @param ifNoneMatch ETag of the client already held; ignored with expand (optional)
      * @return A client (status code 200)
+     *         or Not modified (status code 304)
      *         or Not found (status code 404)
      */
     @ApiOperation(value = "Get client by ID", nickname = "findById", notes = "Use to request a client by ID", response = ClientDto.class, tags={ "clients", })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "A client", response = ClientDto.class),
+        @ApiResponse(code = 304, message = "Not modified"),
         @ApiResponse(code = 404, message = "Not found") })
     @GetMapping(
         value = "/{id}",
         produces = { "application/json" }
     )
-    Mono<ResponseEntity<ClientDto>> findById(@ApiParam(value = "ID of client to return",required=true) @PathVariable("id") String id) {
-        return clientService.findByDocumentNumber(id)
-        .map(client -> ResponseEntity.ok(client));
+    Mono<ResponseEntity<ClientDto>> findById(@ApiParam(value = "ID of client to return",required=true) @PathVariable("id") String id,
+            @ApiParam(value = "Resolve person, legal representatives and authorized signatories", defaultValue = "false") @RequestParam(value = "expand", required = false, defaultValue = "false") boolean expand,
+            @ApiParam(value = "ETag of the client already held; ignored with expand") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // The tag covers the client and its person only, not its representatives and signatories, so an expanded client has none
+        if (expand) {
+            return readRouting.route(ReadRouting.FIND_BY_ID, clientService.findById(id, true))
+                    .map(client -> ResponseEntity.ok(client));
+        }
+        return readRouting.route(ReadRouting.FIND_BY_ID, ETags.get(ifNoneMatch,
+                clientService.findVersionById(id),
+                clientService.findById(id, false),
+                ETags::of));
     }
 
     /**
@@ -167,21 +274,26 @@ public class ClientController {
      * Update a client
      *
      * @param clientDto  (required)
+     * @param ifMatch ETag of the client as it was read; the update is rejected if it changed since (optional)
      * @return Client updated (status code 200)
      *         or Bad request (status code 400)
      *         or Not found (status code 404)
+     *         or Modified since it was read (status code 412)
      */
     @ApiOperation(value = "Update an existing client", nickname = "update", notes = "Update a client", response = ClientDto.class, tags={ "clients", })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "Client updated", response = ClientDto.class),
         @ApiResponse(code = 400, message = "Bad request"),
-        @ApiResponse(code = 404, message = "Not found") })
+        @ApiResponse(code = 404, message = "Not found"),
+        @ApiResponse(code = 412, message = "Modified since it was read") })
     @PutMapping(
         produces = { "application/json" },
         consumes = { "application/json" }
     )
-    Mono<ResponseEntity<ClientDto>> updateClient(@ApiParam(value = "" ,required=true )  @Valid @RequestBody ClientDto clientDto) {
-        return clientService.updateClient(clientDto)
-                .map(client -> ResponseEntity.ok(client));
+    Mono<ResponseEntity<ClientDto>> updateClient(@ApiParam(value = "" ,required=true )  @Valid @RequestBody ClientDto clientDto,
+            @ApiParam(value = "ETag of the client as it was read") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ETags.ifMatch(ifMatch, clientDto);
+        return ETags.preconditionFailedOnConflict(clientService.updateClient(clientDto))
+                .map(client -> ETags.ok(client, ETags.of(client)));
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.piere.bootcamp.clients.controller;
 
 import java.net.URI;
+import java.util.List;
 
 import javax.validation.Valid;
 
@@ -13,9 +14,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.piere.bootcamp.clients.conditional.ETags;
 import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+import com.piere.bootcamp.clients.model.dto.PageDto;
+import com.piere.bootcamp.clients.routing.ReadRouting;
 import com.piere.bootcamp.clients.service.LegalRepresentativeService;
 
 import io.swagger.annotations.ApiOperation;
@@ -32,6 +37,9 @@ public class LegalRepresentativeController {
 
     @Autowired
     private LegalRepresentativeService legalRepresentativeService;
+
+    @Autowired
+    private ReadRouting readRouting;
     
     
     /**
@@ -60,17 +68,19 @@ public class LegalRepresentativeController {
      * @param legalRepresentativeDto  (required)
      * @return Legal representative deleted (status code 200)
      *         or Bad request (status code 400)
+     *         or Modified since it was read (status code 412)
      */
     @ApiOperation(value = "Legal representative deleted", nickname = "deleteLegalRepresentative", notes = "Delete an existing legal representative", response = LegalRepresentativeDto.class, responseContainer = "List", tags={ "legalRepresentatives", })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "Legal representative deleted", response = LegalRepresentativeDto.class, responseContainer = "List"),
-        @ApiResponse(code = 400, message = "Bad request") })
+        @ApiResponse(code = 400, message = "Bad request"),
+        @ApiResponse(code = 412, message = "Modified since it was read") })
     @DeleteMapping(
         produces = { "application/json" },
         consumes = { "application/json" }
     )
     Mono<ResponseEntity<Void>> deleteLegalRepresentative(@ApiParam(value = "" ,required=true )  @Valid @RequestBody LegalRepresentativeDto legalRepresentativeDto) {
-        return legalRepresentativeService.deleteLegalRepresentative(legalRepresentativeDto)
+        return ETags.preconditionFailedOnConflict(legalRepresentativeService.deleteLegalRepresentative(legalRepresentativeDto))
                 .map(legalRepresentative -> ResponseEntity.ok().body(legalRepresentative));
     }
 
@@ -78,6 +88,7 @@ public class LegalRepresentativeController {
      * GET /api/legal-representantives : Get all legal representatives
      * Use to request all legal representatives
      *
+     * @param fields Comma-separated fields to return, e.g. id,personId,status (optional)
      * @return A list of legal representatives (status code 200)
      */
     @ApiOperation(value = "Get all legal representatives", nickname = "findAllLegalRepresentatives", notes = "Use to request all legal representatives", response = LegalRepresentativeDto.class, responseContainer = "List", tags={ "legalRepresentatives", })
@@ -86,8 +97,31 @@ public class LegalRepresentativeController {
     @GetMapping(
         produces = { "application/json" }
     )
-    Mono<ResponseEntity<Flux<LegalRepresentativeDto>>> findAllLegalRepresentatives() {
-        return Mono.just(ResponseEntity.ok().body(legalRepresentativeService.findAllLegalRepresentatives()));
+    Mono<ResponseEntity<Flux<LegalRepresentativeDto>>> findAllLegalRepresentatives(@ApiParam(value = "Comma-separated fields to return, e.g. id,personId,status") @RequestParam(value = "fields", required = false) List<String> fields) {
+        return Mono.just(ResponseEntity.ok().body(readRouting.route(ReadRouting.FIND_ALL, legalRepresentativeService.findAllLegalRepresentatives(fields))));
+    }
+
+    /**
+     * GET /api/legal-representantives/page : Get a page of legal representatives
+     * Use to request legal representatives page by page, in ID order
+     *
+     * @param pageToken Token returned by the previous page (optional)
+     * @param size Maximum number of legal representatives in the page (optional)
+     * @param fields Comma-separated fields to return, e.g. id,personId,status (optional)
+     * @return A page of legal representatives (status code 200)
+     */
+    @ApiOperation(value = "Get a page of legal representatives", nickname = "findLegalRepresentativesPage", notes = "Use to request legal representatives page by page, in ID order", response = PageDto.class, tags={ "legalRepresentatives", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "A page of legal representatives", response = PageDto.class) })
+    @GetMapping(
+        value = "/page",
+        produces = { "application/json" }
+    )
+    Mono<ResponseEntity<PageDto<LegalRepresentativeDto>>> findLegalRepresentativesPage(@ApiParam(value = "Token returned by the previous page") @RequestParam(value = "pageToken", required = false) String pageToken,
+            @ApiParam(value = "Maximum number of legal representatives in the page") @RequestParam(value = "size", required = false) Integer size,
+            @ApiParam(value = "Comma-separated fields to return, e.g. id,personId,status") @RequestParam(value = "fields", required = false) List<String> fields) {
+        return readRouting.route(ReadRouting.FIND_PAGE, legalRepresentativeService.findLegalRepresentativesPage(pageToken, size, fields))
+                .map(page -> ResponseEntity.ok(page));
     }
 
     /**
@@ -98,18 +132,20 @@ public class LegalRepresentativeController {
      * @return Legal representative updated (status code 200)
      *         or Bad request (status code 400)
      *         or Not found (status code 404)
+     *         or Modified since it was read (status code 412)
      */
     @ApiOperation(value = "Update an existing legal representative", nickname = "updateLegalRepresentative", notes = "Update a legal representative", response = LegalRepresentativeDto.class, tags={ "legalRepresentatives", })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "Legal representative updated", response = LegalRepresentativeDto.class),
         @ApiResponse(code = 400, message = "Bad request"),
-        @ApiResponse(code = 404, message = "Not found") })
+        @ApiResponse(code = 404, message = "Not found"),
+        @ApiResponse(code = 412, message = "Modified since it was read") })
     @PutMapping(
         produces = { "application/json" },
         consumes = { "application/json" }
     )
     Mono<ResponseEntity<LegalRepresentativeDto>> updateLegalRepresentative(@ApiParam(value = "" ,required=true )  @Valid @RequestBody LegalRepresentativeDto legalRepresentativeDto) {
-        return legalRepresentativeService.updateLegalRepresentative(legalRepresentativeDto)
+        return ETags.preconditionFailedOnConflict(legalRepresentativeService.updateLegalRepresentative(legalRepresentativeDto))
                 .map(legalRepresentative -> ResponseEntity.ok(legalRepresentative));
     }
 
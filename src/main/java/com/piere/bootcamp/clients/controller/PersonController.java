@@ -1,10 +1,13 @@
 package com.piere.bootcamp.clients.controller;
 
 import java.net.URI;
+import java.util.List;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,10 +15,15 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.piere.bootcamp.clients.conditional.ETags;
+import com.piere.bootcamp.clients.model.dto.PageDto;
 import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.routing.ReadRouting;
 import com.piere.bootcamp.clients.service.PersonService;
 
 import io.swagger.annotations.ApiOperation;
@@ -33,6 +41,9 @@ public class PersonController {
     @Autowired
     private PersonService personService;
 
+    @Autowired
+    private ReadRouting readRouting;
+
     /**
      * POST /api/persons : Create person
      * Create a new person
@@ -61,21 +72,26 @@ public class PersonController {
      * Delete an existing person
      *
      * @param personDto  (required)
+     * @param ifMatch ETag of the person as it was read; the delete is rejected if it changed since (optional)
      * @return Person deleted (status code 200)
      *         or Bad request (status code 400)
      *         or Not found (status code 404)
+     *         or Modified since it was read (status code 412)
      */
     @ApiOperation(value = "Person deleted", nickname = "deletePerson", notes = "Delete an existing person", response = PersonDto.class, responseContainer = "List", tags={ "persons", })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "Person deleted", response = PersonDto.class, responseContainer = "List"),
         @ApiResponse(code = 400, message = "Bad request"),
-        @ApiResponse(code = 404, message = "Not found") })
+        @ApiResponse(code = 404, message = "Not found"),
+        @ApiResponse(code = 412, message = "Modified since it was read") })
     @DeleteMapping(
         produces = { "application/json" },
         consumes = { "application/json" }
     )
-    Mono<ResponseEntity<Void>> deletePerson(@ApiParam(value = "" ,required=true )  @Valid @RequestBody PersonDto personDto) {
-        return personService.deletePerson(personDto)
+    Mono<ResponseEntity<Void>> deletePerson(@ApiParam(value = "" ,required=true )  @Valid @RequestBody PersonDto personDto,
+            @ApiParam(value = "ETag of the person as it was read") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ETags.ifMatch(ifMatch, personDto);
+        return ETags.preconditionFailedOnConflict(personService.deletePerson(personDto))
                 .map(person -> ResponseEntity.ok().body(person));
     }
 
@@ -83,6 +99,7 @@ public class PersonController {
      * GET /api/persons : Get all persons
      * Use to request all persons
      *
+     * @param fields Comma-separated fields to return, e.g. id,documentType,documentNumber (optional)
      * @return A list of persons (status code 200)
      */
     @ApiOperation(value = "Get all persons", nickname = "findAllPersons", notes = "Use to request all persons", response = PersonDto.class, responseContainer = "List", tags={ "persons", })
@@ -91,8 +108,75 @@ public class PersonController {
     @GetMapping(
         produces = { "application/json" }
     )
-    Mono<ResponseEntity<Flux<PersonDto>>> findAllPersons() {
-        return Mono.just(ResponseEntity.ok().body(personService.findAllPersons()));
+    Mono<ResponseEntity<Flux<PersonDto>>> findAllPersons(@ApiParam(value = "Comma-separated fields to return, e.g. id,documentType,documentNumber") @RequestParam(value = "fields", required = false) List<String> fields) {
+        return Mono.just(ResponseEntity.ok().body(readRouting.route(ReadRouting.FIND_ALL, personService.findAllPersons(fields))));
+    }
+
+    /**
+     * GET /api/persons : Stream all persons
+     * Use to export all persons as newline-delimited JSON or server-sent events
+     *
+     * @return A stream of persons (status code 200)
+     */
+    @ApiOperation(value = "Stream all persons", nickname = "streamAllPersons", notes = "Use to export all persons as newline-delimited JSON or server-sent events", response = PersonDto.class, responseContainer = "List", tags={ "persons", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "A stream of persons", response = PersonDto.class, responseContainer = "List") })
+    @GetMapping(
+        produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE }
+    )
+    Flux<PersonDto> streamAllPersons() {
+        return readRouting.route(ReadRouting.STREAM_ALL, personService.streamAllPersons());
+    }
+
+    /**
+     * GET /api/persons/page : Get a page of persons
+     * Use to request persons page by page, in ID order
+     *
+     * @param pageToken Token returned by the previous page (optional)
+     * @param size Maximum number of persons in the page (optional)
+     * @param fields Comma-separated fields to return, e.g. id,documentType,documentNumber (optional)
+     * @return A page of persons (status code 200)
+     */
+    @ApiOperation(value = "Get a page of persons", nickname = "findPersonsPage", notes = "Use to request persons page by page, in ID order", response = PageDto.class, tags={ "persons", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "A page of persons", response = PageDto.class) })
+    @GetMapping(
+        value = "/page",
+        produces = { "application/json" }
+    )
+    Mono<ResponseEntity<PageDto<PersonDto>>> findPersonsPage(@ApiParam(value = "Token returned by the previous page") @RequestParam(value = "pageToken", required = false) String pageToken,
+            @ApiParam(value = "Maximum number of persons in the page") @RequestParam(value = "size", required = false) Integer size,
+            @ApiParam(value = "Comma-separated fields to return, e.g. id,documentType,documentNumber") @RequestParam(value = "fields", required = false) List<String> fields) {
+        return readRouting.route(ReadRouting.FIND_PAGE, personService.findPersonsPage(pageToken, size, fields))
+                .map(page -> ResponseEntity.ok(page));
+    }
+
+    /**
+     * GET /api/persons/search : Search persons
+     * Use to find persons by name, last name, trade name or company name, most relevant first,
+     * and by the beginning of their document number
+     *
+     * @param q Words to look for in the names (optional)
+     * @param documentNumber Beginning of the document number, compared without separators or leading zeros (optional)
+     * @param pageToken Token returned by the previous page (optional)
+     * @param size Maximum number of persons in the page (optional)
+     * @return A page of persons (status code 200)
+     *         or Bad request (status code 400)
+     */
+    @ApiOperation(value = "Search persons", nickname = "searchPersons", notes = "Use to find persons by name, last name, trade name or company name, most relevant first, and by the beginning of their document number", response = PageDto.class, tags={ "persons", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "A page of persons", response = PageDto.class),
+        @ApiResponse(code = 400, message = "Bad request") })
+    @GetMapping(
+        value = "/search",
+        produces = { "application/json" }
+    )
+    Mono<ResponseEntity<PageDto<PersonDto>>> searchPersons(@ApiParam(value = "Words to look for in the names") @RequestParam(value = "q", required = false) String q,
+            @ApiParam(value = "Beginning of the document number, compared without separators or leading zeros") @RequestParam(value = "documentNumber", required = false) String documentNumber,
+            @ApiParam(value = "Token returned by the previous page") @RequestParam(value = "pageToken", required = false) String pageToken,
+            @ApiParam(value = "Maximum number of persons in the page") @RequestParam(value = "size", required = false) Integer size) {
+        return readRouting.route(ReadRouting.SEARCH, personService.searchPersons(q, documentNumber, pageToken, size))
+                .map(page -> ResponseEntity.ok(page));
     }
 
     /**
@@ -100,21 +184,26 @@ public class PersonController {
      * Update a person
      *
      * @param personDto  (required)
+     * @param ifMatch ETag of the person as it was read; the update is rejected if it changed since (optional)
      * @return Person updated (status code 200)
      *         or Bad request (status code 400)
      *         or Not found (status code 404)
+     *         or Modified since it was read (status code 412)
      */
     @ApiOperation(value = "Update an existing person", nickname = "updatePerson", notes = "Update a person", response = PersonDto.class, tags={ "persons", })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "Person updated", response = PersonDto.class),
         @ApiResponse(code = 400, message = "Bad request"),
-        @ApiResponse(code = 404, message = "Not found") })
+        @ApiResponse(code = 404, message = "Not found"),
+        @ApiResponse(code = 412, message = "Modified since it was read") })
     @PutMapping(
         produces = { "application/json" },
         consumes = { "application/json" }
     )
-    Mono<ResponseEntity<PersonDto>> updatePerson(@ApiParam(value = "" ,required=true )  @Valid @RequestBody PersonDto personDto) {
-        return personService.updatePerson(personDto)
-                .map(person -> ResponseEntity.ok(person));
+    Mono<ResponseEntity<PersonDto>> updatePerson(@ApiParam(value = "" ,required=true )  @Valid @RequestBody PersonDto personDto,
+            @ApiParam(value = "ETag of the person as it was read") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ETags.ifMatch(ifMatch, personDto);
+        return ETags.preconditionFailedOnConflict(personService.updatePerson(personDto))
+                .map(person -> ETags.ok(person, ETags.of(person)));
     }
 }
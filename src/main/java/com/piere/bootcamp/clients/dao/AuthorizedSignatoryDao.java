@@ -1,13 +1,18 @@
 package com.piere.bootcamp.clients.dao;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
 import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface AuthorizedSignatoryDao extends ReactiveMongoRepository<AuthorizedSignatory, String> {
 
     Mono<AuthorizedSignatory> findByPersonId(String id);
-    
+
+    Flux<AuthorizedSignatory> findAllBy(Pageable pageable);
+
+    Flux<AuthorizedSignatory> findByIdGreaterThan(String id, Pageable pageable);
 }
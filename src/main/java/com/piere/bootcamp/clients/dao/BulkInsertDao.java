@@ -0,0 +1,104 @@
+package com.piere.bootcamp.clients.dao;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.callback.ReactiveEntityCallbacks;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Inserts documents of any mapped type with a single unordered {@code bulkWrite}.
+ * Before-convert callbacks run as they would for a template insert, so derived fields are filled in,
+ * and versioned entities start at version 0 as well.
+ */
+@Repository
+public class BulkInsertDao {
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private ReactiveEntityCallbacks entityCallbacks;
+
+    @PostConstruct
+    void init() {
+        entityCallbacks = ReactiveEntityCallbacks.create(applicationContext);
+    }
+
+    /**
+     * Writes every entity in one round-trip. Entities must carry their ids already, since
+     * an unordered bulk write does not report generated ids back.
+     *
+     * @return the positions of the entities that could not be written
+     */
+    public <T> Mono<Set<Integer>> insertUnordered(List<T> entities, Class<T> type) {
+        if (entities.isEmpty()) {
+            return Mono.just(Collections.emptySet());
+        }
+        String collectionName = mongoTemplate.getCollectionName(type);
+        return Flux.fromIterable(entities)
+                .concatMap(entity -> entityCallbacks.callback(ReactiveBeforeConvertCallback.class, entity, collectionName))
+                .map(entity -> {
+                    initializeVersion(entity);
+                    Document document = new Document();
+                    mongoTemplate.getConverter().write(entity, document);
+                    return (WriteModel<Document>) new InsertOneModel<>(document);
+                })
+                .collectList()
+                .zipWith(mongoTemplate.getCollection(collectionName))
+                .flatMap(tuple -> Mono.from(tuple.getT2().bulkWrite(tuple.getT1(), new BulkWriteOptions().ordered(false))))
+                .map(result -> Collections.<Integer>emptySet())
+                .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(e.getWriteErrors().stream()
+                        .map(BulkWriteError::getIndex)
+                        .collect(Collectors.toSet())));
+    }
+
+    /**
+     * Deletes the given ids in one round-trip; ids that were never written match nothing.
+     */
+    public Mono<Void> deleteAll(Collection<String> ids, Class<?> type) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        return mongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), type).then();
+    }
+
+    private void initializeVersion(Object entity) {
+        MongoPersistentEntity<?> persistentEntity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entity.getClass());
+        if (!persistentEntity.hasVersionProperty()) {
+            return;
+        }
+        PersistentPropertyAccessor<Object> accessor = persistentEntity.getPropertyAccessor(entity);
+        MongoPersistentProperty version = persistentEntity.getRequiredVersionProperty();
+        if (accessor.getProperty(version) == null) {
+            accessor.setProperty(version, 0L);
+        }
+    }
+}
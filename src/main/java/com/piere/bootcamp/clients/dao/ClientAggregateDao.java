@@ -0,0 +1,8 @@
+package com.piere.bootcamp.clients.dao;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.piere.bootcamp.clients.model.document.ClientAggregate;
+
+public interface ClientAggregateDao extends ReactiveMongoRepository<ClientAggregate, String> {
+}
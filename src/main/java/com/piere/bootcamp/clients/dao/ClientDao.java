@@ -1,14 +1,20 @@
 package com.piere.bootcamp.clients.dao;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
 import com.piere.bootcamp.clients.model.document.Client;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 
-public interface ClientDao extends ReactiveMongoRepository<Client, String> {
+public interface ClientDao extends ReactiveMongoRepository<Client, String>, ClientDaoCustom {
 
     Mono<Client> findByPersonId(String id);
 
+    Flux<Client> findAllBy(Pageable pageable);
+
+    Flux<Client> findByIdGreaterThan(String id, Pageable pageable);
+
 }
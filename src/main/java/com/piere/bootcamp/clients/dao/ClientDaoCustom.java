@@ -0,0 +1,14 @@
+package com.piere.bootcamp.clients.dao;
+
+import com.piere.bootcamp.clients.model.document.Client;
+
+import reactor.core.publisher.Flux;
+
+public interface ClientDaoCustom {
+
+    /**
+     * Streams the whole collection straight from the cursor, fetching
+     * {@code cursorBatchSize} documents per round-trip as downstream demand allows.
+     */
+    Flux<Client> streamAll(int cursorBatchSize);
+}
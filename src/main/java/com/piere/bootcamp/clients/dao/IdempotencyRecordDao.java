@@ -0,0 +1,8 @@
+package com.piere.bootcamp.clients.dao;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.piere.bootcamp.clients.model.document.IdempotencyRecord;
+
+public interface IdempotencyRecordDao extends ReactiveMongoRepository<IdempotencyRecord, String> {
+}
@@ -1,13 +1,18 @@
 package com.piere.bootcamp.clients.dao;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
 import com.piere.bootcamp.clients.model.document.LegalRepresentative;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface LegalRepresentativeDao extends ReactiveMongoRepository<LegalRepresentative, String> {
 
     Mono<LegalRepresentative> findByPersonId(String id);
-    
+
+    Flux<LegalRepresentative> findAllBy(Pageable pageable);
+
+    Flux<LegalRepresentative> findByIdGreaterThan(String id, Pageable pageable);
 }
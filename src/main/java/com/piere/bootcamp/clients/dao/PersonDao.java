@@ -1,12 +1,61 @@
 package com.piere.bootcamp.clients.dao;
 
+import java.util.Collection;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
+import com.piere.bootcamp.clients.model.document.ClientWithPerson;
 import com.piere.bootcamp.clients.model.document.Person;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface PersonDao extends ReactiveMongoRepository<Person, String> {
+public interface PersonDao extends ReactiveMongoRepository<Person, String>, PersonDaoCustom {
     
-    Mono<Person> findByDocumentNumber(String documentNumber);
+    /**
+     * Resolves persons by a key of {@link com.piere.bootcamp.clients.lookup.DocumentNumbers#key},
+     * matched against both the lookup key and the normalized number since their values never overlap.
+     */
+    @Query(value = "{ $or: [ { lookup_key: ?0 }, { normalized_document_number: ?0 } ] }", sort = "{ _id: 1 }")
+    Flux<Person> findByKey(String key);
+
+    @Query("{ $or: [ { lookup_key: { $in: ?0 } }, { normalized_document_number: { $in: ?0 } } ] }")
+    Flux<Person> findByKeyIn(Collection<String> keys);
+
+    /**
+     * Resolves the persons by the same kind of key as {@link #findByKey} and joins the client
+     * that references each in a single round-trip. At most two are returned, enough to tell an
+     * ambiguous key apart; the client is {@code null} for a person no client references.
+     */
+    @Aggregation(pipeline = {
+        "{ $match: { $or: [ { lookup_key: ?0 }, { normalized_document_number: ?0 } ] } }",
+        "{ $sort: { _id: 1 } }",
+        "{ $limit: 2 }",
+        "{ $lookup: { from: 'clients', let: { personId: { $toString: '$_id' } }, pipeline: [ { $match: { $expr: { $eq: [ '$person_id', '$$personId' ] } } }, { $limit: 1 } ], as: 'client' } }",
+        "{ $unwind: { path: '$client', preserveNullAndEmptyArrays: true } }",
+        "{ $project: { client: 1, person: '$$ROOT' } }",
+        "{ $project: { 'person.client': 0 } }"
+    })
+    Flux<ClientWithPerson> findClientByKey(String key);
+
+    /**
+     * Same join as {@link #findClientByKey}, keeping only the ids and versions of both documents.
+     */
+    @Aggregation(pipeline = {
+        "{ $match: { $or: [ { lookup_key: ?0 }, { normalized_document_number: ?0 } ] } }",
+        "{ $sort: { _id: 1 } }",
+        "{ $limit: 2 }",
+        "{ $project: { version: 1 } }",
+        "{ $lookup: { from: 'clients', let: { personId: { $toString: '$_id' } }, pipeline: [ { $match: { $expr: { $eq: [ '$person_id', '$$personId' ] } } }, { $limit: 1 }, { $project: { version: 1 } } ], as: 'client' } }",
+        "{ $unwind: { path: '$client', preserveNullAndEmptyArrays: true } }",
+        "{ $project: { client: 1, person: { _id: '$_id', version: '$version' } } }"
+    })
+    Flux<ClientWithPerson> findClientVersionByKey(String key);
+
+    Flux<Person> findAllBy(Pageable pageable);
+
+    Flux<Person> findByIdGreaterThan(String id, Pageable pageable);
 }
@@ -0,0 +1,27 @@
+package com.piere.bootcamp.clients.dao;
+
+import com.piere.bootcamp.clients.model.document.Person;
+
+import reactor.core.publisher.Flux;
+
+public interface PersonDaoCustom {
+
+    /**
+     * Streams the whole collection straight from the cursor, fetching
+     * {@code cursorBatchSize} documents per round-trip as downstream demand allows.
+     */
+    Flux<Person> streamAll(int cursorBatchSize);
+
+    /**
+     * Full-text search over the names, most relevant first, optionally narrowed to the
+     * normalized document numbers starting with {@code documentNumberPrefix}.
+     */
+    Flux<Person> search(String text, String documentNumberPrefix, long offset, int limit);
+
+    /**
+     * Persons whose normalized document number starts with {@code prefix}, in normalized
+     * document number and id order, after the person given by {@code afterNormalizedDocumentNumber}
+     * and {@code afterId} when set; a range scan of the normalized document number index.
+     */
+    Flux<Person> findByDocumentNumberPrefix(String prefix, String afterNormalizedDocumentNumber, String afterId, int limit);
+}
@@ -0,0 +1,80 @@
+package com.piere.bootcamp.clients.dao;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import com.mongodb.MongoServerException;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads documents of any mapped type with a field projection, so Mongo only sends, and the
+ * driver only decodes, the requested properties. Properties absent from the projection are
+ * left unset on the returned entities.
+ */
+@Slf4j
+@Repository
+public class ProjectionDao {
+
+    private static final List<String> VERSION_PROPERTIES = Arrays.asList("id", "version");
+
+    private static final int BAD_VALUE = 2;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    public <T> Flux<T> findAll(Class<T> type, Collection<String> properties) {
+        return mongoTemplate.find(project(new Query(), properties), type);
+    }
+
+    /**
+     * Keyset page on {@code _id}: the documents after {@code afterId}, or the first ones when it is {@code null}.
+     */
+    public <T> Flux<T> findPage(Class<T> type, Collection<String> properties, String afterId, Pageable pageable) {
+        Query query = afterId == null ? new Query() : Query.query(Criteria.where("id").gt(afterId));
+        return mongoTemplate.find(project(query, properties).with(pageable), type);
+    }
+
+    /**
+     * Only the id and version of the document, read from the {@code index} on both, so the
+     * document itself is never fetched. The hint keeps the planner from taking the plain
+     * {@code _id} index, which would fetch it. Until the index has been built, e.g. right after
+     * a deployment added it, the same projection is read without the hint.
+     */
+    public <T> Mono<T> findVersion(Class<T> type, String id, String index) {
+        return mongoTemplate.findOne(versionQuery(id).withHint(index), type)
+                .onErrorResume(ProjectionDao::isMissingIndex, error -> {
+                    log.debug("Index {} is not there yet, reading version of {} without it", index, id);
+                    return mongoTemplate.findOne(versionQuery(id), type);
+                });
+    }
+
+    private static Query versionQuery(String id) {
+        return project(Query.query(Criteria.where("id").is(id)), VERSION_PROPERTIES);
+    }
+
+    private static boolean isMissingIndex(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoServerException && ((MongoServerException) cause).getCode() == BAD_VALUE
+                    && String.valueOf(cause.getMessage()).contains("hint")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Query project(Query query, Collection<String> properties) {
+        query.fields().include(properties.toArray(new String[0]));
+        return query;
+    }
+}
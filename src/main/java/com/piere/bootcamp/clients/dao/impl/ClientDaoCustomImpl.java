@@ -0,0 +1,22 @@
+package com.piere.bootcamp.clients.dao.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.piere.bootcamp.clients.dao.ClientDaoCustom;
+import com.piere.bootcamp.clients.model.document.Client;
+
+import reactor.core.publisher.Flux;
+
+public class ClientDaoCustomImpl implements ClientDaoCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<Client> streamAll(int cursorBatchSize) {
+        return mongoTemplate.find(new Query().cursorBatchSize(cursorBatchSize), Client.class)
+                .limitRate(cursorBatchSize);
+    }
+}
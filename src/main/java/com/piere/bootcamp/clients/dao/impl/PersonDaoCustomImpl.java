@@ -0,0 +1,78 @@
+package com.piere.bootcamp.clients.dao.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+
+import com.piere.bootcamp.clients.dao.PersonDaoCustom;
+import com.piere.bootcamp.clients.model.document.Person;
+
+import reactor.core.publisher.Flux;
+
+public class PersonDaoCustomImpl implements PersonDaoCustom {
+
+    private static final String NORMALIZED_DOCUMENT_NUMBER = "normalizedDocumentNumber";
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<Person> streamAll(int cursorBatchSize) {
+        return mongoTemplate.find(new Query().cursorBatchSize(cursorBatchSize), Person.class)
+                .limitRate(cursorBatchSize);
+    }
+
+    @Override
+    public Flux<Person> search(String text, String documentNumberPrefix, long offset, int limit) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .with(Sort.by("id"))
+                .skip(offset)
+                .limit(limit);
+        if (documentNumberPrefix != null) {
+            query.addCriteria(startsWith(documentNumberPrefix));
+        }
+        return mongoTemplate.find(query, Person.class);
+    }
+
+    @Override
+    public Flux<Person> findByDocumentNumberPrefix(String prefix, String afterNormalizedDocumentNumber, String afterId, int limit) {
+        Query query = Query.query(startsWith(prefix))
+                .with(Sort.by(NORMALIZED_DOCUMENT_NUMBER, "id"))
+                .limit(limit);
+        if (afterNormalizedDocumentNumber != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where(NORMALIZED_DOCUMENT_NUMBER).gt(afterNormalizedDocumentNumber),
+                    Criteria.where(NORMALIZED_DOCUMENT_NUMBER).is(afterNormalizedDocumentNumber).and("id").gt(afterId)));
+        }
+        return mongoTemplate.find(query, Person.class);
+    }
+
+    private static Criteria startsWith(String prefix) {
+        Criteria normalizedDocumentNumber = Criteria.where(NORMALIZED_DOCUMENT_NUMBER).gte(prefix);
+        String upperBound = upperBound(prefix);
+        return upperBound == null ? normalizedDocumentNumber : normalizedDocumentNumber.lt(upperBound);
+    }
+
+    /**
+     * Smallest string above every string starting with {@code prefix}: the prefix with its last
+     * code point incremented, as MongoDB compares strings by their UTF-8 bytes, that is by code
+     * point. {@code null} when no string is above them.
+     */
+    static String upperBound(String prefix) {
+        int end = prefix.length();
+        while (end > 0) {
+            int last = prefix.codePointBefore(end);
+            end -= Character.charCount(last);
+            if (last < Character.MAX_CODE_POINT) {
+                int next = last + 1 == Character.MIN_SURROGATE ? Character.MAX_SURROGATE + 1 : last + 1;
+                return new StringBuilder(prefix.substring(0, end)).appendCodePoint(next).toString();
+            }
+        }
+        return null;
+    }
+}
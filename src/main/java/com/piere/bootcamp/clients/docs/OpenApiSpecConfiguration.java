@@ -0,0 +1,32 @@
+package com.piere.bootcamp.clients.docs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * GET /v3/api-docs.yaml : The API contract, served as written in {@code openapi.yaml}, the same
+ * file the build generates the API interfaces from. Nothing is assembled at runtime by scanning
+ * the controllers, so the document costs no startup time.
+ */
+@Configuration
+public class OpenApiSpecConfiguration {
+
+    private static final MediaType APPLICATION_YAML = MediaType.parseMediaType("application/yaml");
+
+    @Bean
+    public RouterFunction<ServerResponse> openApiSpecRoute(@Value("${clients.openapi.path:/v3/api-docs.yaml}") String path) {
+        Resource spec = new ClassPathResource("openapi.yaml");
+        return RouterFunctions.route()
+                .GET(path, request -> ServerResponse.ok()
+                        .contentType(APPLICATION_YAML)
+                        .bodyValue(spec))
+                .build();
+    }
+}
@@ -0,0 +1,202 @@
+package com.piere.bootcamp.clients.idempotency;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.piere.bootcamp.clients.dao.IdempotencyRecordDao;
+import com.piere.bootcamp.clients.model.document.IdempotencyRecord;
+import com.piere.bootcamp.clients.model.enums.IdempotencyStatusEnum;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs a write at most once per {@code Idempotency-Key}.
+ * The first request claims the key with an insert on {@code _id}, which Mongo makes atomic, so
+ * concurrent retries cannot both pass. Once the write finishes its response is stored with the key
+ * and replayed to every retry; recently completed keys are kept in a bounded LRU so a retry storm
+ * is answered from memory without touching Mongo at all.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    private static final String CACHE_NAME = "idempotency-keys";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyRecordDao idempotencyRecordDao;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${clients.idempotency.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${clients.idempotency.cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    /**
+     * A claim older than this is considered abandoned (e.g. the instance died mid-request)
+     * and may be taken over by a retry.
+     */
+    @Value("${clients.idempotency.in-progress-timeout:30s}")
+    private Duration inProgressTimeout;
+
+    private Cache<String, IdempotencyRecord> completedRecords;
+
+    @PostConstruct
+    void init() {
+        completedRecords = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completedRecords, CACHE_NAME);
+    }
+
+    /**
+     * Runs {@code action} unless {@code key} was already used, in which case the stored response
+     * is returned instead. Fails with 409 while the first request is still running and with 422
+     * when the key is reused for a different request.
+     */
+    public <T> Mono<T> execute(String key, Object request, Class<T> responseType, Supplier<Mono<T>> action) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters"));
+        }
+        return Mono.fromCallable(() -> requestHash(request))
+                .flatMap(requestHash -> {
+                    IdempotencyRecord completed = completedRecords.getIfPresent(key);
+                    if (completed != null) {
+                        return replay(completed, requestHash, responseType);
+                    }
+                    return claim(key, requestHash)
+                            .flatMap(claimed -> claimed
+                                    ? run(key, requestHash, action)
+                                    : resolveExisting(key, request, requestHash, responseType, action));
+                });
+    }
+
+    private Mono<Boolean> claim(String key, String requestHash) {
+        IdempotencyRecord claim = IdempotencyRecord.builder()
+                .key(key)
+                .requestHash(requestHash)
+                .status(IdempotencyStatusEnum.IN_PROGRESS)
+                .createdAt(Instant.now())
+                .build();
+        return idempotencyRecordDao.insert(claim)
+                .thenReturn(true)
+                .onErrorResume(DuplicateKeyException.class, error -> Mono.just(false));
+    }
+
+    private <T> Mono<T> run(String key, String requestHash, Supplier<Mono<T>> action) {
+        return action.get()
+                .flatMap(response -> complete(key, requestHash, response).thenReturn(response))
+                .onErrorResume(error -> release(key).then(Mono.error(error)))
+                .doOnCancel(() -> release(key).subscribe());
+    }
+
+    private Mono<IdempotencyRecord> complete(String key, String requestHash, Object response) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(response))
+                .map(responseBody -> IdempotencyRecord.builder()
+                        .key(key)
+                        .requestHash(requestHash)
+                        .status(IdempotencyStatusEnum.COMPLETED)
+                        .responseBody(responseBody)
+                        .createdAt(Instant.now())
+                        .build())
+                .flatMap(idempotencyRecordDao::save)
+                .doOnNext(saved -> completedRecords.put(key, saved));
+    }
+
+    /**
+     * Frees the key of a request that failed, so the client can retry it.
+     */
+    private Mono<Void> release(String key) {
+        return idempotencyRecordDao.deleteById(key)
+                .doOnError(error -> log.warn("Could not release idempotency key {}: {}", key, error.getMessage()))
+                .onErrorResume(error -> Mono.empty());
+    }
+
+    private <T> Mono<T> resolveExisting(String key, Object request, String requestHash, Class<T> responseType,
+            Supplier<Mono<T>> action) {
+        return idempotencyRecordDao.findById(key)
+                .flatMap(existing -> {
+                    if (existing.getStatus() == IdempotencyStatusEnum.COMPLETED) {
+                        completedRecords.put(key, existing);
+                        return replay(existing, requestHash, responseType);
+                    }
+                    if (!existing.getRequestHash().equals(requestHash)) {
+                        return Mono.error(keyReused());
+                    }
+                    return takeOver(key, requestHash)
+                            .flatMap(claimed -> claimed
+                                    ? run(key, requestHash, action)
+                                    : Mono.<T>error(new ResponseStatusException(HttpStatus.CONFLICT,
+                                            "A request with this Idempotency-Key is still in progress")));
+                })
+                // released or expired between the insert and the read
+                .switchIfEmpty(Mono.defer(() -> execute(key, request, responseType, action)));
+    }
+
+    /**
+     * Claims an in-progress key whose owner has been silent for longer than the timeout.
+     */
+    private Mono<Boolean> takeOver(String key, String requestHash) {
+        Instant now = Instant.now();
+        Query abandoned = Query.query(Criteria.where("_id").is(key)
+                .and("status").is(IdempotencyStatusEnum.IN_PROGRESS)
+                .and("created_at").lt(now.minus(inProgressTimeout)));
+        return mongoTemplate.updateFirst(abandoned, Update.update("created_at", now), IdempotencyRecord.class)
+                .map(result -> result.getModifiedCount() == 1);
+    }
+
+    private <T> Mono<T> replay(IdempotencyRecord record, String requestHash, Class<T> responseType) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return Mono.error(keyReused());
+        }
+        return Mono.fromCallable(() -> objectMapper.readValue(record.getResponseBody(), responseType));
+    }
+
+    private String requestHash(Object request) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static ResponseStatusException keyReused() {
+        return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key was already used for a different request");
+    }
+}
@@ -0,0 +1,32 @@
+package com.piere.bootcamp.clients.index;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * GET /actuator/indexes reports index drift, POST /actuator/indexes creates the missing indexes.
+ */
+@Component
+@Endpoint(id = "indexes")
+public class IndexEndpoint {
+
+    @Autowired
+    private IndexManager indexManager;
+
+    @ReadOperation
+    public Mono<Map<String, IndexReport>> verify() {
+        return indexManager.verify();
+    }
+
+    @WriteOperation
+    public Mono<Map<String, IndexReport>> ensureIndexes() {
+        return indexManager.ensureIndexes();
+    }
+}
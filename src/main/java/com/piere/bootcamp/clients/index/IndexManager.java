@@ -0,0 +1,203 @@
+package com.piere.bootcamp.clients.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.ClientAggregate;
+import com.piere.bootcamp.clients.model.document.IdempotencyRecord;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.OutboxEvent;
+import com.piere.bootcamp.clients.model.document.Person;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Creates and verifies the indexes declared through {@code @Indexed} on the mapped documents.
+ * Index auto-creation is disabled in Spring Boot, so without this none of them would exist.
+ */
+@Slf4j
+@Component
+public class IndexManager {
+
+    private static final List<Class<?>> DOCUMENTS = Arrays.asList(
+            Client.class, Person.class, LegalRepresentative.class, AuthorizedSignatory.class, IdempotencyRecord.class,
+            ClientAggregate.class, OutboxEvent.class);
+
+    private static final String ID_INDEX = "_id:1";
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @Value("${clients.indexes.create-on-startup:true}")
+    private boolean createOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void createIndexesOnStartup() {
+        if (!createOnStartup) {
+            return;
+        }
+        ensureIndexes().subscribe(
+                reports -> reports.values().stream()
+                        .filter(IndexReport::isDrift)
+                        .forEach(report -> log.warn("Index drift on {}: missing {}, unexpected {}",
+                                report.getCollection(), report.getMissing(), report.getUnexpected())),
+                error -> log.error("Index creation failed: {}", error.getMessage()));
+    }
+
+    /**
+     * Builds every declared index in the background and reports the resulting state.
+     */
+    public Mono<Map<String, IndexReport>> ensureIndexes() {
+        return Flux.fromIterable(DOCUMENTS)
+                .concatMap(this::createIndexes)
+                .then(verify());
+    }
+
+    /**
+     * Builds the declared indexes of one document type, e.g. before a migration that relies on them.
+     */
+    public Mono<IndexReport> ensureIndexes(Class<?> type) {
+        return createIndexes(type).then(verify(type));
+    }
+
+    private Flux<String> createIndexes(Class<?> type) {
+        return Flux.fromIterable(declaredIndexes(type))
+                .concatMap(definition -> mongoTemplate.indexOps(type).ensureIndex(inBackground(definition)));
+    }
+
+    /**
+     * Compares the declared indexes with the ones present in each collection.
+     */
+    public Mono<Map<String, IndexReport>> verify() {
+        return Flux.fromIterable(DOCUMENTS)
+                .concatMap(this::verify)
+                .collectMap(IndexReport::getCollection);
+    }
+
+    private Mono<IndexReport> verify(Class<?> type) {
+        List<String> declared = new ArrayList<>();
+        declaredIndexes(type).forEach(definition -> declared.add(signature(definition)));
+        declared.add(ID_INDEX);
+
+        return mongoTemplate.indexOps(type).getIndexInfo()
+                .map(IndexManager::signature)
+                .collectList()
+                .map(actual -> IndexReport.builder()
+                        .collection(mongoTemplate.getCollectionName(type))
+                        .declared(declared)
+                        .actual(actual)
+                        .missing(declared.stream().filter(index -> !actual.contains(index)).collect(Collectors.toList()))
+                        .unexpected(actual.stream().filter(index -> !declared.contains(index)).collect(Collectors.toList()))
+                        .build());
+    }
+
+    private List<IndexDefinition> declaredIndexes(Class<?> type) {
+        List<IndexDefinition> definitions = new ArrayList<>();
+        IndexResolver.create(mappingContext).resolveIndexFor(type).forEach(definition -> {
+            if (!isEmbedded(definition)) {
+                definitions.add(definition);
+            }
+        });
+        return definitions;
+    }
+
+    /**
+     * Spring also resolves the annotations of embedded documents, e.g. of the persons in a client
+     * aggregate. Those indexes belong to the collection of the embedded type: copied here, the
+     * unique document number would reject a person embedded in two aggregates, and the text index
+     * would be paid on every aggregate write.
+     */
+    private static boolean isEmbedded(IndexDefinition definition) {
+        Document keys = definition.getIndexKeys();
+        if (definition instanceof MongoPersistentEntityIndexResolver.IndexDefinitionHolder) {
+            String path = ((MongoPersistentEntityIndexResolver.IndexDefinitionHolder) definition).getPath();
+            // Compound indexes of an embedded type come with the path of the embedded document
+            if (path.contains(".") || (!path.isEmpty() && keys.keySet().stream().allMatch(field -> field.startsWith(path + ".")))) {
+                return true;
+            }
+        }
+        return keys.values().stream().allMatch("text"::equals)
+                && keys.keySet().stream().allMatch(field -> field.contains("."));
+    }
+
+    private static IndexDefinition inBackground(IndexDefinition definition) {
+        Document options = new Document(definition.getIndexOptions());
+        options.put("background", true);
+        return new IndexDefinition() {
+
+            @Override
+            public Document getIndexKeys() {
+                return definition.getIndexKeys();
+            }
+
+            @Override
+            public Document getIndexOptions() {
+                return options;
+            }
+        };
+    }
+
+    /**
+     * Renders an index as its ordered key spec, e.g. {@code person_id:1} or
+     * {@code text(last_name,name):unique}, so declared and actual indexes can be compared.
+     */
+    private static String signature(IndexDefinition definition) {
+        TreeSet<String> textFields = new TreeSet<>();
+        List<String> keys = new ArrayList<>();
+        definition.getIndexKeys().forEach((field, direction) -> {
+            if ("text".equals(direction)) {
+                textFields.add(field);
+            } else {
+                keys.add(field + ":" + direction);
+            }
+        });
+        return signature(keys, textFields, definition.getIndexOptions().getBoolean("unique", false));
+    }
+
+    private static String signature(IndexInfo info) {
+        TreeSet<String> textFields = new TreeSet<>();
+        List<String> keys = new ArrayList<>();
+        for (IndexField field : info.getIndexFields()) {
+            if (field.isText()) {
+                textFields.add(field.getKey());
+            } else {
+                keys.add(field.getKey() + ":" + (field.getDirection() == Sort.Direction.DESC ? -1 : 1));
+            }
+        }
+        return signature(keys, textFields, info.isUnique());
+    }
+
+    private static String signature(List<String> keys, TreeSet<String> textFields, boolean unique) {
+        List<String> parts = new ArrayList<>(keys);
+        if (!textFields.isEmpty()) {
+            parts.add("text(" + String.join(",", textFields) + ")");
+        }
+        return String.join(",", parts) + (unique ? ":unique" : "");
+    }
+}
@@ -0,0 +1,41 @@
+package com.piere.bootcamp.clients.index;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Declared versus actual indexes of one collection.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexReport implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String collection;
+
+    private List<String> declared;
+
+    private List<String> actual;
+
+    /**
+     * Declared indexes that do not exist in the collection.
+     */
+    private List<String> missing;
+
+    /**
+     * Indexes that exist in the collection but are not declared by the mapping.
+     */
+    private List<String> unexpected;
+
+    public boolean isDrift() {
+        return !missing.isEmpty() || !unexpected.isEmpty();
+    }
+}
@@ -0,0 +1,95 @@
+package com.piere.bootcamp.clients.lookup;
+
+import java.util.Locale;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Normalization of document numbers, so that {@code "0012345678"}, {@code "12345678"} and
+ * {@code "1234 5678"} resolve to the same person.
+ */
+public final class DocumentNumbers {
+
+    private static final char SEPARATOR = ':';
+
+    private DocumentNumbers() {
+    }
+
+    /**
+     * Drops everything but letters and digits, upper-cases the letters and, for numbers made
+     * only of digits, drops the leading zeros.
+     */
+    public static String normalize(String documentNumber) {
+        if (documentNumber == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(documentNumber.length());
+        boolean digitsOnly = true;
+        for (int i = 0; i < documentNumber.length(); i++) {
+            char c = documentNumber.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+                digitsOnly &= c >= '0' && c <= '9';
+            }
+        }
+        if (digitsOnly) {
+            int start = 0;
+            while (start < normalized.length() - 1 && normalized.charAt(start) == '0') {
+                start++;
+            }
+            normalized.delete(0, start);
+        }
+        return normalized.toString().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * The document type and the normalized number, e.g. {@code DNI:12345678}; {@code null}
+     * when either is missing.
+     */
+    public static String lookupKey(DocumentTypeEnum documentType, String documentNumber) {
+        String normalized = normalize(documentNumber);
+        if (documentType == null || normalized == null || normalized.isEmpty()) {
+            return null;
+        }
+        return documentType.getValue() + SEPARATOR + normalized;
+    }
+
+    /**
+     * What a lookup by document number resolves: the lookup key when the type is known,
+     * the normalized number otherwise. A normalized number never contains the separator of a
+     * lookup key, so a key can be matched against both fields at once.
+     */
+    public static String key(DocumentTypeEnum documentType, String documentNumber) {
+        String lookupKey = lookupKey(documentType, documentNumber);
+        return lookupKey != null ? lookupKey : normalize(documentNumber);
+    }
+
+    /**
+     * The only match of a {@link #key}. A key without document type matches the normalized
+     * number, which persons of different document types may share; more than one match is
+     * rejected with 409 instead of picking one of them.
+     */
+    public static <T> Mono<T> unique(Flux<T> matches) {
+        return matches.take(2)
+                .collectList()
+                .flatMap(found -> found.size() > 1
+                        ? Mono.<T>error(new ResponseStatusException(HttpStatus.CONFLICT,
+                                "More than one person has this document number, the document type is required"))
+                        : Mono.justOrEmpty(found.isEmpty() ? null : found.get(0)));
+    }
+
+    /**
+     * Fills in the fields derived from the document type and number.
+     */
+    public static void assign(Person person) {
+        person.setNormalizedDocumentNumber(normalize(person.getDocumentNumber()));
+        person.setLookupKey(lookupKey(person.getDocumentType(), person.getDocumentNumber()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.piere.bootcamp.clients.lookup;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of deriving the normalized document number and lookup key of existing persons.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LookupKeyBackfill implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long updated;
+
+    /**
+     * Persons whose lookup key is already taken by another person, i.e. duplicates written
+     * before numbers were normalized. They get the normalized number but no lookup key.
+     */
+    private long conflicts;
+
+    /**
+     * Ids of some of the conflicting persons.
+     */
+    private List<String> conflictIds;
+}
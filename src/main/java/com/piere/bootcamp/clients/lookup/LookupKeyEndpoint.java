@@ -0,0 +1,31 @@
+package com.piere.bootcamp.clients.lookup;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * GET /actuator/lookupkeys counts the persons still without a normalized document number,
+ * POST /actuator/lookupkeys derives it, with the lookup key, for all of them.
+ */
+@Component
+@Endpoint(id = "lookupkeys")
+public class LookupKeyEndpoint {
+
+    @Autowired
+    private LookupKeyMigration lookupKeyMigration;
+
+    @ReadOperation
+    public Mono<Long> pending() {
+        return lookupKeyMigration.pending();
+    }
+
+    @WriteOperation
+    public Mono<LookupKeyBackfill> backfill() {
+        return lookupKeyMigration.backfill();
+    }
+}
@@ -0,0 +1,204 @@
+package com.piere.bootcamp.clients.lookup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.piere.bootcamp.clients.index.IndexManager;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Derives the normalized document number and lookup key of the persons written before they
+ * existed. Persons are read in {@code _id} order, {@code clients.lookup-key.batch-size} at a
+ * time, and each batch is written with one unordered {@code bulkWrite}. A person whose lookup
+ * key another person already holds is a duplicate; it keeps no lookup key and is reported.
+ */
+@Slf4j
+@Component
+public class LookupKeyMigration {
+
+    private static final String ID = "_id";
+
+    private static final String DOCUMENT_TYPE = "document_type";
+
+    private static final String DOCUMENT_NUMBER = "document_number";
+
+    private static final String NORMALIZED_DOCUMENT_NUMBER = "normalized_document_number";
+
+    private static final String LOOKUP_KEY = "lookup_key";
+
+    private static final int SAMPLE_SIZE = 20;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private IndexManager indexManager;
+
+    @Value("${clients.lookup-key.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${clients.lookup-key.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * The unique index must exist before any key is written, or duplicates would slip in and
+     * make its build fail.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void backfillOnStartup() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        indexManager.ensureIndexes(Person.class)
+                .then(backfill())
+                .subscribe(
+                        result -> {
+                            if (result.getConflicts() > 0) {
+                                log.warn("Backfilled {} lookup keys; {} persons duplicate another one, e.g. {}",
+                                        result.getUpdated(), result.getConflicts(), result.getConflictIds());
+                            } else {
+                                log.info("Backfilled {} lookup keys", result.getUpdated());
+                            }
+                        },
+                        error -> log.error("Lookup key backfill failed: {}", error.getMessage()));
+    }
+
+    /**
+     * Persons with a document number but no normalized number yet.
+     */
+    public Mono<Long> pending() {
+        return mongoTemplate.count(pendingQuery(null), mongoTemplate.getCollectionName(Person.class));
+    }
+
+    public Mono<LookupKeyBackfill> backfill() {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.error(new IllegalStateException("A lookup key backfill is already running"));
+            }
+            AtomicLong updated = new AtomicLong();
+            AtomicLong conflicts = new AtomicLong();
+            List<String> conflictIds = Collections.synchronizedList(new ArrayList<>());
+            return nextBatch(null)
+                    .expand(batch -> batch.size() < batchSize
+                            ? Mono.empty()
+                            : nextBatch(batch.get(batch.size() - 1).get(ID)))
+                    .concatMap(batch -> write(batch)
+                            .doOnNext(conflicting -> {
+                                updated.addAndGet(batch.size() - conflicting.size());
+                                conflicts.addAndGet(conflicting.size());
+                                conflicting.stream()
+                                        .limit(Math.max(0, SAMPLE_SIZE - conflictIds.size()))
+                                        .forEach(document -> conflictIds.add(String.valueOf(document.get(ID))));
+                            }))
+                    .then(Mono.fromSupplier(() -> LookupKeyBackfill.builder()
+                            .updated(updated.get())
+                            .conflicts(conflicts.get())
+                            .conflictIds(new ArrayList<>(conflictIds))
+                            .build()))
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+    private Mono<List<Document>> nextBatch(Object afterId) {
+        Query query = pendingQuery(afterId)
+                .with(Sort.by(Sort.Direction.ASC, ID))
+                .limit(batchSize);
+        query.fields().include(ID, DOCUMENT_TYPE, DOCUMENT_NUMBER);
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Person.class))
+                .collectList()
+                .filter(batch -> !batch.isEmpty());
+    }
+
+    private static Query pendingQuery(Object afterId) {
+        Criteria criteria = Criteria.where(NORMALIZED_DOCUMENT_NUMBER).exists(false).and(DOCUMENT_NUMBER).ne(null);
+        if (afterId != null) {
+            criteria = criteria.and(ID).gt(afterId);
+        }
+        return Query.query(criteria);
+    }
+
+    /**
+     * @return the persons of the batch that got no lookup key because it is already taken
+     */
+    private Mono<List<Document>> write(List<Document> batch) {
+        return bulkUpdate(batch, true)
+                .flatMap(failed -> {
+                    if (failed.isEmpty()) {
+                        return Mono.just(Collections.<Document>emptyList());
+                    }
+                    List<Document> conflicting = failed.stream().map(batch::get).collect(Collectors.toList());
+                    return bulkUpdate(conflicting, false).thenReturn(conflicting);
+                });
+    }
+
+    /**
+     * @return the positions of the updates rejected by the unique lookup key index
+     */
+    private Mono<Set<Integer>> bulkUpdate(List<Document> persons, boolean withLookupKey) {
+        List<WriteModel<Document>> updates = new ArrayList<>(persons.size());
+        persons.forEach(person -> {
+            String documentNumber = person.getString(DOCUMENT_NUMBER);
+            List<Bson> fields = new ArrayList<>(2);
+            fields.add(Updates.set(NORMALIZED_DOCUMENT_NUMBER, DocumentNumbers.normalize(documentNumber)));
+            String lookupKey = withLookupKey ? DocumentNumbers.lookupKey(documentType(person), documentNumber) : null;
+            if (lookupKey != null) {
+                fields.add(Updates.set(LOOKUP_KEY, lookupKey));
+            }
+            updates.add(new UpdateOneModel<>(Filters.eq(ID, person.get(ID)), Updates.combine(fields)));
+        });
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Person.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false))))
+                .map(result -> Collections.<Integer>emptySet())
+                .onErrorResume(MongoBulkWriteException.class, e -> {
+                    if (e.getWriteErrors().stream().anyMatch(error -> error.getCategory() != ErrorCategory.DUPLICATE_KEY)) {
+                        return Mono.error(e);
+                    }
+                    return Mono.just(e.getWriteErrors().stream()
+                            .map(BulkWriteError::getIndex)
+                            .collect(Collectors.toSet()));
+                });
+    }
+
+    private static DocumentTypeEnum documentType(Document person) {
+        String documentType = person.getString(DOCUMENT_TYPE);
+        if (documentType == null) {
+            return null;
+        }
+        try {
+            return DocumentTypeEnum.valueOf(documentType);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
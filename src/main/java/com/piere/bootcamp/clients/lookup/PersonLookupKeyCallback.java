@@ -0,0 +1,22 @@
+package com.piere.bootcamp.clients.lookup;
+
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import com.piere.bootcamp.clients.model.document.Person;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Derives the normalized document number and the lookup key of every person written,
+ * whatever path writes it.
+ */
+@Component
+public class PersonLookupKeyCallback implements ReactiveBeforeConvertCallback<Person> {
+
+    @Override
+    public Mono<Person> onBeforeConvert(Person person, String collection) {
+        DocumentNumbers.assign(person);
+        return Mono.just(person);
+    }
+}
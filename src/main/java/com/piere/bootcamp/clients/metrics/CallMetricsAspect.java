@@ -0,0 +1,168 @@
+package com.piere.bootcamp.clients.metrics;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.piere.bootcamp.clients.dao.AuthorizedSignatoryDao;
+import com.piere.bootcamp.clients.dao.ClientDao;
+import com.piere.bootcamp.clients.dao.LegalRepresentativeDao;
+import com.piere.bootcamp.clients.dao.PersonDao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Times every DAO and service call, tagged by operation and outcome. Reactive results are timed
+ * from subscription to termination, so the timers measure the actual Mongo round trips rather than
+ * the assembly of the pipeline.
+ */
+@Aspect
+@Component
+public class CallMetricsAspect {
+
+    static final String DAO_METRIC = "clients.dao";
+
+    static final String SERVICE_METRIC = "clients.service";
+
+    private static final List<Class<?>> DAOS = Arrays.asList(
+            ClientDao.class, PersonDao.class, LegalRepresentativeDao.class, AuthorizedSignatoryDao.class);
+
+    private static final Duration MAXIMUM_EXPECTED = Duration.ofSeconds(10);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    @Pointcut("this(com.piere.bootcamp.clients.dao.ClientDao)"
+            + " || this(com.piere.bootcamp.clients.dao.PersonDao)"
+            + " || this(com.piere.bootcamp.clients.dao.LegalRepresentativeDao)"
+            + " || this(com.piere.bootcamp.clients.dao.AuthorizedSignatoryDao)")
+    void dao() {
+    }
+
+    @Pointcut("execution(public reactor.core.publisher.Mono *(..))"
+            + " || execution(public reactor.core.publisher.Flux *(..))")
+    void reactiveCall() {
+    }
+
+    @Pointcut("execution(public * com.piere.bootcamp.clients.service.impl.*ServiceImpl.*(..))")
+    void serviceCall() {
+    }
+
+    @Around("dao() && reactiveCall()")
+    public Object timeDaoCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(DAO_METRIC, daoName(joinPoint.getThis()) + "." + joinPoint.getSignature().getName(), joinPoint);
+    }
+
+    @Around("serviceCall()")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        return time(SERVICE_METRIC, service + "." + joinPoint.getSignature().getName(), joinPoint);
+    }
+
+    private Object time(String metric, String operation, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable error) {
+            sample.stop(timer(metric, operation, Outcome.ERROR));
+            countError(metric, operation, error);
+            throw error;
+        }
+        if (result instanceof Mono) {
+            return timed((Mono<?>) result, metric, operation);
+        }
+        if (result instanceof Flux) {
+            return timed((Flux<?>) result, metric, operation);
+        }
+        sample.stop(timer(metric, operation, Outcome.SUCCESS));
+        return result;
+    }
+
+    private <T> Mono<T> timed(Mono<T> mono, String metric, String operation) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono
+                    .doOnError(error -> countError(metric, operation, error))
+                    .doFinally(signal -> sample.stop(timer(metric, operation, Outcome.of(signal))));
+        });
+    }
+
+    private <T> Flux<T> timed(Flux<T> flux, String metric, String operation) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return flux
+                    .doOnError(error -> countError(metric, operation, error))
+                    .doFinally(signal -> sample.stop(timer(metric, operation, Outcome.of(signal))));
+        });
+    }
+
+    private Timer timer(String metric, String operation, Outcome outcome) {
+        return timers.computeIfAbsent(metric + '|' + operation + '|' + outcome, key -> Timer.builder(metric)
+                .description("Time from subscription to termination of the call")
+                .tag("operation", operation)
+                .tag("outcome", outcome.tag)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAXIMUM_EXPECTED)
+                .register(meterRegistry));
+    }
+
+    private void countError(String metric, String operation, Throwable error) {
+        String exception = error.getClass().getSimpleName();
+        errorCounters.computeIfAbsent(metric + '|' + operation + '|' + exception, key -> Counter.builder(metric + ".errors")
+                .description("Calls that terminated with an error")
+                .tag("operation", operation)
+                .tag("exception", exception)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    private static String daoName(Object proxy) {
+        return DAOS.stream()
+                .filter(dao -> dao.isInstance(proxy))
+                .map(Class::getSimpleName)
+                .findFirst()
+                .orElseGet(() -> proxy.getClass().getSimpleName());
+    }
+
+    private enum Outcome {
+        SUCCESS("success"),
+        ERROR("error"),
+        CANCELLED("cancelled");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        static Outcome of(SignalType signal) {
+            switch (signal) {
+                case ON_ERROR:
+                    return ERROR;
+                case CANCEL:
+                    return CANCELLED;
+                default:
+                    return SUCCESS;
+            }
+        }
+    }
+}
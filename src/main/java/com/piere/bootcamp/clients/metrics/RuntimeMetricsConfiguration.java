@@ -0,0 +1,40 @@
+package com.piere.bootcamp.clients.metrics;
+
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Reactor Netty server metrics: connections, data sent and received, and the pending tasks of
+ * each event loop. Reactor scheduler metrics are enabled in {@code MsvcClientsApplication#main}
+ * because they only apply to schedulers created afterwards.
+ */
+@Configuration
+public class RuntimeMetricsConfiguration {
+
+    private static final String API_PREFIX = "/api/";
+
+    @Bean
+    public NettyServerCustomizer nettyMetricsCustomizer() {
+        return httpServer -> httpServer.metrics(true, RuntimeMetricsConfiguration::uriTag);
+    }
+
+    /**
+     * Collapses a request URI to its resource, e.g. {@code /api/clients/page?size=10} to
+     * {@code /api/clients}, so IDs and query strings do not blow up the tag cardinality.
+     */
+    public static String uriTag(String uri) {
+        if (!uri.startsWith(API_PREFIX)) {
+            return "other";
+        }
+        int end = uri.length();
+        for (int i = API_PREFIX.length(); i < uri.length(); i++) {
+            char c = uri.charAt(i);
+            if (c == '/' || c == '?') {
+                end = i;
+                break;
+            }
+        }
+        return uri.substring(0, end);
+    }
+}
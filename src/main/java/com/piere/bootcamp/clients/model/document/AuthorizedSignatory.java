@@ -3,6 +3,9 @@ package com.piere.bootcamp.clients.model.document;
 import java.io.Serializable;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -20,15 +23,30 @@ import lombok.ToString;
 @ToString
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Document(collection="authorized_signatories")
+@CompoundIndex(name = AuthorizedSignatory.ID_VERSION_INDEX, def = "{'_id': 1, 'version': 1}")
 public class AuthorizedSignatory implements Serializable {
     
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Lets the version of a authorized signatory be read from the index alone.
+     */
+    public static final String ID_VERSION_INDEX = "id_version";
+
     @Id
     private String id;
 
+    @Indexed
     @Field(name = "person_id")
     private String personId;
 
+    @Indexed
     private Boolean status;
+
+    /**
+     * Incremented on every save; a save carrying an older version fails instead of
+     * overwriting a concurrent update.
+     */
+    @Version
+    private Long version;
 }
@@ -6,6 +6,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -29,16 +32,23 @@ import lombok.ToString;
 @ToString
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Document(collection="clients")
+@CompoundIndex(name = Client.ID_VERSION_INDEX, def = "{'_id': 1, 'version': 1}")
 public class Client implements Serializable {
     
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Lets the version of a client be read from the index alone.
+     */
+    public static final String ID_VERSION_INDEX = "id_version";
+
     @Id
     private String id;
 
     @Field(name = "client_type")
     private ClientTypeEnum clientType;
 
+    @Indexed
     @Field(name = "person_id")
     private String personId;
 
@@ -54,14 +64,24 @@ public class Client implements Serializable {
 
     @JsonSerialize(using = LocalDateSerializer.class)
     @JsonDeserialize(using = LocalDateDeserializer.class)
+    @Indexed
     @Field(name = "create_at")
     private LocalDate createAt;
 
     @JsonSerialize(using = LocalDateSerializer.class)
     @JsonDeserialize(using = LocalDateDeserializer.class)
+    @Indexed
     @Field(name = "end_at")
     private LocalDate endAt;
 
+    @Indexed
     private Boolean status;
+
+    /**
+     * Incremented on every save; a save carrying an older version fails instead of
+     * overwriting a concurrent update.
+     */
+    @Version
+    private Long version;
     
 }
\ No newline at end of file
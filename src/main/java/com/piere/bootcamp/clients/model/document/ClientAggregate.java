@@ -0,0 +1,70 @@
+package com.piere.bootcamp.clients.model.document;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import com.piere.bootcamp.clients.model.enums.ClientTypeEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Denormalized copy of a {@link Client} with its person, legal representatives and authorized
+ * signatories embedded, keyed by the client id. Derived from the normalized collections, which
+ * remain the source of truth; the indexes find the aggregates to refresh when a person or
+ * member changes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Document(collection = "client_aggregates")
+@CompoundIndexes({
+    @CompoundIndex(name = "person_id", def = "{'person._id': 1}"),
+    @CompoundIndex(name = "legal_representative_ids", def = "{'legal_representatives._id': 1}"),
+    @CompoundIndex(name = "legal_representative_person_ids", def = "{'legal_representatives.person._id': 1}"),
+    @CompoundIndex(name = "authorized_signatory_ids", def = "{'authorized_signatories._id': 1}"),
+    @CompoundIndex(name = "authorized_signatory_person_ids", def = "{'authorized_signatories.person._id': 1}")
+})
+public class ClientAggregate implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @Field(name = "client_type")
+    private ClientTypeEnum clientType;
+
+    private Person person;
+
+    @Builder.Default
+    @ToString.Exclude
+    @Field(name = "legal_representatives")
+    private List<ClientAggregateMember> legalRepresentatives = new ArrayList<>();
+
+    @Builder.Default
+    @ToString.Exclude
+    @Field(name = "authorized_signatories")
+    private List<ClientAggregateMember> authorizedSignatories = new ArrayList<>();
+
+    @Field(name = "create_at")
+    private LocalDate createAt;
+
+    @Field(name = "end_at")
+    private LocalDate endAt;
+
+    private Boolean status;
+}
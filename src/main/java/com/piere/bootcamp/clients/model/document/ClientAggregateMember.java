@@ -0,0 +1,32 @@
+package com.piere.bootcamp.clients.model.document;
+
+import java.io.Serializable;
+
+import org.springframework.data.annotation.Id;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A legal representative or authorized signatory embedded in a {@link ClientAggregate},
+ * together with its person.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ClientAggregateMember implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    private Boolean status;
+
+    private Person person;
+}
@@ -0,0 +1,24 @@
+package com.piere.bootcamp.clients.model.document;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of joining a person with the client that references it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientWithPerson implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Client client;
+
+    private Person person;
+}
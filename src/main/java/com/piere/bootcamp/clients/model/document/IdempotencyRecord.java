@@ -0,0 +1,45 @@
+package com.piere.bootcamp.clients.model.document;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import com.piere.bootcamp.clients.model.enums.IdempotencyStatusEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A request claimed through an {@code Idempotency-Key}. The key is the {@code _id}, so claiming it
+ * is a single atomic insert; the TTL index on {@code created_at} expires the record after a day.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String key;
+
+    @Field(name = "request_hash")
+    private String requestHash;
+
+    private IdempotencyStatusEnum status;
+
+    @Field(name = "response_body")
+    private String responseBody;
+
+    @Indexed(expireAfter = "1d")
+    @Field(name = "created_at")
+    private Instant createdAt;
+}
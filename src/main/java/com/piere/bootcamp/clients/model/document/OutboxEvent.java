@@ -0,0 +1,65 @@
+package com.piere.bootcamp.clients.model.document;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.piere.bootcamp.clients.model.enums.AggregateTypeEnum;
+import com.piere.bootcamp.clients.model.enums.ChangeTypeEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change to a client, person, legal representative or authorized signatory, written with the
+ * change itself and relayed to other services afterwards. Events are relayed in {@code _id} order;
+ * the TTL index on {@code published_at} expires them a week after they were relayed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "outbox")
+@CompoundIndex(name = "pending", def = "{'published_at': 1, '_id': 1}")
+public class OutboxEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @Field(name = "aggregate_type")
+    private AggregateTypeEnum aggregateType;
+
+    @Field(name = "aggregate_id")
+    private String aggregateId;
+
+    private ChangeTypeEnum type;
+
+    /**
+     * Version of the document after the change, for consumers to drop events older than
+     * what they hold. A delete carries the version after the last one the document had.
+     */
+    private Long version;
+
+    /**
+     * JSON of the document as the API returns it; {@code null} for deletes.
+     */
+    @JsonRawValue
+    private String payload;
+
+    @Field(name = "occurred_at")
+    private Instant occurredAt;
+
+    @Indexed(expireAfter = "7d")
+    @Field(name = "published_at")
+    private Instant publishedAt;
+}
@@ -4,9 +4,14 @@ import java.io.Serializable;
 import java.time.LocalDate;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -27,23 +32,36 @@ import lombok.ToString;
 @AllArgsConstructor
 @ToString
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@Document(collection="persons")
+@Document(collection="persons", language = "none")
+@CompoundIndexes({
+    @CompoundIndex(name = Person.ID_VERSION_INDEX, def = "{'_id': 1, 'version': 1}"),
+    @CompoundIndex(name = "normalized_document_number_id", def = "{'normalized_document_number': 1, '_id': 1}")
+})
 public class Person implements Serializable {
     
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Lets the version of a person be read from the index alone.
+     */
+    public static final String ID_VERSION_INDEX = "id_version";
+
     @Id
     private String id;
 
     @Field(name = "trade_name")
+    @TextIndexed
     private String tradeName;
 
     @Field(name = "company_name")
+    @TextIndexed
     private String companyName;
 
+    @TextIndexed
     private String name;
 
     @Field(name = "last_name")
+    @TextIndexed
     private String lastName;
 
     private String email;
@@ -61,8 +79,36 @@ public class Person implements Serializable {
     @Indexed(unique = true)
     private String documentNumber;
 
+    /**
+     * Document number without separators or leading zeros; derived on write. Indexed along
+     * with the id, which orders the persons sharing it in a prefix search.
+     */
+    @Field(name = "normalized_document_number")
+    private String normalizedDocumentNumber;
+
+    /**
+     * Document type and normalized number, e.g. {@code DNI:12345678}; derived on write.
+     * Sparse, as persons without a document type have none.
+     */
+    @Field(name = "lookup_key")
+    @Indexed(unique = true, sparse = true)
+    private String lookupKey;
+
     @JsonSerialize(using = LocalDateSerializer.class)
     @JsonDeserialize(using = LocalDateDeserializer.class)
     @Field(name = "birth_date")
     private LocalDate birthDate;
+
+    /**
+     * Relevance of the person to a text search; only set on search results, never stored.
+     */
+    @TextScore
+    private Float score;
+
+    /**
+     * Incremented on every save; a save carrying an older version fails instead of
+     * overwriting a concurrent update.
+     */
+    @Version
+    private Long version;
 }
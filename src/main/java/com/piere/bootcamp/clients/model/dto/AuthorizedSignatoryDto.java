@@ -5,7 +5,8 @@ import java.io.Serializable;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+
+import io.swagger.annotations.ApiModelProperty;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -35,23 +36,6 @@ public class AuthorizedSignatoryDto implements Serializable {
     
     private Boolean status;
 
-    public static AuthorizedSignatoryDto build() {
-      return AuthorizedSignatoryDto.builder().build();
-    }
-
-    public AuthorizedSignatoryDto toDto(AuthorizedSignatory authorizedSignatory) {
-      return AuthorizedSignatoryDto.builder()
-        .id(authorizedSignatory.getId())
-        .personId(authorizedSignatory.getPersonId())
-        .status(authorizedSignatory.getStatus())
-        .build();
-    }
-
-    public AuthorizedSignatory toEntity(AuthorizedSignatoryDto authorizedSignatoryDto) {
-      return AuthorizedSignatory.builder()
-        .id(authorizedSignatoryDto.getId())
-        .personId(authorizedSignatoryDto.getPersonId())
-        .status(authorizedSignatoryDto.getStatus())
-        .build();
-    }
-}
\ No newline at end of file
+    @ApiModelProperty(value = "Version the authorized signatory was read at; sent back on update or delete, a stale one is rejected with 412")
+    private Long version;
+}
@@ -0,0 +1,40 @@
+package com.piere.bootcamp.clients.model.dto;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.piere.bootcamp.clients.model.enums.BulkItemStatusEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * BulkClientResultDto
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BulkClientResultDto implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Position of the client in the request.
+   */
+  private Long index;
+
+  private String documentNumber;
+
+  private BulkItemStatusEnum status;
+
+  private String clientId;
+
+  private String message;
+}
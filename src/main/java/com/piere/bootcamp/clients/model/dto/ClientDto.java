@@ -3,7 +3,6 @@ package com.piere.bootcamp.clients.model.dto;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -12,7 +11,6 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
-import com.piere.bootcamp.clients.model.document.Client;
 import com.piere.bootcamp.clients.model.enums.ClientTypeEnum;
 
 import io.swagger.annotations.ApiModelProperty;
@@ -69,33 +67,6 @@ public class ClientDto implements Serializable {
 
   private Boolean status;
 
-  public static ClientDto build() {
-    return ClientDto.builder().build();
-  }
-
-  public ClientDto toDto(Client client) {
-    return ClientDto.builder()
-      .id(client.getId())
-      .clientType(client.getClientType())
-      .personId(client.getPersonId())
-      .legalRepresentativeIds(client.getLegalRepresentativeIds())
-      .authorizedSignatoryIds(client.getAuthorizedSignatoryIds())
-      .createAt(client.getCreateAt())
-      .endAt(client.getEndAt())
-      .status(client.getStatus())
-      .build();
-  }
-
-  public Client toEntity(ClientDto clientDto) {
-    return Client.builder()
-      .id(clientDto.getId())
-      .clientType(clientDto.getClientType())
-      .personId(clientDto.getPerson().getId())
-      .legalRepresentativeIds(clientDto.getLegalRepresentatives().stream().map(LegalRepresentativeDto::getId).collect(Collectors.toList()))
-      .authorizedSignatoryIds(clientDto.getAuthorizedSignatories().stream().map(AuthorizedSignatoryDto::getId).collect(Collectors.toList()))
-      .createAt(clientDto.getCreateAt())
-      .endAt(clientDto.getEndAt())
-      .status(clientDto.getStatus())
-      .build();
-  }
-}
\ No newline at end of file
+  @ApiModelProperty(value = "Version the client was read at; sent back on update, a stale one is rejected with 412")
+  private Long version;
+}
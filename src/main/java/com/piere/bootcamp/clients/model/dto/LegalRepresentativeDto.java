@@ -5,7 +5,8 @@ import java.io.Serializable;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+
+import io.swagger.annotations.ApiModelProperty;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -35,24 +36,6 @@ import lombok.NoArgsConstructor;
   
   private Boolean status;
 
-  public static LegalRepresentativeDto build() {
-    return LegalRepresentativeDto.builder().build();
-  }
-
-  public LegalRepresentativeDto toDto(LegalRepresentative legalRepresentative) {
-    return LegalRepresentativeDto.builder()
-      .id(legalRepresentative.getId())
-      .personId(legalRepresentative.getPersonId())
-      .status(legalRepresentative.getStatus())
-      .build();
-  }
-
-  public LegalRepresentative toEntity(LegalRepresentativeDto legalRepresentativeDto) {
-    return LegalRepresentative.builder()
-      .id(legalRepresentativeDto.getId())
-      .personId(legalRepresentativeDto.getPersonId())
-      .status(legalRepresentativeDto.getStatus())
-      .build();
-  }
+  @ApiModelProperty(value = "Version the legal representative was read at; sent back on update or delete, a stale one is rejected with 412")
+  private Long version;
 }
-
@@ -0,0 +1,36 @@
+package com.piere.bootcamp.clients.model.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * PageDto
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PageDto<T> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private List<T> content;
+
+  private Integer size;
+
+  /**
+   * Opaque token to request the next page, absent on the last page.
+   */
+  private String nextPageToken;
+}
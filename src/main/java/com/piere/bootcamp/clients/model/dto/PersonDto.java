@@ -10,9 +10,9 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
-import com.piere.bootcamp.clients.model.document.Person;
 import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
 
+import io.swagger.annotations.ApiModelProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -59,43 +59,6 @@ public class PersonDto implements Serializable {
   @JsonDeserialize(using = LocalDateDeserializer.class)
   private LocalDate birthDate;
 
-  public static PersonDto build() {
-    return PersonDto.builder().build();
-  }
-
-  public PersonDto toDto(Person person) {
-    return PersonDto.builder()
-        .id(person.getId())
-        .tradeName(person.getTradeName())
-        .companyName(person.getCompanyName())
-        .name(person.getName())
-        .lastname(person.getLastName())
-        .email(person.getEmail())
-        .address(person.getAddress())
-        .cellphone(person.getCellphone())
-        .phone(person.getPhone())
-        .documentType(person.getDocumentType())
-        .documentNumber(person.getDocumentNumber())
-        .birthDate(person.getBirthDate())
-        .build();
-  }
-
-
-  public Person toEntity(PersonDto personDto) {
-    return Person.builder()
-        .id(personDto.getId())
-        .tradeName(personDto.getTradeName())
-        .companyName(personDto.getCompanyName())
-        .name(personDto.getName())
-        .lastName(personDto.getLastname())
-        .email(personDto.getEmail())
-        .address(personDto.getAddress())
-        .cellphone(personDto.getCellphone())
-        .phone(personDto.getPhone())
-        .documentType(personDto.getDocumentType())
-        .documentNumber(personDto.getDocumentNumber())
-        .birthDate(personDto.getBirthDate())
-        .build();
-  }
+  @ApiModelProperty(value = "Version the person was read at; sent back on update, a stale one is rejected with 412")
+  private Long version;
 }
-
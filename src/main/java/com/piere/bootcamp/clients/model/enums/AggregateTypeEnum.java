@@ -0,0 +1,43 @@
+package com.piere.bootcamp.clients.model.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+   * Kind of document an outbox event is about
+   */
+public enum AggregateTypeEnum {
+    CLIENT("CLIENT"),
+
+    PERSON("PERSON"),
+
+    LEGAL_REPRESENTATIVE("LEGAL_REPRESENTATIVE"),
+
+    AUTHORIZED_SIGNATORY("AUTHORIZED_SIGNATORY");
+
+    private String value;
+
+    AggregateTypeEnum(String value) {
+      this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+      return value;
+    }
+
+    @Override
+    public String toString() {
+      return String.valueOf(value);
+    }
+
+    @JsonCreator
+    public static AggregateTypeEnum fromValue(String value) {
+      for (AggregateTypeEnum b : AggregateTypeEnum.values()) {
+        if (b.value.equals(value)) {
+          return b;
+        }
+      }
+      throw new IllegalArgumentException("Unexpected value '" + value + "'");
+    }
+  }
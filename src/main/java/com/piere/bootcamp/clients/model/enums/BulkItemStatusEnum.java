@@ -0,0 +1,41 @@
+package com.piere.bootcamp.clients.model.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+   * Outcome of one item of a bulk request
+   */
+public enum BulkItemStatusEnum {
+    CREATED("CREATED"),
+
+    CONFLICT("CONFLICT"),
+
+    FAILED("FAILED");
+
+    private String value;
+
+    BulkItemStatusEnum(String value) {
+      this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+      return value;
+    }
+
+    @Override
+    public String toString() {
+      return String.valueOf(value);
+    }
+
+    @JsonCreator
+    public static BulkItemStatusEnum fromValue(String value) {
+      for (BulkItemStatusEnum b : BulkItemStatusEnum.values()) {
+        if (b.value.equals(value)) {
+          return b;
+        }
+      }
+      throw new IllegalArgumentException("Unexpected value '" + value + "'");
+    }
+  }
@@ -0,0 +1,41 @@
+package com.piere.bootcamp.clients.model.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+   * Kind of change carried by an outbox event
+   */
+public enum ChangeTypeEnum {
+    CREATED("CREATED"),
+
+    UPDATED("UPDATED"),
+
+    DELETED("DELETED");
+
+    private String value;
+
+    ChangeTypeEnum(String value) {
+      this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+      return value;
+    }
+
+    @Override
+    public String toString() {
+      return String.valueOf(value);
+    }
+
+    @JsonCreator
+    public static ChangeTypeEnum fromValue(String value) {
+      for (ChangeTypeEnum b : ChangeTypeEnum.values()) {
+        if (b.value.equals(value)) {
+          return b;
+        }
+      }
+      throw new IllegalArgumentException("Unexpected value '" + value + "'");
+    }
+  }
@@ -0,0 +1,39 @@
+package com.piere.bootcamp.clients.model.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+   * State of a request claimed through an idempotency key
+   */
+public enum IdempotencyStatusEnum {
+    IN_PROGRESS("IN_PROGRESS"),
+
+    COMPLETED("COMPLETED");
+
+    private String value;
+
+    IdempotencyStatusEnum(String value) {
+      this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+      return value;
+    }
+
+    @Override
+    public String toString() {
+      return String.valueOf(value);
+    }
+
+    @JsonCreator
+    public static IdempotencyStatusEnum fromValue(String value) {
+      for (IdempotencyStatusEnum b : IdempotencyStatusEnum.values()) {
+        if (b.value.equals(value)) {
+          return b;
+        }
+      }
+      throw new IllegalArgumentException("Unexpected value '" + value + "'");
+    }
+  }
@@ -0,0 +1,70 @@
+package com.piere.bootcamp.clients.model.mapper;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.dto.AuthorizedSignatoryDto;
+
+/**
+ * Stateless mapping between {@link AuthorizedSignatory} and {@link AuthorizedSignatoryDto}.
+ */
+public final class AuthorizedSignatoryMapper {
+
+  /**
+   * Fields of {@link AuthorizedSignatoryDto} that can be projected, with the {@link AuthorizedSignatory} property each one is read from.
+   */
+  public static final Map<String, String> PROPERTIES;
+
+  static {
+    Map<String, String> properties = new LinkedHashMap<>();
+    properties.put("id", "id");
+    properties.put("personId", "personId");
+    properties.put("status", "status");
+    properties.put("version", "version");
+    PROPERTIES = Collections.unmodifiableMap(properties);
+  }
+
+  private AuthorizedSignatoryMapper() {
+  }
+
+  public static AuthorizedSignatoryDto toDto(AuthorizedSignatory authorizedSignatory) {
+    AuthorizedSignatoryDto authorizedSignatoryDto = new AuthorizedSignatoryDto();
+    authorizedSignatoryDto.setId(authorizedSignatory.getId());
+    authorizedSignatoryDto.setPersonId(authorizedSignatory.getPersonId());
+    authorizedSignatoryDto.setStatus(authorizedSignatory.getStatus());
+    authorizedSignatoryDto.setVersion(authorizedSignatory.getVersion());
+    return authorizedSignatoryDto;
+  }
+
+  /**
+   * Maps only the selected fields; the others stay {@code null} and are left out of the JSON.
+   */
+  public static AuthorizedSignatoryDto toDto(AuthorizedSignatory authorizedSignatory, Set<String> fields) {
+    AuthorizedSignatoryDto authorizedSignatoryDto = new AuthorizedSignatoryDto();
+    if (fields.contains("id")) {
+      authorizedSignatoryDto.setId(authorizedSignatory.getId());
+    }
+    if (fields.contains("personId")) {
+      authorizedSignatoryDto.setPersonId(authorizedSignatory.getPersonId());
+    }
+    if (fields.contains("status")) {
+      authorizedSignatoryDto.setStatus(authorizedSignatory.getStatus());
+    }
+    if (fields.contains("version")) {
+      authorizedSignatoryDto.setVersion(authorizedSignatory.getVersion());
+    }
+    return authorizedSignatoryDto;
+  }
+
+  public static AuthorizedSignatory toEntity(AuthorizedSignatoryDto authorizedSignatoryDto) {
+    AuthorizedSignatory authorizedSignatory = new AuthorizedSignatory();
+    authorizedSignatory.setId(authorizedSignatoryDto.getId());
+    authorizedSignatory.setPersonId(authorizedSignatoryDto.getPersonId());
+    authorizedSignatory.setStatus(authorizedSignatoryDto.getStatus());
+    authorizedSignatory.setVersion(authorizedSignatoryDto.getVersion());
+    return authorizedSignatory;
+  }
+}
@@ -0,0 +1,109 @@
+package com.piere.bootcamp.clients.model.mapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.ClientAggregate;
+import com.piere.bootcamp.clients.model.document.ClientAggregateMember;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.AuthorizedSignatoryDto;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+
+/**
+ * Stateless mapping from the normalized documents to a {@link ClientAggregate},
+ * and from a {@link ClientAggregate} to a fully expanded {@link ClientDto}.
+ */
+public final class ClientAggregateMapper {
+
+  private ClientAggregateMapper() {
+  }
+
+  /**
+   * References that cannot be resolved are left out, the same way expanded reads leave them out.
+   */
+  public static ClientAggregate toAggregate(Client client, Map<String, Person> persons,
+      Map<String, LegalRepresentative> legalRepresentatives, Map<String, AuthorizedSignatory> authorizedSignatories) {
+    List<ClientAggregateMember> legalRepresentativeMembers = new ArrayList<>();
+    for (String id : idsOrEmpty(client.getLegalRepresentativeIds())) {
+      LegalRepresentative legalRepresentative = legalRepresentatives.get(id);
+      if (legalRepresentative != null) {
+        legalRepresentativeMembers.add(new ClientAggregateMember(legalRepresentative.getId(),
+            legalRepresentative.getStatus(), persons.get(legalRepresentative.getPersonId())));
+      }
+    }
+    List<ClientAggregateMember> authorizedSignatoryMembers = new ArrayList<>();
+    for (String id : idsOrEmpty(client.getAuthorizedSignatoryIds())) {
+      AuthorizedSignatory authorizedSignatory = authorizedSignatories.get(id);
+      if (authorizedSignatory != null) {
+        authorizedSignatoryMembers.add(new ClientAggregateMember(authorizedSignatory.getId(),
+            authorizedSignatory.getStatus(), persons.get(authorizedSignatory.getPersonId())));
+      }
+    }
+
+    ClientAggregate aggregate = new ClientAggregate();
+    aggregate.setId(client.getId());
+    aggregate.setClientType(client.getClientType());
+    aggregate.setPerson(client.getPersonId() != null ? persons.get(client.getPersonId()) : null);
+    aggregate.setLegalRepresentatives(legalRepresentativeMembers);
+    aggregate.setAuthorizedSignatories(authorizedSignatoryMembers);
+    aggregate.setCreateAt(client.getCreateAt());
+    aggregate.setEndAt(client.getEndAt());
+    aggregate.setStatus(client.getStatus());
+    return aggregate;
+  }
+
+  public static ClientDto toDto(ClientAggregate aggregate) {
+    List<String> legalRepresentativeIds = new ArrayList<>(aggregate.getLegalRepresentatives().size());
+    List<LegalRepresentativeDto> legalRepresentatives = new ArrayList<>(aggregate.getLegalRepresentatives().size());
+    for (ClientAggregateMember member : aggregate.getLegalRepresentatives()) {
+      LegalRepresentativeDto legalRepresentative = new LegalRepresentativeDto();
+      legalRepresentative.setId(member.getId());
+      legalRepresentative.setStatus(member.getStatus());
+      if (member.getPerson() != null) {
+        legalRepresentative.setPersonId(member.getPerson().getId());
+        legalRepresentative.setPerson(PersonMapper.toDto(member.getPerson()));
+      }
+      legalRepresentativeIds.add(member.getId());
+      legalRepresentatives.add(legalRepresentative);
+    }
+    List<String> authorizedSignatoryIds = new ArrayList<>(aggregate.getAuthorizedSignatories().size());
+    List<AuthorizedSignatoryDto> authorizedSignatories = new ArrayList<>(aggregate.getAuthorizedSignatories().size());
+    for (ClientAggregateMember member : aggregate.getAuthorizedSignatories()) {
+      AuthorizedSignatoryDto authorizedSignatory = new AuthorizedSignatoryDto();
+      authorizedSignatory.setId(member.getId());
+      authorizedSignatory.setStatus(member.getStatus());
+      if (member.getPerson() != null) {
+        authorizedSignatory.setPersonId(member.getPerson().getId());
+        authorizedSignatory.setPerson(PersonMapper.toDto(member.getPerson()));
+      }
+      authorizedSignatoryIds.add(member.getId());
+      authorizedSignatories.add(authorizedSignatory);
+    }
+
+    ClientDto clientDto = new ClientDto();
+    clientDto.setId(aggregate.getId());
+    clientDto.setClientType(aggregate.getClientType());
+    if (aggregate.getPerson() != null) {
+      clientDto.setPersonId(aggregate.getPerson().getId());
+      clientDto.setPerson(PersonMapper.toDto(aggregate.getPerson()));
+    }
+    clientDto.setLegalRepresentativeIds(legalRepresentativeIds);
+    clientDto.setLegalRepresentatives(legalRepresentatives);
+    clientDto.setAuthorizedSignatoryIds(authorizedSignatoryIds);
+    clientDto.setAuthorizedSignatories(authorizedSignatories);
+    clientDto.setCreateAt(aggregate.getCreateAt());
+    clientDto.setEndAt(aggregate.getEndAt());
+    clientDto.setStatus(aggregate.getStatus());
+    return clientDto;
+  }
+
+  private static List<String> idsOrEmpty(List<String> ids) {
+    return ids != null ? ids : Collections.emptyList();
+  }
+}
@@ -0,0 +1,132 @@
+package com.piere.bootcamp.clients.model.mapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.dto.AuthorizedSignatoryDto;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+
+/**
+ * Stateless mapping between {@link Client} and {@link ClientDto}.
+ */
+public final class ClientMapper {
+
+  /**
+   * Fields of {@link ClientDto} that can be projected, with the {@link Client} property each one is read from.
+   */
+  public static final Map<String, String> PROPERTIES;
+
+  static {
+    Map<String, String> properties = new LinkedHashMap<>();
+    properties.put("id", "id");
+    properties.put("clientType", "clientType");
+    properties.put("personId", "personId");
+    properties.put("legalRepresentativeIds", "legalRepresentativeIds");
+    properties.put("authorizedSignatoryIds", "authorizedSignatoryIds");
+    properties.put("createAt", "createAt");
+    properties.put("endAt", "endAt");
+    properties.put("status", "status");
+    properties.put("version", "version");
+    PROPERTIES = Collections.unmodifiableMap(properties);
+  }
+
+  private ClientMapper() {
+  }
+
+  public static ClientDto toDto(Client client) {
+    ClientDto clientDto = new ClientDto();
+    clientDto.setId(client.getId());
+    clientDto.setClientType(client.getClientType());
+    clientDto.setPersonId(client.getPersonId());
+    clientDto.setLegalRepresentativeIds(client.getLegalRepresentativeIds());
+    clientDto.setAuthorizedSignatoryIds(client.getAuthorizedSignatoryIds());
+    clientDto.setCreateAt(client.getCreateAt());
+    clientDto.setEndAt(client.getEndAt());
+    clientDto.setStatus(client.getStatus());
+    clientDto.setVersion(client.getVersion());
+    return clientDto;
+  }
+
+  /**
+   * Maps only the selected fields; the others stay {@code null} and are left out of the JSON.
+   */
+  public static ClientDto toDto(Client client, Set<String> fields) {
+    ClientDto clientDto = new ClientDto();
+    if (fields.contains("id")) {
+      clientDto.setId(client.getId());
+    }
+    if (fields.contains("clientType")) {
+      clientDto.setClientType(client.getClientType());
+    }
+    if (fields.contains("personId")) {
+      clientDto.setPersonId(client.getPersonId());
+    }
+    if (fields.contains("legalRepresentativeIds")) {
+      clientDto.setLegalRepresentativeIds(client.getLegalRepresentativeIds());
+    }
+    if (fields.contains("authorizedSignatoryIds")) {
+      clientDto.setAuthorizedSignatoryIds(client.getAuthorizedSignatoryIds());
+    }
+    if (fields.contains("createAt")) {
+      clientDto.setCreateAt(client.getCreateAt());
+    }
+    if (fields.contains("endAt")) {
+      clientDto.setEndAt(client.getEndAt());
+    }
+    if (fields.contains("status")) {
+      clientDto.setStatus(client.getStatus());
+    }
+    if (fields.contains("version")) {
+      clientDto.setVersion(client.getVersion());
+    }
+    return clientDto;
+  }
+
+  /**
+   * References come from the nested person, representatives and signatories when present,
+   * otherwise from the plain id fields of the DTO.
+   */
+  public static Client toEntity(ClientDto clientDto) {
+    Client client = new Client();
+    client.setId(clientDto.getId());
+    client.setClientType(clientDto.getClientType());
+    client.setPersonId(clientDto.getPerson() != null ? clientDto.getPerson().getId() : clientDto.getPersonId());
+    client.setLegalRepresentativeIds(clientDto.getLegalRepresentatives() != null
+        ? legalRepresentativeIds(clientDto.getLegalRepresentatives())
+        : idsOrEmpty(clientDto.getLegalRepresentativeIds()));
+    client.setAuthorizedSignatoryIds(clientDto.getAuthorizedSignatories() != null
+        ? authorizedSignatoryIds(clientDto.getAuthorizedSignatories())
+        : idsOrEmpty(clientDto.getAuthorizedSignatoryIds()));
+    client.setCreateAt(clientDto.getCreateAt());
+    client.setEndAt(clientDto.getEndAt());
+    client.setStatus(clientDto.getStatus());
+    client.setVersion(clientDto.getVersion());
+    return client;
+  }
+
+  private static List<String> legalRepresentativeIds(List<LegalRepresentativeDto> legalRepresentatives) {
+    List<String> ids = new ArrayList<>(legalRepresentatives.size());
+    for (LegalRepresentativeDto legalRepresentative : legalRepresentatives) {
+      ids.add(legalRepresentative.getId());
+    }
+    return ids;
+  }
+
+  private static List<String> authorizedSignatoryIds(List<AuthorizedSignatoryDto> authorizedSignatories) {
+    List<String> ids = new ArrayList<>(authorizedSignatories.size());
+    for (AuthorizedSignatoryDto authorizedSignatory : authorizedSignatories) {
+      ids.add(authorizedSignatory.getId());
+    }
+    return ids;
+  }
+
+  private static List<String> idsOrEmpty(List<String> ids) {
+    return ids != null ? new ArrayList<>(ids) : new ArrayList<>(0);
+  }
+}
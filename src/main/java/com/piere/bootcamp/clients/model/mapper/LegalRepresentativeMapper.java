@@ -0,0 +1,70 @@
+package com.piere.bootcamp.clients.model.mapper;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+
+/**
+ * Stateless mapping between {@link LegalRepresentative} and {@link LegalRepresentativeDto}.
+ */
+public final class LegalRepresentativeMapper {
+
+  /**
+   * Fields of {@link LegalRepresentativeDto} that can be projected, with the {@link LegalRepresentative} property each one is read from.
+   */
+  public static final Map<String, String> PROPERTIES;
+
+  static {
+    Map<String, String> properties = new LinkedHashMap<>();
+    properties.put("id", "id");
+    properties.put("personId", "personId");
+    properties.put("status", "status");
+    properties.put("version", "version");
+    PROPERTIES = Collections.unmodifiableMap(properties);
+  }
+
+  private LegalRepresentativeMapper() {
+  }
+
+  public static LegalRepresentativeDto toDto(LegalRepresentative legalRepresentative) {
+    LegalRepresentativeDto legalRepresentativeDto = new LegalRepresentativeDto();
+    legalRepresentativeDto.setId(legalRepresentative.getId());
+    legalRepresentativeDto.setPersonId(legalRepresentative.getPersonId());
+    legalRepresentativeDto.setStatus(legalRepresentative.getStatus());
+    legalRepresentativeDto.setVersion(legalRepresentative.getVersion());
+    return legalRepresentativeDto;
+  }
+
+  /**
+   * Maps only the selected fields; the others stay {@code null} and are left out of the JSON.
+   */
+  public static LegalRepresentativeDto toDto(LegalRepresentative legalRepresentative, Set<String> fields) {
+    LegalRepresentativeDto legalRepresentativeDto = new LegalRepresentativeDto();
+    if (fields.contains("id")) {
+      legalRepresentativeDto.setId(legalRepresentative.getId());
+    }
+    if (fields.contains("personId")) {
+      legalRepresentativeDto.setPersonId(legalRepresentative.getPersonId());
+    }
+    if (fields.contains("status")) {
+      legalRepresentativeDto.setStatus(legalRepresentative.getStatus());
+    }
+    if (fields.contains("version")) {
+      legalRepresentativeDto.setVersion(legalRepresentative.getVersion());
+    }
+    return legalRepresentativeDto;
+  }
+
+  public static LegalRepresentative toEntity(LegalRepresentativeDto legalRepresentativeDto) {
+    LegalRepresentative legalRepresentative = new LegalRepresentative();
+    legalRepresentative.setId(legalRepresentativeDto.getId());
+    legalRepresentative.setPersonId(legalRepresentativeDto.getPersonId());
+    legalRepresentative.setStatus(legalRepresentativeDto.getStatus());
+    legalRepresentative.setVersion(legalRepresentativeDto.getVersion());
+    return legalRepresentative;
+  }
+}
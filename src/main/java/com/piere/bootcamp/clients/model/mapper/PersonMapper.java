@@ -0,0 +1,124 @@
+package com.piere.bootcamp.clients.model.mapper;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.PersonDto;
+
+/**
+ * Stateless mapping between {@link Person} and {@link PersonDto}.
+ */
+public final class PersonMapper {
+
+  /**
+   * Fields of {@link PersonDto} that can be projected, with the {@link Person} property each one is read from.
+   */
+  public static final Map<String, String> PROPERTIES;
+
+  static {
+    Map<String, String> properties = new LinkedHashMap<>();
+    properties.put("id", "id");
+    properties.put("tradeName", "tradeName");
+    properties.put("companyName", "companyName");
+    properties.put("name", "name");
+    properties.put("lastname", "lastName");
+    properties.put("email", "email");
+    properties.put("address", "address");
+    properties.put("cellphone", "cellphone");
+    properties.put("phone", "phone");
+    properties.put("documentType", "documentType");
+    properties.put("documentNumber", "documentNumber");
+    properties.put("birthDate", "birthDate");
+    properties.put("version", "version");
+    PROPERTIES = Collections.unmodifiableMap(properties);
+  }
+
+  private PersonMapper() {
+  }
+
+  public static PersonDto toDto(Person person) {
+    PersonDto personDto = new PersonDto();
+    personDto.setId(person.getId());
+    personDto.setTradeName(person.getTradeName());
+    personDto.setCompanyName(person.getCompanyName());
+    personDto.setName(person.getName());
+    personDto.setLastname(person.getLastName());
+    personDto.setEmail(person.getEmail());
+    personDto.setAddress(person.getAddress());
+    personDto.setCellphone(person.getCellphone());
+    personDto.setPhone(person.getPhone());
+    personDto.setDocumentType(person.getDocumentType());
+    personDto.setDocumentNumber(person.getDocumentNumber());
+    personDto.setBirthDate(person.getBirthDate());
+    personDto.setVersion(person.getVersion());
+    return personDto;
+  }
+
+  /**
+   * Maps only the selected fields; the others stay {@code null} and are left out of the JSON.
+   */
+  public static PersonDto toDto(Person person, Set<String> fields) {
+    PersonDto personDto = new PersonDto();
+    if (fields.contains("id")) {
+      personDto.setId(person.getId());
+    }
+    if (fields.contains("tradeName")) {
+      personDto.setTradeName(person.getTradeName());
+    }
+    if (fields.contains("companyName")) {
+      personDto.setCompanyName(person.getCompanyName());
+    }
+    if (fields.contains("name")) {
+      personDto.setName(person.getName());
+    }
+    if (fields.contains("lastname")) {
+      personDto.setLastname(person.getLastName());
+    }
+    if (fields.contains("email")) {
+      personDto.setEmail(person.getEmail());
+    }
+    if (fields.contains("address")) {
+      personDto.setAddress(person.getAddress());
+    }
+    if (fields.contains("cellphone")) {
+      personDto.setCellphone(person.getCellphone());
+    }
+    if (fields.contains("phone")) {
+      personDto.setPhone(person.getPhone());
+    }
+    if (fields.contains("documentType")) {
+      personDto.setDocumentType(person.getDocumentType());
+    }
+    if (fields.contains("documentNumber")) {
+      personDto.setDocumentNumber(person.getDocumentNumber());
+    }
+    if (fields.contains("birthDate")) {
+      personDto.setBirthDate(person.getBirthDate());
+    }
+    if (fields.contains("version")) {
+      personDto.setVersion(person.getVersion());
+    }
+    return personDto;
+  }
+
+  public static Person toEntity(PersonDto personDto) {
+    Person person = new Person();
+    person.setId(personDto.getId());
+    person.setTradeName(personDto.getTradeName());
+    person.setCompanyName(personDto.getCompanyName());
+    person.setName(personDto.getName());
+    person.setLastName(personDto.getLastname());
+    person.setEmail(personDto.getEmail());
+    person.setAddress(personDto.getAddress());
+    person.setCellphone(personDto.getCellphone());
+    person.setPhone(personDto.getPhone());
+    person.setDocumentType(personDto.getDocumentType());
+    person.setDocumentNumber(personDto.getDocumentNumber());
+    person.setBirthDate(personDto.getBirthDate());
+    person.setVersion(personDto.getVersion());
+    return person;
+  }
+}
@@ -0,0 +1,64 @@
+package com.piere.bootcamp.clients.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piere.bootcamp.clients.model.document.OutboxEvent;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Appends every event to a local file as one JSON line, for tests and for consumers that tail it.
+ */
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxSink(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> publish(List<OutboxEvent> events) {
+        return Mono.fromRunnable(() -> {
+                    List<String> lines = new ArrayList<>(events.size());
+                    for (OutboxEvent event : events) {
+                        lines.add(serialize(event));
+                    }
+                    write(lines);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private synchronized void write(List<String> lines) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(path, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Outbox events could not be written to " + path, e);
+        }
+    }
+
+    private String serialize(OutboxEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox event " + event.getId() + " cannot be serialized", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.piere.bootcamp.clients.outbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import com.piere.bootcamp.clients.model.document.OutboxEvent;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the last {@code capacity} events in memory, for tests and local runs.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final Deque<OutboxEvent> events = new ArrayDeque<>();
+
+    private final int capacity;
+
+    public InMemoryOutboxSink(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public Mono<Void> publish(List<OutboxEvent> published) {
+        return Mono.fromRunnable(() -> {
+            synchronized (events) {
+                published.forEach(event -> {
+                    if (events.size() == capacity) {
+                        events.removeFirst();
+                    }
+                    events.addLast(event);
+                });
+            }
+        });
+    }
+
+    /**
+     * The events held, oldest first.
+     */
+    public List<OutboxEvent> events() {
+        synchronized (events) {
+            return new ArrayList<>(events);
+        }
+    }
+}
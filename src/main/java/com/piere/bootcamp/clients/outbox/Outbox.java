@@ -0,0 +1,203 @@
+package com.piere.bootcamp.clients.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piere.bootcamp.clients.model.document.OutboxEvent;
+import com.piere.bootcamp.clients.model.enums.AggregateTypeEnum;
+import com.piere.bootcamp.clients.model.enums.ChangeTypeEnum;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Records the changes other services learn about through {@link OutboxRelay}.
+ * With {@code clients.outbox.transactional} the event is inserted in the same transaction as the
+ * change, so neither is ever written without the other; that needs a replica set. Otherwise it is
+ * inserted right after the change and delivered at most once: a crash in between loses the event.
+ * So does an insert that still fails after {@code clients.outbox.after-write.retries}: it is logged
+ * and counted in {@code clients.outbox.lost} rather than failing a call whose change is already
+ * written, which a retry of the call would then find.
+ */
+@Slf4j
+@Component
+public class Outbox {
+
+    private static final String LOST_METRIC = "clients.outbox.lost";
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${clients.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${clients.outbox.transactional:false}")
+    private boolean transactional;
+
+    @Value("${clients.outbox.after-write.retries:3}")
+    private int afterWriteRetries;
+
+    @Value("${clients.outbox.after-write.backoff:100ms}")
+    private Duration afterWriteBackoff;
+
+    private Counter lost;
+
+    @PostConstruct
+    void init() {
+        lost = Counter.builder(LOST_METRIC)
+                .description("Outbox events not recorded because their insert failed after the change was written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code write} and appends the event it yields. Keep {@code write} to a few sequential
+     * operations: in a transaction they share a session, which cannot run two at once.
+     */
+    public <T> Mono<T> write(Mono<T> write, Function<T, OutboxEvent> event) {
+        if (!enabled) {
+            return write;
+        }
+        if (!transactional) {
+            return write.flatMap(written -> appendAllAfterWrite(Flux.just(event.apply(written))).thenReturn(written));
+        }
+        return transactionalOperator.transactional(write.flatMap(written -> append(event.apply(written)).thenReturn(written)));
+    }
+
+    /**
+     * Runs {@code writes} and appends their events with a single insert.
+     */
+    public <T> Flux<T> writeAll(Flux<T> writes, Function<T, OutboxEvent> event) {
+        if (!enabled) {
+            return writes;
+        }
+        if (!transactional) {
+            return writes.collectList()
+                    .flatMap(written -> appendAllAfterWrite(Flux.fromIterable(written).map(event)).thenReturn(written))
+                    .flatMapIterable(Function.identity());
+        }
+        return transactionalOperator.transactional(writes.collectList()
+                        .flatMap(written -> appendAll(Flux.fromIterable(written).map(event)).thenReturn(written)))
+                .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Appends within the current transaction, if any; for writers that manage their own.
+     */
+    public Mono<Void> append(OutboxEvent event) {
+        return enabled ? mongoTemplate.insert(event).then() : Mono.empty();
+    }
+
+    public Mono<Void> appendAll(Flux<OutboxEvent> events) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return events.collectList()
+                .filter(list -> !list.isEmpty())
+                .flatMap(list -> mongoTemplate.insert(list, OutboxEvent.class).then());
+    }
+
+    /**
+     * Appends the events of changes already written outside a transaction. A failed insert is
+     * retried, then logged and counted instead of failing the call, since the change itself
+     * cannot be undone.
+     */
+    public Mono<Void> appendAllAfterWrite(Flux<OutboxEvent> events) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return events.collectList()
+                .flatMap(list -> {
+                    Set<String> inserted = ConcurrentHashMap.newKeySet();
+                    return appendAll(Flux.fromIterable(list))
+                            .onErrorResume(error -> insertEach(list, inserted))
+                            .onErrorResume(error -> {
+                                List<String> aggregateIds = list.stream()
+                                        .filter(event -> !inserted.contains(event.getId()))
+                                        .map(OutboxEvent::getAggregateId)
+                                        .collect(Collectors.toList());
+                                lost.increment(aggregateIds.size());
+                                log.error("Lost {} outbox events of changes already written, aggregates {}", aggregateIds.size(),
+                                        aggregateIds, error);
+                                return Mono.empty();
+                            });
+                });
+    }
+
+    /**
+     * Inserts the events of a failed batch one at a time, with retries. Events the batch did
+     * insert are already there, so their duplicate key is not an error.
+     */
+    private Mono<Void> insertEach(List<OutboxEvent> events, Set<String> inserted) {
+        return Flux.defer(() -> Flux.fromIterable(events).filter(event -> !inserted.contains(event.getId())))
+                .concatMap(event -> mongoTemplate.insert(event).then()
+                        .onErrorResume(DuplicateKeyException.class, duplicate -> Mono.empty())
+                        .doOnSuccess(done -> inserted.add(event.getId())))
+                .then()
+                .retryWhen(Retry.backoff(afterWriteRetries, afterWriteBackoff));
+    }
+
+    /**
+     * @param payload what the API returns for the document, serialized as is
+     */
+    public OutboxEvent event(AggregateTypeEnum aggregateType, ChangeTypeEnum type, String aggregateId, Long version,
+            Object payload) {
+        return OutboxEvent.builder()
+                .id(new ObjectId().toHexString())
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .type(type)
+                .version(version)
+                .payload(serialize(payload))
+                .occurredAt(Instant.now())
+                .build();
+    }
+
+    /**
+     * @param lastVersion the version the document was deleted at; the event carries the next one,
+     *        so it orders after every change of the document
+     */
+    public OutboxEvent deleted(AggregateTypeEnum aggregateType, String aggregateId, Long lastVersion) {
+        return event(aggregateType, ChangeTypeEnum.DELETED, aggregateId, lastVersion == null ? null : lastVersion + 1, null);
+    }
+
+    private String serialize(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload cannot be serialized", e);
+        }
+    }
+}
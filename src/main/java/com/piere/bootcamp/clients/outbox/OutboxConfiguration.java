@@ -0,0 +1,31 @@
+package com.piere.bootcamp.clients.outbox;
+
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The built-in sinks; a broker adapter sets {@code clients.outbox.sink} to its own name and
+ * registers its {@link OutboxSink} bean instead.
+ */
+@Configuration
+public class OutboxConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "clients.outbox.sink", havingValue = "memory", matchIfMissing = true)
+    public InMemoryOutboxSink inMemoryOutboxSink(@Value("${clients.outbox.memory.capacity:10000}") int capacity) {
+        return new InMemoryOutboxSink(capacity);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "clients.outbox.sink", havingValue = "file")
+    public FileOutboxSink fileOutboxSink(@Value("${clients.outbox.file.path:outbox/events.ndjson}") String path,
+            ObjectMapper objectMapper) {
+        return new FileOutboxSink(Paths.get(path), objectMapper);
+    }
+}
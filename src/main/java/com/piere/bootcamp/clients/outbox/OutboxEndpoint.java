@@ -0,0 +1,31 @@
+package com.piere.bootcamp.clients.outbox;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * GET /actuator/outbox counts the events not relayed yet,
+ * POST /actuator/outbox relays them now instead of at the next poll.
+ */
+@Component
+@Endpoint(id = "outbox")
+public class OutboxEndpoint {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @ReadOperation
+    public Mono<Long> pending() {
+        return outboxRelay.pending();
+    }
+
+    @WriteOperation
+    public Mono<Long> relay() {
+        return outboxRelay.relayPending();
+    }
+}
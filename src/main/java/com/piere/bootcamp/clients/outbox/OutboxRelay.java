@@ -0,0 +1,184 @@
+package com.piere.bootcamp.clients.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.piere.bootcamp.clients.model.document.OutboxEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Publishes the pending outbox events to the {@link OutboxSink} in id order, in batches of
+ * {@code clients.outbox.relay.batch-size}. Ids are taken before the change commits, and those of
+ * different instances are not ordered within the same second, so id order is not commit order:
+ * an event may be published after events written later. Every event carries the {@code version}
+ * of its aggregate, a delete the one after its last, and consumers that need them in order
+ * apply them by it. Only the instance holding the relay lease publishes; another takes over once
+ * the lease has not been renewed for {@code clients.outbox.relay.lease}.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final String LEASE_COLLECTION = "outbox_lease";
+
+    private static final String LEASE_ID = "relay";
+
+    private static final String PUBLISHED_METRIC = "clients.outbox.published";
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private OutboxSink sink;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${clients.outbox.relay.enabled:true}")
+    private boolean relayEnabled;
+
+    @Value("${clients.outbox.relay.poll-interval:500ms}")
+    private Duration pollInterval;
+
+    @Value("${clients.outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${clients.outbox.relay.lease:30s}")
+    private Duration lease;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private Counter published;
+
+    private Disposable relay;
+
+    @PostConstruct
+    void init() {
+        published = Counter.builder(PUBLISHED_METRIC)
+                .description("Outbox events published to the sink")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!relayEnabled) {
+            return;
+        }
+        relay = Flux.interval(pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> relayPending()
+                        .onErrorResume(error -> {
+                            log.warn("Outbox relay failed, retrying in {}: {}", pollInterval, error.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    /**
+     * Events not relayed yet.
+     */
+    public Mono<Long> pending() {
+        return mongoTemplate.count(Query.query(Criteria.where("publishedAt").is(null)), OutboxEvent.class);
+    }
+
+    /**
+     * Publishes every pending event, if this instance holds the lease and is not relaying already.
+     *
+     * @return how many were published
+     */
+    public Mono<Long> relayPending() {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.just(0L);
+            }
+            return relayBatch()
+                    .expand(batch -> batch.size() < batchSize ? Mono.empty() : relayBatch())
+                    .map(batch -> (long) batch.size())
+                    .reduce(0L, Long::sum)
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+    /**
+     * The lease is renewed before every batch, so it lapses only if the batch takes longer than the lease.
+     */
+    private Mono<List<OutboxEvent>> relayBatch() {
+        return acquireLease()
+                .filter(Boolean::booleanValue)
+                .flatMap(held -> nextBatch())
+                .flatMap(batch -> sink.publish(batch)
+                        .then(markPublished(batch))
+                        .doOnSuccess(done -> published.increment(batch.size()))
+                        .thenReturn(batch));
+    }
+
+    private Mono<List<OutboxEvent>> nextBatch() {
+        Query query = Query.query(Criteria.where("publishedAt").is(null))
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(batchSize);
+        return mongoTemplate.find(query, OutboxEvent.class)
+                .collectList()
+                .filter(batch -> !batch.isEmpty());
+    }
+
+    private Mono<Void> markPublished(List<OutboxEvent> batch) {
+        List<String> ids = batch.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(ids)),
+                        Update.update("publishedAt", Instant.now()), OutboxEvent.class)
+                .then();
+    }
+
+    /**
+     * Takes the lease if it is free or expired, or renews it if this instance holds it. While
+     * another instance holds it the upsert collides with the existing lease on {@code _id}.
+     */
+    private Mono<Boolean> acquireLease() {
+        Date now = new Date();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("expires_at").lt(now)));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("expires_at", new Date(now.getTime() + lease.toMillis()));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        Document.class, LEASE_COLLECTION)
+                .map(document -> true)
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (relay != null) {
+            relay.dispose();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.piere.bootcamp.clients.outbox;
+
+import java.util.List;
+
+import com.piere.bootcamp.clients.model.document.OutboxEvent;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Where {@link OutboxRelay} publishes change events. {@code clients.outbox.sink} selects one of
+ * the built-in sinks, {@code memory} or {@code file}; any other value leaves room for a broker
+ * adapter declared as a bean of its own.
+ */
+public interface OutboxSink {
+
+    /**
+     * Publishes the events in the order given. Events are marked as relayed only once this
+     * completes, and published again after a failure, so consumers must tolerate duplicates.
+     */
+    Mono<Void> publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,103 @@
+package com.piere.bootcamp.clients.routing;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.ReadPreference;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Tags a query with a route in the Reactor context; {@link RoutingReactiveMongoDatabaseFactory}
+ * turns the route into a read preference for every Mongo operation issued underneath it.
+ * Anything without a route, i.e. every write and every read done on behalf of a write,
+ * keeps the primary.
+ */
+@Component
+public class ReadRouting {
+
+    public static final String FIND_ALL = "find-all";
+
+    public static final String STREAM_ALL = "stream-all";
+
+    public static final String FIND_PAGE = "find-page";
+
+    public static final String FIND_BY_ID = "find-by-id";
+
+    public static final String FIND_ALL_BY_ID_LIST = "find-all-by-id-list";
+
+    public static final String FIND_BY_DOCUMENT_NUMBER = "find-by-document-number";
+
+    public static final String SEARCH = "search";
+
+    static final String ROUTED_METRIC = "clients.mongo.routed";
+
+    private static final String CONTEXT_KEY = ReadRouting.class.getName();
+
+    private static final String UNROUTED = "none";
+
+    @Autowired
+    private ReadRoutingProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, ReadPreference> readPreferences = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public <T> Mono<T> route(String route, Mono<T> mono) {
+        return properties.isEnabled() ? mono.contextWrite(context -> context.put(CONTEXT_KEY, route)) : mono;
+    }
+
+    public <T> Flux<T> route(String route, Flux<T> flux) {
+        return properties.isEnabled() ? flux.contextWrite(context -> context.put(CONTEXT_KEY, route)) : flux;
+    }
+
+    /**
+     * @return the read preference of the route in the context, or {@code null} to keep the default
+     */
+    ReadPreference readPreference(ContextView context) {
+        String route = context.getOrDefault(CONTEXT_KEY, null);
+        if (route == null) {
+            count(UNROUTED, ReadPreference.primary());
+            return null;
+        }
+        ReadPreference readPreference = readPreferences.computeIfAbsent(route, this::resolve);
+        count(route, readPreference);
+        return readPreference;
+    }
+
+    private ReadPreference resolve(String route) {
+        ReadRoutingProperties.Route override = properties.getRoutes().get(route);
+        String name = override != null && override.getReadPreference() != null
+                ? override.getReadPreference()
+                : properties.getReadPreference();
+        Duration maxStaleness = override != null && override.getMaxStaleness() != null
+                ? override.getMaxStaleness()
+                : properties.getMaxStaleness();
+        if (ReadPreference.primary().getName().equalsIgnoreCase(name) || maxStaleness == null) {
+            return ReadPreference.valueOf(name);
+        }
+        return ReadPreference.valueOf(name, Collections.emptyList(), maxStaleness.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void count(String route, ReadPreference readPreference) {
+        counters.computeIfAbsent(route, key -> Counter.builder(ROUTED_METRIC)
+                .description("Mongo operations by route and requested read preference")
+                .tag("route", route)
+                .tag("read_preference", readPreference.getName())
+                .register(meterRegistry))
+                .increment();
+    }
+}
@@ -0,0 +1,32 @@
+package com.piere.bootcamp.clients.routing;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the auto-configured database factory with one that routes reads,
+ * and counts the commands run by the primary and by the secondaries.
+ */
+@Configuration
+public class ReadRoutingConfiguration {
+
+    @Bean
+    public ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory(MongoProperties properties, MongoClient mongoClient,
+            ReadRouting readRouting) {
+        return new RoutingReactiveMongoDatabaseFactory(
+                new SimpleReactiveMongoDatabaseFactory(mongoClient, properties.getMongoClientDatabase()), readRouting);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer serverTypeCommandMetrics(MeterRegistry meterRegistry) {
+        return settings -> settings.addCommandListener(new ServerTypeCommandListener(meterRegistry));
+    }
+}
@@ -0,0 +1,39 @@
+package com.piere.bootcamp.clients.routing;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Read preference of the routed query endpoints, with optional overrides per route, e.g.
+ * {@code clients.read-routing.routes.find-by-id.read-preference=primaryPreferred}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "clients.read-routing")
+public class ReadRoutingProperties {
+
+    private boolean enabled = true;
+
+    private String readPreference = "secondaryPreferred";
+
+    /**
+     * How far behind the primary a secondary may be to serve reads; MongoDB requires at least 90 seconds.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(90);
+
+    private Map<String, Route> routes = new HashMap<>();
+
+    @Data
+    public static class Route {
+
+        private String readPreference;
+
+        private Duration maxStaleness;
+    }
+}
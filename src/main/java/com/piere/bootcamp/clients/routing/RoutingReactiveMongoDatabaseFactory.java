@@ -0,0 +1,73 @@
+package com.piere.bootcamp.clients.routing;
+
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.reactivestreams.client.ClientSession;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out the database with the read preference of the route found in the subscriber context.
+ * Session-bound factories are not routed: reads inside a transaction must stay on the primary.
+ */
+public class RoutingReactiveMongoDatabaseFactory implements ReactiveMongoDatabaseFactory {
+
+    private final ReactiveMongoDatabaseFactory delegate;
+
+    private final ReadRouting readRouting;
+
+    public RoutingReactiveMongoDatabaseFactory(ReactiveMongoDatabaseFactory delegate, ReadRouting readRouting) {
+        this.delegate = delegate;
+        this.readRouting = readRouting;
+    }
+
+    @Override
+    public Mono<MongoDatabase> getMongoDatabase() throws DataAccessException {
+        return route(delegate.getMongoDatabase());
+    }
+
+    @Override
+    public Mono<MongoDatabase> getMongoDatabase(String dbName) throws DataAccessException {
+        return route(delegate.getMongoDatabase(dbName));
+    }
+
+    private Mono<MongoDatabase> route(Mono<MongoDatabase> database) {
+        return Mono.deferContextual(context -> {
+            ReadPreference readPreference = readRouting.readPreference(context);
+            return readPreference == null
+                    ? database
+                    : database.map(db -> db.withReadPreference(readPreference));
+        });
+    }
+
+    @Override
+    public PersistenceExceptionTranslator getExceptionTranslator() {
+        return delegate.getExceptionTranslator();
+    }
+
+    @Override
+    public CodecRegistry getCodecRegistry() {
+        return delegate.getCodecRegistry();
+    }
+
+    @Override
+    public Mono<ClientSession> getSession(ClientSessionOptions options) {
+        return delegate.getSession(options);
+    }
+
+    @Override
+    public ReactiveMongoDatabaseFactory withSession(ClientSession session) {
+        return delegate.withSession(session);
+    }
+
+    @Override
+    public boolean isTransactionActive() {
+        return delegate.isTransactionActive();
+    }
+}
@@ -0,0 +1,63 @@
+package com.piere.bootcamp.clients.routing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mongodb.connection.ServerType;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts the commands each kind of server actually executed, showing how the load splits
+ * between the primary and the secondaries.
+ */
+public class ServerTypeCommandListener implements CommandListener {
+
+    static final String COMMANDS_METRIC = "clients.mongo.commands";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ServerTypeCommandListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        count(event.getConnectionDescription().getServerType(), event.getCommandName(), "success");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        count(event.getConnectionDescription().getServerType(), event.getCommandName(), "error");
+    }
+
+    private void count(ServerType serverType, String command, String outcome) {
+        String role = role(serverType);
+        counters.computeIfAbsent(role + '|' + command + '|' + outcome, key -> Counter.builder(COMMANDS_METRIC)
+                .description("Mongo commands by the type of server that executed them")
+                .tag("server_type", role)
+                .tag("command", command)
+                .tag("outcome", outcome)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    private static String role(ServerType serverType) {
+        switch (serverType) {
+            case REPLICA_SET_PRIMARY:
+                return "primary";
+            case REPLICA_SET_SECONDARY:
+                return "secondary";
+            case STANDALONE:
+                return "standalone";
+            default:
+                return "other";
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.piere.bootcamp.clients.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Records {@code clients.eventloop.lag}, per server event loop, as the time a probe task waits in
+ * the loop's queue before it runs. A loop that keeps up runs it within microseconds; a loop
+ * stuck mapping, serializing or blocking shows the stall in full.
+ */
+@Component
+public class EventLoopLagMonitor {
+
+    private static final String LAG_METRIC = "clients.eventloop.lag";
+
+    @Autowired
+    private ReactorResourceFactory reactorResourceFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SchedulingProperties schedulingProperties;
+
+    private Scheduler probeScheduler;
+
+    private Disposable monitor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        SchedulingProperties.EventLoopLag eventLoopLag = schedulingProperties.getEventLoopLag();
+        if (!eventLoopLag.isEnabled()) {
+            return;
+        }
+        EventLoopGroup loops = reactorResourceFactory.getLoopResources().onServer(LoopResources.DEFAULT_NATIVE);
+        List<Probe> probes = new ArrayList<>();
+        for (EventExecutor loop : loops) {
+            probes.add(new Probe(loop, Timer.builder(LAG_METRIC)
+                    .description("Time a task waits for the Netty event loop")
+                    .tag("loop", String.valueOf(probes.size()))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)));
+        }
+        // its own thread, so a busy shared scheduler does not delay the probes and inflate the lag
+        probeScheduler = Schedulers.newSingle("event-loop-lag", true);
+        monitor = Flux.interval(eventLoopLag.getInterval(), probeScheduler)
+                .subscribe(tick -> probes.forEach(Probe::send));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (monitor != null) {
+            monitor.dispose();
+            probeScheduler.dispose();
+        }
+    }
+
+    private static class Probe {
+
+        private final EventExecutor loop;
+
+        private final Timer lag;
+
+        Probe(EventExecutor loop, Timer lag) {
+            this.loop = loop;
+            this.lag = lag;
+        }
+
+        void send() {
+            if (loop.isShuttingDown()) {
+                return;
+            }
+            long queuedAt = System.nanoTime();
+            loop.execute(() -> lag.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.piere.bootcamp.clients.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The scheduling model of the service pipelines. Reads and writes stay on the threads of the
+ * Mongo driver; mapping whole streams of documents, which is CPU-bound and grows with the
+ * result, is moved to the bounded {@code mapping} scheduler. WebFlux serializes each element on
+ * the thread that emits it, so the JSON encoding of those streams runs there as well and the
+ * Netty event loop is left to do I/O. Single documents are mapped in place, since the hop would
+ * cost more than the mapping.
+ */
+public class PipelineSchedulers {
+
+    private final SchedulingProperties properties;
+
+    private final Scheduler mapping;
+
+    public PipelineSchedulers(SchedulingProperties properties) {
+        this.properties = properties;
+        this.mapping = Schedulers.newParallel("mapping", properties.getMappingParallelism(), true);
+    }
+
+    public Scheduler mapping() {
+        return mapping;
+    }
+
+    public int concurrency() {
+        return properties.getConcurrency();
+    }
+
+    public int prefetch() {
+        return properties.getPrefetch();
+    }
+
+    /**
+     * Maps {@code source} on the mapping scheduler, at most {@link #prefetch()} elements ahead of
+     * the subscriber.
+     */
+    public <T, R> Flux<R> map(Flux<T> source, Function<? super T, ? extends R> mapper) {
+        if (!properties.isOffloadMapping()) {
+            return source.map(mapper);
+        }
+        return source.publishOn(mapping, properties.getPrefetch())
+                .map(mapper);
+    }
+
+    /**
+     * Maps a request body, e.g. DTOs to documents, on the mapping scheduler instead of the event
+     * loop that decoded it.
+     */
+    public <T, R> Mono<List<R>> mapAll(List<T> source, Function<? super T, ? extends R> mapper) {
+        Mono<List<R>> mapped = Mono.fromCallable(() -> {
+            List<R> result = new ArrayList<>(source.size());
+            source.forEach(element -> result.add(mapper.apply(element)));
+            return result;
+        });
+        return properties.isOffloadMapping() ? mapped.subscribeOn(mapping) : mapped;
+    }
+
+    public void dispose() {
+        mapping.dispose();
+    }
+}
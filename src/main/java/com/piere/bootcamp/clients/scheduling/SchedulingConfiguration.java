@@ -0,0 +1,13 @@
+package com.piere.bootcamp.clients.scheduling;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SchedulingConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    public PipelineSchedulers pipelineSchedulers(SchedulingProperties schedulingProperties) {
+        return new PipelineSchedulers(schedulingProperties);
+    }
+}
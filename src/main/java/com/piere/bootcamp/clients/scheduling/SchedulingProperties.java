@@ -0,0 +1,55 @@
+package com.piere.bootcamp.clients.scheduling;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Where the service pipelines run: mapping of document streams on a bounded parallel scheduler
+ * rather than on the thread that emitted them, and how much of a stream is in flight at once.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "clients.scheduling")
+public class SchedulingProperties {
+
+    /**
+     * Maps streamed documents to DTOs, and serializes them, on the mapping scheduler; when off,
+     * they are mapped on the Mongo driver or Netty thread that emitted them.
+     */
+    private boolean offloadMapping = true;
+
+    /**
+     * Threads of the mapping scheduler. The work is CPU-bound, so more than the cores only adds
+     * context switches.
+     */
+    private int mappingParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Elements requested ahead from upstream, both when handing a stream to the mapping
+     * scheduler and by each inner publisher of a {@code flatMap}.
+     */
+    private int prefetch = 256;
+
+    /**
+     * Inner publishers a {@code flatMap} in the services subscribes to at once, each holding
+     * Mongo connections while it runs.
+     */
+    private int concurrency = 4;
+
+    private EventLoopLag eventLoopLag = new EventLoopLag();
+
+    @Data
+    public static class EventLoopLag {
+
+        private boolean enabled = true;
+
+        /**
+         * How often a probe task is queued on every Netty event loop.
+         */
+        private Duration interval = Duration.ofSeconds(1);
+    }
+}
@@ -1,8 +1,11 @@
 package com.piere.bootcamp.clients.service;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.piere.bootcamp.clients.model.dto.AuthorizedSignatoryDto;
+import com.piere.bootcamp.clients.model.dto.PageDto;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -17,7 +20,17 @@ public interface AuthorizedSignatoryService {
 
     Mono<AuthorizedSignatoryDto> findByDocumentNumber(String documentNumber);
 
+    Mono<AuthorizedSignatoryDto> findByDocumentNumber(DocumentTypeEnum documentType, String documentNumber);
+
     Flux<AuthorizedSignatoryDto> findAllAuthorizedSignatories();
 
+    Flux<AuthorizedSignatoryDto> findAllAuthorizedSignatories(List<String> fields);
+
+    Flux<AuthorizedSignatoryDto> findAllByIdList(Collection<String> ids);
+
     Flux<AuthorizedSignatoryDto> createAuthorizedSignatories(List<AuthorizedSignatoryDto> authorizedSignatories);
+
+    Mono<PageDto<AuthorizedSignatoryDto>> findAuthorizedSignatoriesPage(String pageToken, Integer size);
+
+    Mono<PageDto<AuthorizedSignatoryDto>> findAuthorizedSignatoriesPage(String pageToken, Integer size, List<String> fields);
 }
@@ -2,7 +2,10 @@ package com.piere.bootcamp.clients.service;
 
 import java.util.List;
 
+import com.piere.bootcamp.clients.model.dto.BulkClientResultDto;
 import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.PageDto;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -11,15 +14,45 @@ public interface ClientService {
     
     Mono<ClientDto> createClient(ClientDto client);
 
+    Mono<ClientDto> createClient(ClientDto client, String idempotencyKey);
+
+    Flux<BulkClientResultDto> createClients(Flux<ClientDto> clients);
+
     Mono<Void> deleteClient(ClientDto client);
 
     Mono<ClientDto> updateClient(ClientDto client);
 
     Flux<ClientDto> findAllClients();
+
+    Flux<ClientDto> findAllClients(boolean expand);
+
+    Flux<ClientDto> findAllClients(boolean expand, List<String> fields);
+
+    Flux<ClientDto> streamAllClients();
     
     Flux<ClientDto> findAllByIdList(List<String> ids);
 
+    Flux<ClientDto> findAllByIdList(List<String> ids, boolean expand);
+
     Mono<ClientDto> findById(String id);
 
+    Mono<ClientDto> findById(String id, boolean expand);
+
     Mono<ClientDto> findByDocumentNumber(String documentNumber);
+
+    Mono<ClientDto> findByDocumentNumber(DocumentTypeEnum documentType, String documentNumber);
+
+    /**
+     * Only the id and version of the client.
+     */
+    Mono<ClientDto> findVersionById(String id);
+
+    /**
+     * Only the ids and versions of the client and its person.
+     */
+    Mono<ClientDto> findVersionByDocumentNumber(String documentNumber);
+
+    Mono<PageDto<ClientDto>> findClientsPage(String pageToken, Integer size);
+
+    Mono<PageDto<ClientDto>> findClientsPage(String pageToken, Integer size, List<String> fields);
 }
@@ -1,8 +1,11 @@
 package com.piere.bootcamp.clients.service;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+import com.piere.bootcamp.clients.model.dto.PageDto;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -17,8 +20,17 @@ public interface LegalRepresentativeService {
 
     Mono<LegalRepresentativeDto> findByDocumentNumber(String documentNumber);
 
+    Mono<LegalRepresentativeDto> findByDocumentNumber(DocumentTypeEnum documentType, String documentNumber);
+
     Flux<LegalRepresentativeDto> findAllLegalRepresentatives();
 
+    Flux<LegalRepresentativeDto> findAllLegalRepresentatives(List<String> fields);
+
+    Flux<LegalRepresentativeDto> findAllByIdList(Collection<String> ids);
+
     Flux<LegalRepresentativeDto> createLegalRepresentatives(List<LegalRepresentativeDto> legalRepresentatives);
 
+    Mono<PageDto<LegalRepresentativeDto>> findLegalRepresentativesPage(String pageToken, Integer size);
+
+    Mono<PageDto<LegalRepresentativeDto>> findLegalRepresentativesPage(String pageToken, Integer size, List<String> fields);
 }
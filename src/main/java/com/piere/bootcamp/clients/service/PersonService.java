@@ -1,7 +1,10 @@
 package com.piere.bootcamp.clients.service;
 
+import com.piere.bootcamp.clients.model.dto.PageDto;
 import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
 
+import java.util.Collection;
 import java.util.List;
 
 import reactor.core.publisher.Flux;
@@ -17,7 +20,21 @@ public interface PersonService {
 
     Flux<PersonDto> findAllPersons();
 
+    Flux<PersonDto> findAllPersons(List<String> fields);
+
+    Flux<PersonDto> streamAllPersons();
+
+    Flux<PersonDto> findAllByIdList(Collection<String> ids);
+
     Mono<PersonDto> findByDocumentNumber(String documentNumber);
 
+    Mono<PersonDto> findByDocumentNumber(DocumentTypeEnum documentType, String documentNumber);
+
     Flux<PersonDto> createPersons(List<PersonDto> persons);
+
+    Mono<PageDto<PersonDto>> findPersonsPage(String pageToken, Integer size);
+
+    Mono<PageDto<PersonDto>> findPersonsPage(String pageToken, Integer size, List<String> fields);
+
+    Mono<PageDto<PersonDto>> searchPersons(String text, String documentNumberPrefix, String pageToken, Integer size);
 }
@@ -1,14 +1,32 @@
 package com.piere.bootcamp.clients.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import com.piere.bootcamp.clients.aggregate.ClientAggregateStore;
 import com.piere.bootcamp.clients.dao.AuthorizedSignatoryDao;
+import com.piere.bootcamp.clients.dao.ProjectionDao;
 import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.OutboxEvent;
 import com.piere.bootcamp.clients.model.dto.AuthorizedSignatoryDto;
+import com.piere.bootcamp.clients.model.dto.PageDto;
+import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.model.enums.AggregateTypeEnum;
+import com.piere.bootcamp.clients.model.enums.ChangeTypeEnum;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
+import com.piere.bootcamp.clients.model.mapper.AuthorizedSignatoryMapper;
+import com.piere.bootcamp.clients.outbox.Outbox;
+import com.piere.bootcamp.clients.scheduling.PipelineSchedulers;
 import com.piere.bootcamp.clients.service.AuthorizedSignatoryService;
 import com.piere.bootcamp.clients.service.PersonService;
 
@@ -17,79 +35,189 @@ import reactor.core.publisher.Mono;
 
 @Service
 public class AuthorizedSignatoryServiceImpl implements AuthorizedSignatoryService {
-    
+
     @Autowired
     private AuthorizedSignatoryDao authorizedSignatoryDao;
 
+    @Autowired
+    private KeysetPagination keysetPagination;
+
+    @Autowired
+    private ProjectionDao projectionDao;
+
     @Autowired
     private PersonService personService;
 
+    @Autowired
+    private ClientAggregateStore clientAggregateStore;
+
+    @Autowired
+    private Outbox outbox;
+
+    @Autowired
+    private PipelineSchedulers pipelineSchedulers;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
     @Override
     public Mono<AuthorizedSignatoryDto> createAuthorizedSignatory(AuthorizedSignatoryDto authorizedSignatory) {
-        return this.findByDocumentNumber(authorizedSignatory.getPerson().getDocumentNumber())
+        return this.findByDocumentNumber(authorizedSignatory.getPerson().getDocumentType(), authorizedSignatory.getPerson().getDocumentNumber())
                 .flatMap(existingAuthorizedSignatory -> Mono.error(new IllegalArgumentException("Authorized signatory already exists")))
                 .switchIfEmpty(
                     personService.createPerson(authorizedSignatory.getPerson())
-                        .flatMap(p -> authorizedSignatoryDao.save(AuthorizedSignatory.builder()
-                                .personId(p.getId())
-                                .status(authorizedSignatory.getStatus())
-                                .build()))
-                        .map(AuthorizedSignatoryDto.build()::toDto)
+                        .flatMap(p -> outbox.write(authorizedSignatoryDao.save(AuthorizedSignatory.builder()
+                                        .personId(p.getId())
+                                        .status(authorizedSignatory.getStatus())
+                                        .build())
+                                .map(AuthorizedSignatoryMapper::toDto), this::created))
                 )
                 .cast(AuthorizedSignatoryDto.class);
     }
 
     @Override
     public Mono<AuthorizedSignatoryDto> updateAuthorizedSignatory(AuthorizedSignatoryDto authorizedSignatory) {
-        return personService.updatePerson(authorizedSignatory.getPerson())
-                .flatMap(person -> authorizedSignatoryDao
-                        .save(AuthorizedSignatoryDto.build().toEntity(authorizedSignatory)))
-                .map(AuthorizedSignatoryDto.build()::toDto);
+        return this.currentVersion(authorizedSignatory)
+                .flatMap(version -> personService.updatePerson(authorizedSignatory.getPerson())
+                        .flatMap(person -> {
+                            AuthorizedSignatory entity = AuthorizedSignatoryMapper.toEntity(authorizedSignatory);
+                            entity.setVersion(version);
+                            return outbox.write(authorizedSignatoryDao.save(entity).map(AuthorizedSignatoryMapper::toDto),
+                                    updated -> outbox.event(AggregateTypeEnum.AUTHORIZED_SIGNATORY, ChangeTypeEnum.UPDATED,
+                                            updated.getId(), updated.getVersion(), updated));
+                        }))
+                .flatMap(saved -> clientAggregateStore.refreshReferencing(saved.getId()).thenReturn(saved));
     }
 
     @Override
     public Mono<Void> deleteAuthorizedSignatory(AuthorizedSignatoryDto authorizedSignatory) {
-        return personService.deletePerson(authorizedSignatory.getPerson())
-                .then(authorizedSignatoryDao.delete(AuthorizedSignatoryDto.build().toEntity(authorizedSignatory)));
+        return this.storedVersion(authorizedSignatory)
+                .flatMap(stored -> {
+                    AuthorizedSignatory entity = AuthorizedSignatoryMapper.toEntity(authorizedSignatory);
+                    entity.setVersion(stored.getVersion());
+                    return personService.deletePerson(authorizedSignatory.getPerson())
+                            .then(outbox.write(authorizedSignatoryDao.delete(entity).thenReturn(entity),
+                                    deleted -> outbox.deleted(AggregateTypeEnum.AUTHORIZED_SIGNATORY, deleted.getId(), deleted.getVersion())));
+                })
+                .then(clientAggregateStore.refreshReferencing(authorizedSignatory.getId()));
     }
 
     @Override
     public Flux<AuthorizedSignatoryDto> findAllAuthorizedSignatories() {
-        return authorizedSignatoryDao.findAll()
-                .map(AuthorizedSignatoryDto.build()::toDto);
+        return pipelineSchedulers.map(authorizedSignatoryDao.findAll(), AuthorizedSignatoryMapper::toDto);
+    }
+
+    @Override
+    public Flux<AuthorizedSignatoryDto> findAllAuthorizedSignatories(List<String> fields) {
+        Set<String> selected = FieldProjection.select(fields, AuthorizedSignatoryMapper.PROPERTIES);
+        if (selected == null) {
+            return this.findAllAuthorizedSignatories();
+        }
+        return pipelineSchedulers.map(projectionDao.findAll(AuthorizedSignatory.class, FieldProjection.properties(selected, AuthorizedSignatoryMapper.PROPERTIES)),
+                authorizedSignatory -> AuthorizedSignatoryMapper.toDto(authorizedSignatory, selected));
+    }
+
+    @Override
+    public Flux<AuthorizedSignatoryDto> findAllByIdList(Collection<String> ids) {
+        return pipelineSchedulers.map(authorizedSignatoryDao.findAllById(ids), AuthorizedSignatoryMapper::toDto);
     }
 
     @Override
     public Mono<AuthorizedSignatoryDto> findByDocumentNumber(String documentNumber) {
-        return personService.findByDocumentNumber(documentNumber)
+        return this.findByDocumentNumber(null, documentNumber);
+    }
+
+    @Override
+    public Mono<AuthorizedSignatoryDto> findByDocumentNumber(DocumentTypeEnum documentType, String documentNumber) {
+        return personService.findByDocumentNumber(documentType, documentNumber)
                 .switchIfEmpty(Mono.empty())
                 .flatMap(person -> authorizedSignatoryDao.findByPersonId(person.getId()))
-                .map(AuthorizedSignatoryDto.build()::toDto);
+                .map(AuthorizedSignatoryMapper::toDto);
     }
 
     @Override
     public Flux<AuthorizedSignatoryDto> createAuthorizedSignatories(
             List<AuthorizedSignatoryDto> authorizedSignatories) {
-        return personService.createPersons(authorizedSignatories.stream()
-                .map(AuthorizedSignatoryDto::getPerson)
-                .collect(Collectors.toList()))
+        Map<String, AuthorizedSignatoryDto> byDocumentNumber = new HashMap<>(authorizedSignatories.size() * 4 / 3 + 1);
+        List<PersonDto> persons = new ArrayList<>(authorizedSignatories.size());
+        authorizedSignatories.forEach(authSignatory -> {
+            byDocumentNumber.put(authSignatory.getPerson().getDocumentNumber(), authSignatory);
+            persons.add(authSignatory.getPerson());
+        });
+
+        return batchWriter.write(personService.createPersons(persons)
+                .map(person -> {
+                    AuthorizedSignatoryDto authSignatory = byDocumentNumber.get(person.getDocumentNumber());
+                    authSignatory.setPerson(person);
+                    return AuthorizedSignatory.builder()
+                            .personId(person.getId())
+                            .status(authSignatory.getStatus())
+                            .build();
+                }), chunk -> outbox.writeAll(authorizedSignatoryDao.insert(chunk).map(AuthorizedSignatoryMapper::toDto), this::created));
+    }
+
+    @Override
+    public Mono<PageDto<AuthorizedSignatoryDto>> findAuthorizedSignatoriesPage(String pageToken, Integer size) {
+        int pageSize = keysetPagination.size(size);
+        Pageable pageable = keysetPagination.pageable(pageSize, Sort.by("id"));
+        Flux<AuthorizedSignatory> page = pageToken == null
+                ? authorizedSignatoryDao.findAllBy(pageable)
+                : keysetPagination.decodeId(pageToken).flatMapMany(afterId -> authorizedSignatoryDao.findByIdGreaterThan(afterId, pageable));
+        return page.map(AuthorizedSignatoryMapper::toDto)
+                .collectList()
+                .map(items -> keysetPagination.page(items, pageSize, last -> keysetPagination.encode(last.getId())));
+    }
+
+    /**
+     * The id is always read, since the next page token is the id of the last element.
+     */
+    @Override
+    public Mono<PageDto<AuthorizedSignatoryDto>> findAuthorizedSignatoriesPage(String pageToken, Integer size, List<String> fields) {
+        Set<String> selected = FieldProjection.select(fields, AuthorizedSignatoryMapper.PROPERTIES);
+        if (selected == null) {
+            return this.findAuthorizedSignatoriesPage(pageToken, size);
+        }
+        selected.add("id");
+        int pageSize = keysetPagination.size(size);
+        Pageable pageable = keysetPagination.pageable(pageSize, Sort.by("id"));
+        List<String> properties = FieldProjection.properties(selected, AuthorizedSignatoryMapper.PROPERTIES);
+        Flux<AuthorizedSignatory> page = pageToken == null
+                ? projectionDao.findPage(AuthorizedSignatory.class, properties, null, pageable)
+                : keysetPagination.decodeId(pageToken).flatMapMany(afterId -> projectionDao.findPage(AuthorizedSignatory.class, properties, afterId, pageable));
+        return page
+                .map(authorizedSignatory -> AuthorizedSignatoryMapper.toDto(authorizedSignatory, selected))
                 .collectList()
-                .flatMapMany(persons -> {
-                    authorizedSignatories.forEach(authSignatory -> {
-                        persons.stream()
-                                .filter(person -> person.getDocumentNumber()
-                                        .equals(authSignatory.getPerson().getDocumentNumber()))
-                                .findFirst()
-                                .ifPresent(authSignatory::setPerson);
-                    });
-                    List<AuthorizedSignatory> authorizedSignatoriesEntities = authorizedSignatories.stream()
-                            .map(authorizedSignatory -> AuthorizedSignatory.builder()
-                                .personId(authorizedSignatory.getPerson().getId())
-                                    .status(authorizedSignatory.getStatus())
-                                    .build())
-                            .collect(Collectors.toList());
-                    return authorizedSignatoryDao.saveAll(authorizedSignatoriesEntities)
-                            .map(AuthorizedSignatoryDto.build()::toDto);
+                .map(items -> keysetPagination.page(items, pageSize, last -> keysetPagination.encode(last.getId())));
+    }
+
+    /**
+     * The version the update is checked against: the one the caller read, or the stored one
+     * when it sent none, in which case the update overwrites whatever is there.
+     */
+    private Mono<Long> currentVersion(AuthorizedSignatoryDto authorizedSignatory) {
+        return this.storedVersion(authorizedSignatory)
+                .flatMap(stored -> stored.getVersion() == null
+                        ? Mono.error(new IllegalStateException("Authorized signatory " + authorizedSignatory.getId() + " is not versioned yet"))
+                        : Mono.just(stored.getVersion()));
+    }
+
+    /**
+     * The stored authorized signatory, read for its version only, once checked against the version
+     * the caller read. A delete needs it too: the repository deletes by id and version.
+     */
+    private Mono<AuthorizedSignatory> storedVersion(AuthorizedSignatoryDto authorizedSignatory) {
+        return projectionDao.findVersion(AuthorizedSignatory.class, authorizedSignatory.getId(), AuthorizedSignatory.ID_VERSION_INDEX)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Authorized signatory not found")))
+                .flatMap(stored -> {
+                    if (authorizedSignatory.getVersion() != null && !authorizedSignatory.getVersion().equals(stored.getVersion())) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Authorized signatory " + authorizedSignatory.getId() + " is at version " + stored.getVersion() + ", not " + authorizedSignatory.getVersion()));
+                    }
+                    return Mono.just(stored);
                 });
     }
+
+    private OutboxEvent created(AuthorizedSignatoryDto authorizedSignatory) {
+        return outbox.event(AggregateTypeEnum.AUTHORIZED_SIGNATORY, ChangeTypeEnum.CREATED, authorizedSignatory.getId(), authorizedSignatory.getVersion(), authorizedSignatory);
+    }
 }
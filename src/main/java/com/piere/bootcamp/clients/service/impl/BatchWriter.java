@@ -0,0 +1,34 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Writes batches in chunks of {@code clients.batch.chunk-size}, each with one {@code insertMany},
+ * and at most {@code clients.batch.concurrency} chunks at once. A batch of any size thus holds a
+ * bounded number of pooled connections, and the chunks are only pulled from upstream as the
+ * writes complete.
+ */
+@Component
+public class BatchWriter {
+
+    @Value("${clients.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${clients.batch.concurrency:2}")
+    private int concurrency;
+
+    /**
+     * @param chunkWriter writes a chunk and emits what it wrote
+     * @return what every chunk wrote, in the order of {@code entities}
+     */
+    public <T, R> Flux<R> write(Flux<T> entities, Function<List<T>, Flux<R>> chunkWriter) {
+        return entities.buffer(chunkSize)
+                .flatMapSequential(chunkWriter, concurrency, chunkSize);
+    }
+}
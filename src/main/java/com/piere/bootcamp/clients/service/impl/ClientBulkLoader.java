@@ -0,0 +1,253 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.piere.bootcamp.clients.dao.BulkInsertDao;
+import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.lookup.DocumentNumbers;
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.BulkClientResultDto;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.model.enums.BulkItemStatusEnum;
+import com.piere.bootcamp.clients.model.enums.ClientTypeEnum;
+import com.piere.bootcamp.clients.outbox.Outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+/**
+ * Onboards clients in chunks. Each chunk costs one {@code $in} duplicate check plus
+ * three unordered bulk writes (persons, then representatives and signatories, then clients),
+ * instead of several round-trips per client. The outbox events of the created clients follow
+ * in one more insert; bulk loads never run in a transaction, so a crash in between or a failed
+ * insert loses them.
+ * What was written for a client that fails at a later step is deleted again, so that loading
+ * it once more is not rejected because of its own people.
+ */
+@Slf4j
+@Component
+public class ClientBulkLoader {
+
+    @Autowired
+    private PersonDao personDao;
+
+    @Autowired
+    private BulkInsertDao bulkInsertDao;
+
+    @Autowired
+    private Outbox outbox;
+
+    @Value("${clients.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    public Flux<BulkClientResultDto> createClients(Flux<ClientDto> clients) {
+        return clients.index()
+                .buffer(chunkSize)
+                .concatMap(this::createChunk);
+    }
+
+    private Flux<BulkClientResultDto> createChunk(List<Tuple2<Long, ClientDto>> chunk) {
+        Set<String> keys = new HashSet<>();
+        chunk.forEach(item -> keys.addAll(keysOf(item.getT2())));
+        keys.remove(null);
+        return personDao.findByKeyIn(keys)
+                .collect(HashSet<String>::new, (existing, person) -> {
+                    existing.add(person.getNormalizedDocumentNumber());
+                    if (person.getLookupKey() != null) {
+                        existing.add(person.getLookupKey());
+                    }
+                })
+                .flatMapMany(existing -> {
+                    BulkClientResultDto[] results = new BulkClientResultDto[chunk.size()];
+                    List<Item> pending = prepare(chunk, existing, results);
+                    return write(pending, results)
+                            .thenMany(Flux.fromArray(results));
+                });
+    }
+
+    private List<Item> prepare(List<Tuple2<Long, ClientDto>> chunk, Set<String> existing,
+            BulkClientResultDto[] results) {
+        Set<String> seen = new HashSet<>();
+        List<Item> pending = new ArrayList<>(chunk.size());
+        for (int position = 0; position < chunk.size(); position++) {
+            long index = chunk.get(position).getT1();
+            ClientDto client = chunk.get(position).getT2();
+            if (client.getPerson() == null || client.getPerson().getDocumentNumber() == null) {
+                results[position] = result(index, null, BulkItemStatusEnum.FAILED, null, "Person document number is required");
+                continue;
+            }
+            String documentNumber = client.getPerson().getDocumentNumber();
+            List<String> keys = keysOf(client);
+            Set<String> unique = new HashSet<>(keys);
+            if (unique.size() != keys.size() || keys.stream().anyMatch(key -> existing.contains(key) || seen.contains(key))) {
+                results[position] = result(index, documentNumber, BulkItemStatusEnum.CONFLICT, null, "Client already exists");
+                continue;
+            }
+            seen.addAll(unique);
+            pending.add(new Item(position, index, client));
+        }
+        return pending;
+    }
+
+    private Mono<Void> write(List<Item> pending, BulkClientResultDto[] results) {
+        Set<Item> failed = new HashSet<>();
+        return insert(pending, item -> item.pending.persons, Person.class)
+                .flatMap(personFailures -> {
+                    personFailures.forEach(item -> results[item.position] = result(item.index, item.pending.documentNumber,
+                            BulkItemStatusEnum.CONFLICT, null, "Person could not be written, it may already exist"));
+                    failed.addAll(personFailures);
+                    List<Item> withPersons = without(pending, personFailures);
+
+                    return Mono.zip(
+                            insert(withPersons, item -> item.pending.legalRepresentatives, LegalRepresentative.class),
+                            insert(withPersons, item -> item.pending.authorizedSignatories, AuthorizedSignatory.class))
+                            .flatMap(tuple -> {
+                                Set<Item> failures = new HashSet<>(tuple.getT1());
+                                failures.addAll(tuple.getT2());
+                                failures.forEach(item -> results[item.position] = result(item.index, item.pending.documentNumber,
+                                        BulkItemStatusEnum.FAILED, null, "Legal representatives or authorized signatories could not be written"));
+                                failed.addAll(failures);
+                                List<Item> ready = without(withPersons, failures);
+
+                                return insert(ready, item -> Collections.singletonList(item.pending.client), Client.class)
+                                        .doOnNext(clientFailures -> ready.forEach(item -> results[item.position] = clientFailures.contains(item)
+                                                ? result(item.index, item.pending.documentNumber, BulkItemStatusEnum.FAILED, null, "Client could not be written")
+                                                : result(item.index, item.pending.documentNumber, BulkItemStatusEnum.CREATED, item.pending.client.getId(), null)))
+                                        .doOnNext(failed::addAll)
+                                        .flatMap(clientFailures -> outbox.appendAllAfterWrite(Flux.fromIterable(without(ready, clientFailures))
+                                                .flatMapIterable(item -> CreationEvents.of(outbox, item.pending.persons,
+                                                        item.pending.legalRepresentatives, item.pending.authorizedSignatories, item.pending.client))));
+                            });
+                })
+                .then(Mono.defer(() -> discard(failed)));
+    }
+
+    /**
+     * Deletes the persons, representatives and signatories of clients that could not be written.
+     * Their ids were assigned up front, so the ones that never made it match nothing. When the
+     * delete fails, the ids left behind are logged.
+     */
+    private Mono<Void> discard(Set<Item> failed) {
+        if (failed.isEmpty()) {
+            return Mono.empty();
+        }
+        List<String> personIds = idsOf(failed, item -> item.pending.persons, Person::getId);
+        List<String> legalRepresentativeIds = idsOf(failed, item -> item.pending.legalRepresentatives, LegalRepresentative::getId);
+        List<String> authorizedSignatoryIds = idsOf(failed, item -> item.pending.authorizedSignatories, AuthorizedSignatory::getId);
+        return Mono.when(
+                bulkInsertDao.deleteAll(personIds, Person.class),
+                bulkInsertDao.deleteAll(legalRepresentativeIds, LegalRepresentative.class),
+                bulkInsertDao.deleteAll(authorizedSignatoryIds, AuthorizedSignatory.class))
+                .onErrorResume(e -> {
+                    log.warn("Could not delete what was written for {} failed clients: persons {}, legal representatives {}, authorized signatories {}",
+                            failed.size(), personIds, legalRepresentativeIds, authorizedSignatoryIds, e);
+                    return Mono.empty();
+                });
+    }
+
+    private static <T> List<String> idsOf(Set<Item> items, Function<Item, List<T>> entitiesOf, Function<T, String> idOf) {
+        return items.stream()
+                .flatMap(item -> entitiesOf.apply(item).stream())
+                .map(idOf)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the pending clients owning at least one entity that could not be written
+     */
+    private <T> Mono<Set<Item>> insert(List<Item> items, Function<Item, List<T>> entitiesOf,
+            Class<T> type) {
+        List<T> entities = new ArrayList<>();
+        List<Item> owners = new ArrayList<>();
+        items.forEach(item -> entitiesOf.apply(item).forEach(entity -> {
+            entities.add(entity);
+            owners.add(item);
+        }));
+        return bulkInsertDao.insertUnordered(entities, type)
+                .map(failed -> failed.stream()
+                        .map(owners::get)
+                        .collect(Collectors.toSet()));
+    }
+
+    private static List<Item> without(List<Item> items, Set<Item> excluded) {
+        if (excluded.isEmpty()) {
+            return items;
+        }
+        return items.stream()
+                .filter(item -> !excluded.contains(item))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Keys of {@link DocumentNumbers#key} of every person of the client, so that numbers written
+     * differently are still recognized as the same person.
+     */
+    private static List<String> keysOf(ClientDto client) {
+        List<String> keys = new ArrayList<>();
+        if (client.getPerson() != null && client.getPerson().getDocumentNumber() != null) {
+            keys.add(key(client.getPerson()));
+        }
+        if (client.getClientType() == ClientTypeEnum.EMPRESARIAL) {
+            if (client.getLegalRepresentatives() != null) {
+                client.getLegalRepresentatives().stream()
+                        .filter(legalRep -> legalRep.getPerson() != null)
+                        .forEach(legalRep -> keys.add(key(legalRep.getPerson())));
+            }
+            if (client.getAuthorizedSignatories() != null) {
+                client.getAuthorizedSignatories().stream()
+                        .filter(authSignatory -> authSignatory.getPerson() != null)
+                        .forEach(authSignatory -> keys.add(key(authSignatory.getPerson())));
+            }
+        }
+        return keys;
+    }
+
+    private static String key(PersonDto person) {
+        return DocumentNumbers.key(person.getDocumentType(), person.getDocumentNumber());
+    }
+
+    private static BulkClientResultDto result(long index, String documentNumber, BulkItemStatusEnum status,
+            String clientId, String message) {
+        return BulkClientResultDto.builder()
+                .index(index)
+                .documentNumber(documentNumber)
+                .status(status)
+                .clientId(clientId)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * A client of the chunk being written, with its position in the chunk and in the whole load.
+     */
+    private static final class Item {
+
+        private final int position;
+
+        private final long index;
+
+        private final PendingClient pending;
+
+        private Item(int position, long index, ClientDto dto) {
+            this.position = position;
+            this.index = index;
+            this.pending = new PendingClient(dto);
+        }
+    }
+}
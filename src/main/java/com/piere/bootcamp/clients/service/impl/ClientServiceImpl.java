@@ -1,34 +1,100 @@
 package com.piere.bootcamp.clients.service.impl;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.Collections;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.piere.bootcamp.clients.aggregate.ClientAggregateStore;
 import com.piere.bootcamp.clients.dao.ClientDao;
+import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.dao.ProjectionDao;
+import com.piere.bootcamp.clients.idempotency.IdempotencyStore;
+import com.piere.bootcamp.clients.lookup.DocumentNumbers;
 import com.piere.bootcamp.clients.model.document.Client;
 import com.piere.bootcamp.clients.model.dto.AuthorizedSignatoryDto;
+import com.piere.bootcamp.clients.model.dto.BulkClientResultDto;
 import com.piere.bootcamp.clients.model.dto.ClientDto;
 import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+import com.piere.bootcamp.clients.model.dto.PageDto;
 import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.model.enums.AggregateTypeEnum;
+import com.piere.bootcamp.clients.model.enums.BulkItemStatusEnum;
+import com.piere.bootcamp.clients.model.enums.ChangeTypeEnum;
 import com.piere.bootcamp.clients.model.enums.ClientTypeEnum;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
+import com.piere.bootcamp.clients.model.mapper.ClientMapper;
+import com.piere.bootcamp.clients.model.mapper.PersonMapper;
+import com.piere.bootcamp.clients.outbox.Outbox;
+import com.piere.bootcamp.clients.scheduling.PipelineSchedulers;
 import com.piere.bootcamp.clients.service.AuthorizedSignatoryService;
 import com.piere.bootcamp.clients.service.ClientService;
 import com.piere.bootcamp.clients.service.LegalRepresentativeService;
 import com.piere.bootcamp.clients.service.PersonService;
+import com.piere.bootcamp.clients.tracing.ReactiveTracing;
 
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+@Slf4j
 @Service
 public class ClientServiceImpl implements ClientService {
 
+    private static final int EXPAND_PAGE_SIZE = 100;
+
+    @Value("${clients.stream.cursor-batch-size:500}")
+    private int cursorBatchSize;
+
+    /**
+     * Create each client in one Mongo transaction; requires a replica set.
+     */
+    @Value("${clients.create.transactional:false}")
+    private boolean transactional;
+
     @Autowired
     private ClientDao clientDao;
 
+    @Autowired
+    private PersonDao personDao;
+
+    @Autowired
+    private KeysetPagination keysetPagination;
+
+    @Autowired
+    private ProjectionDao projectionDao;
+
+    @Autowired
+    private Outbox outbox;
+
+    @Autowired
+    private PipelineSchedulers pipelineSchedulers;
+
+    @Autowired
+    private ClientBulkLoader clientBulkLoader;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private TransactionalClientWriter transactionalClientWriter;
+
+    @Autowired
+    private ClientAggregateStore clientAggregateStore;
+
     @Autowired
     private AuthorizedSignatoryService authorizedSignatoryService;
 
@@ -37,15 +103,28 @@ public class ClientServiceImpl implements ClientService {
 
     @Autowired
     private LegalRepresentativeService legalRepresentativeService;
+
+    @Autowired
+    private ReactiveTracing reactiveTracing;
     
 
     @Override
     public Mono<ClientDto> createClient(ClientDto client) {
-        return this.findByDocumentNumber(client.getPerson().getDocumentNumber())
+        Mono<ClientDto> created = transactional
+                ? reactiveTracing.inSpan("createClient.transaction", transactionalClientWriter.createClient(client))
+                : this.createClientNormalized(client);
+        return created
+                .flatMap(newClient -> clientAggregateStore.refresh(newClient.getId()).thenReturn(newClient))
+                .doOnError(error -> log.warn("Client creation failed for document {}: {}",
+                        client.getPerson().getDocumentNumber(), error.getMessage()));
+    }
+
+    private Mono<ClientDto> createClientNormalized(ClientDto client) {
+        return this.findByDocumentNumber(client.getPerson().getDocumentType(), client.getPerson().getDocumentNumber())
                 .flatMap(existingClient -> Mono.error(new IllegalArgumentException("Client already exists")))
                 .switchIfEmpty(
                         Mono.defer(() -> {
-                            Mono<List<LegalRepresentativeDto>> legalRepresentatives = Mono.defer(() -> {
+                            Mono<List<LegalRepresentativeDto>> legalRepresentatives = reactiveTracing.inSpan("createClient.legalRepresentatives", Mono.defer(() -> {
                                 if (client.getClientType() == ClientTypeEnum.EMPRESARIAL) {
                                     return legalRepresentativeService
                                             .createLegalRepresentatives(client.getLegalRepresentatives())
@@ -53,9 +132,9 @@ public class ClientServiceImpl implements ClientService {
                                 } else {
                                     return Mono.just(Collections.emptyList());
                                 }
-                            });
+                            }));
 
-                            Mono<List<AuthorizedSignatoryDto>> authorizedSignatories = Mono.defer(() -> {
+                            Mono<List<AuthorizedSignatoryDto>> authorizedSignatories = reactiveTracing.inSpan("createClient.authorizedSignatories", Mono.defer(() -> {
                                 if (client.getClientType() == ClientTypeEnum.EMPRESARIAL) {
                                     return Mono.justOrEmpty(client.getAuthorizedSignatories())
                                             .filter(list -> !list.isEmpty())
@@ -65,10 +144,10 @@ public class ClientServiceImpl implements ClientService {
                                 } else {
                                     return Mono.just(Collections.emptyList());
                                 }
-                            });
+                            }));
 
-                            Mono<PersonDto> personMono = personService.createPerson(client.getPerson())
-                                    .doOnNext(person -> client.setPerson(person));
+                            Mono<PersonDto> personMono = reactiveTracing.inSpan("createClient.person", personService.createPerson(client.getPerson())
+                                    .doOnNext(person -> client.setPerson(person)));
 
                             return Mono.zip(legalRepresentatives, authorizedSignatories, personMono)
                                     .flatMap(tuple -> {
@@ -87,52 +166,314 @@ public class ClientServiceImpl implements ClientService {
                                                 .createAt(LocalDate.now())
                                                 .build();
 
-                                        return clientDao.save(newClient)
-                                                .map(ClientDto.build()::toDto);
+                                        return reactiveTracing.inSpan("createClient.save", outbox.write(clientDao.save(newClient)
+                                                .map(ClientMapper::toDto), created -> outbox.event(AggregateTypeEnum.CLIENT,
+                                                        ChangeTypeEnum.CREATED, created.getId(), created.getVersion(), created)));
                                     });
                         }))
-                .cast(ClientDto.class)
-                .onErrorResume(error -> {
-                    System.err.println("Error: " + error.getMessage());
-                    return Mono.error(error);
-                });
+                .cast(ClientDto.class);
+    }
+
+    @Override
+    public Mono<ClientDto> createClient(ClientDto client, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createClient(client);
+        }
+        return idempotencyStore.execute(idempotencyKey, client, ClientDto.class, () -> createClient(client));
+    }
+
+    @Override
+    public Flux<BulkClientResultDto> createClients(Flux<ClientDto> clients) {
+        Flux<BulkClientResultDto> results = clientBulkLoader.createClients(clients);
+        if (!clientAggregateStore.isEmbedded()) {
+            return results;
+        }
+        return results.buffer(EXPAND_PAGE_SIZE)
+                .concatMap(batch -> clientAggregateStore.refresh(batch.stream()
+                                .filter(result -> result.getStatus() == BulkItemStatusEnum.CREATED)
+                                .map(BulkClientResultDto::getClientId)
+                                .collect(Collectors.toList()))
+                        .thenMany(Flux.fromIterable(batch)));
     }
 
     @Override
     public Mono<Void> deleteClient(ClientDto client) {
-        return clientDao.delete(ClientDto.build().toEntity(client));
+        return this.storedVersion(client)
+                .flatMap(stored -> {
+                    Client entity = ClientMapper.toEntity(client);
+                    entity.setVersion(stored.getVersion());
+                    return outbox.write(clientDao.delete(entity).thenReturn(entity),
+                            deleted -> outbox.deleted(AggregateTypeEnum.CLIENT, deleted.getId(), deleted.getVersion()));
+                })
+                .then(clientAggregateStore.refresh(client.getId()));
     }
 
     @Override
     public Mono<ClientDto> updateClient(ClientDto client) {
-        return personService.updatePerson(client.getPerson())
-                .flatMap(person -> clientDao.save(ClientDto.build().toEntity(client))
-                        .map(ClientDto.build()::toDto));
+        return this.currentVersion(client)
+                .flatMap(version -> personService.updatePerson(client.getPerson())
+                        .flatMap(person -> {
+                            Client entity = ClientMapper.toEntity(client);
+                            entity.setVersion(version);
+                            return outbox.write(clientDao.save(entity).map(ClientMapper::toDto),
+                                    updated -> outbox.event(AggregateTypeEnum.CLIENT, ChangeTypeEnum.UPDATED,
+                                            updated.getId(), updated.getVersion(), updated));
+                        }))
+                .flatMap(updated -> clientAggregateStore.refresh(updated.getId()).thenReturn(updated));
     }
 
     @Override
     public Flux<ClientDto> findAllClients() {
-        return clientDao.findAll()
-                .map(ClientDto.build()::toDto);
+        return this.findAllClients(false);
+    }
+
+    @Override
+    public Flux<ClientDto> findAllClients(boolean expand) {
+        Flux<ClientDto> clients = pipelineSchedulers.map(clientDao.findAll(), ClientMapper::toDto);
+        return expand ? this.expand(clients) : clients;
+    }
+
+    @Override
+    public Flux<ClientDto> findAllClients(boolean expand, List<String> fields) {
+        Set<String> selected = FieldProjection.select(fields, ClientMapper.PROPERTIES);
+        if (selected == null) {
+            return this.findAllClients(expand);
+        }
+        if (expand) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fields cannot be combined with expand");
+        }
+        return pipelineSchedulers.map(projectionDao.findAll(Client.class, FieldProjection.properties(selected, ClientMapper.PROPERTIES)),
+                client -> ClientMapper.toDto(client, selected));
+    }
+
+    @Override
+    public Flux<ClientDto> streamAllClients() {
+        return pipelineSchedulers.map(clientDao.streamAll(cursorBatchSize), ClientMapper::toDto);
     }
 
     @Override
     public Flux<ClientDto> findAllByIdList(List<String> ids) {
-        return clientDao.findAllById(ids)
-                .map(ClientDto.build()::toDto);
+        return this.findAllByIdList(ids, false);
+    }
+
+    @Override
+    public Flux<ClientDto> findAllByIdList(List<String> ids, boolean expand) {
+        if (expand && clientAggregateStore.isEmbedded()) {
+            return this.findAllExpandedByIdList(ids);
+        }
+        Flux<ClientDto> clients = pipelineSchedulers.map(clientDao.findAllById(ids), ClientMapper::toDto);
+        return expand ? this.expand(clients) : clients;
+    }
+
+    /**
+     * Reads the embedded aggregates, falling back to the normalized collections
+     * for clients whose aggregate does not exist yet (e.g. during the backfill).
+     */
+    private Flux<ClientDto> findAllExpandedByIdList(List<String> ids) {
+        return clientAggregateStore.findAllById(ids)
+                .collectList()
+                .flatMapMany(found -> {
+                    Set<String> missing = new HashSet<>(ids);
+                    found.forEach(client -> missing.remove(client.getId()));
+                    if (missing.isEmpty()) {
+                        return Flux.fromIterable(found);
+                    }
+                    return Flux.fromIterable(found)
+                            .concatWith(this.expand(pipelineSchedulers.map(clientDao.findAllById(missing), ClientMapper::toDto)));
+                });
     }
 
     @Override
     public Mono<ClientDto> findById(String id) {
-        return clientDao.findById(id)
-                .map(ClientDto.build()::toDto);
+        return this.findById(id, false);
+    }
+
+    @Override
+    public Mono<ClientDto> findById(String id, boolean expand) {
+        Mono<ClientDto> client = clientDao.findById(id)
+                .map(ClientMapper::toDto);
+        if (!expand) {
+            return client;
+        }
+        Mono<ClientDto> expanded = this.expand(client.flux()).next();
+        return clientAggregateStore.isEmbedded()
+                ? clientAggregateStore.findById(id).switchIfEmpty(expanded)
+                : expanded;
     }
 
     @Override
     public Mono<ClientDto> findByDocumentNumber(String documentNumber) {
-        return personService.findByDocumentNumber(documentNumber)
-                .switchIfEmpty(Mono.empty())
-                .flatMap(person -> clientDao.findByPersonId(person.getId()))
-                .map(ClientDto.build()::toDto);
+        return this.findByDocumentNumber(null, documentNumber);
+    }
+
+    @Override
+    public Mono<ClientDto> findByDocumentNumber(DocumentTypeEnum documentType, String documentNumber) {
+        String key = DocumentNumbers.key(documentType, documentNumber);
+        if (key == null) {
+            return Mono.empty();
+        }
+        return DocumentNumbers.unique(personDao.findClientByKey(key))
+                .filter(result -> result.getClient() != null)
+                .map(result -> {
+                    ClientDto client = ClientMapper.toDto(result.getClient());
+                    client.setPerson(PersonMapper.toDto(result.getPerson()));
+                    return client;
+                });
+    }
+
+    @Override
+    public Mono<ClientDto> findVersionById(String id) {
+        return projectionDao.findVersion(Client.class, id, Client.ID_VERSION_INDEX)
+                .map(ClientMapper::toDto);
+    }
+
+    @Override
+    public Mono<ClientDto> findVersionByDocumentNumber(String documentNumber) {
+        String key = DocumentNumbers.key(null, documentNumber);
+        if (key == null) {
+            return Mono.empty();
+        }
+        return DocumentNumbers.unique(personDao.findClientVersionByKey(key))
+                .filter(result -> result.getClient() != null)
+                .map(result -> {
+                    ClientDto client = ClientMapper.toDto(result.getClient());
+                    client.setPerson(PersonMapper.toDto(result.getPerson()));
+                    return client;
+                });
+    }
+
+    /**
+     * The version the update is checked against: the one the caller read, or the stored one
+     * when it sent none, in which case the update overwrites whatever is there. A stale one is
+     * rejected here already, before the person is updated.
+     */
+    private Mono<Long> currentVersion(ClientDto client) {
+        return this.storedVersion(client)
+                .flatMap(stored -> stored.getVersion() == null
+                        ? Mono.error(new IllegalStateException("Client " + client.getId() + " is not versioned yet"))
+                        : Mono.just(stored.getVersion()));
+    }
+
+    /**
+     * The stored client, read for its version only, once checked against the version the caller
+     * read. A delete needs it too: the repository deletes by id and version.
+     */
+    private Mono<Client> storedVersion(ClientDto client) {
+        return projectionDao.findVersion(Client.class, client.getId(), Client.ID_VERSION_INDEX)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Cliente no encontrado")))
+                .flatMap(stored -> {
+                    if (client.getVersion() != null && !client.getVersion().equals(stored.getVersion())) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Client " + client.getId() + " is at version " + stored.getVersion() + ", not " + client.getVersion()));
+                    }
+                    return Mono.just(stored);
+                });
+    }
+
+    /**
+     * Hydrates the person, legal representatives and authorized signatories of each client.
+     * Clients are resolved in pages of {@link #EXPAND_PAGE_SIZE}, with three {@code $in}
+     * queries per page regardless of how many clients or references the page holds. Up to
+     * {@code clients.scheduling.concurrency} pages are resolved at once, emitted in order.
+     */
+    private Flux<ClientDto> expand(Flux<ClientDto> clients) {
+        return clients.buffer(EXPAND_PAGE_SIZE)
+                .flatMapSequential(this::expandPage, pipelineSchedulers.concurrency(), pipelineSchedulers.prefetch());
+    }
+
+    private Flux<ClientDto> expandPage(List<ClientDto> clients) {
+        Set<String> legalRepresentativeIds = new HashSet<>();
+        Set<String> authorizedSignatoryIds = new HashSet<>();
+        clients.forEach(client -> {
+            if (client.getLegalRepresentativeIds() != null) {
+                legalRepresentativeIds.addAll(client.getLegalRepresentativeIds());
+            }
+            if (client.getAuthorizedSignatoryIds() != null) {
+                authorizedSignatoryIds.addAll(client.getAuthorizedSignatoryIds());
+            }
+        });
+
+        Mono<Map<String, LegalRepresentativeDto>> legalRepresentatives = legalRepresentativeIds.isEmpty()
+                ? Mono.just(Collections.emptyMap())
+                : legalRepresentativeService.findAllByIdList(legalRepresentativeIds)
+                        .collectMap(LegalRepresentativeDto::getId);
+
+        Mono<Map<String, AuthorizedSignatoryDto>> authorizedSignatories = authorizedSignatoryIds.isEmpty()
+                ? Mono.just(Collections.emptyMap())
+                : authorizedSignatoryService.findAllByIdList(authorizedSignatoryIds)
+                        .collectMap(AuthorizedSignatoryDto::getId);
+
+        return Mono.zip(legalRepresentatives, authorizedSignatories)
+                .flatMapMany(tuple -> {
+                    Map<String, LegalRepresentativeDto> legalReps = tuple.getT1();
+                    Map<String, AuthorizedSignatoryDto> authSignatories = tuple.getT2();
+
+                    Set<String> personIds = new HashSet<>();
+                    clients.forEach(client -> personIds.add(client.getPersonId()));
+                    legalReps.values().forEach(legalRep -> personIds.add(legalRep.getPersonId()));
+                    authSignatories.values().forEach(authSignatory -> personIds.add(authSignatory.getPersonId()));
+                    personIds.remove(null);
+
+                    return personService.findAllByIdList(personIds)
+                            .collectMap(PersonDto::getId)
+                            .flatMapIterable(persons -> {
+                                legalReps.values().forEach(legalRep -> legalRep.setPerson(persons.get(legalRep.getPersonId())));
+                                authSignatories.values().forEach(authSignatory -> authSignatory.setPerson(persons.get(authSignatory.getPersonId())));
+                                clients.forEach(client -> {
+                                    client.setPerson(persons.get(client.getPersonId()));
+                                    client.setLegalRepresentatives(resolve(client.getLegalRepresentativeIds(), legalReps));
+                                    client.setAuthorizedSignatories(resolve(client.getAuthorizedSignatoryIds(), authSignatories));
+                                });
+                                return clients;
+                            });
+                });
+    }
+
+    private static <T> List<T> resolve(List<String> ids, Map<String, T> resolved) {
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        List<T> result = new ArrayList<>(ids.size());
+        ids.forEach(id -> {
+            T value = resolved.get(id);
+            if (value != null) {
+                result.add(value);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public Mono<PageDto<ClientDto>> findClientsPage(String pageToken, Integer size) {
+        int pageSize = keysetPagination.size(size);
+        Pageable pageable = keysetPagination.pageable(pageSize, Sort.by("id"));
+        Flux<Client> page = pageToken == null
+                ? clientDao.findAllBy(pageable)
+                : keysetPagination.decodeId(pageToken).flatMapMany(afterId -> clientDao.findByIdGreaterThan(afterId, pageable));
+        return page.map(ClientMapper::toDto)
+                .collectList()
+                .map(items -> keysetPagination.page(items, pageSize, last -> keysetPagination.encode(last.getId())));
+    }
+
+    /**
+     * The id is always read, since the next page token is the id of the last element.
+     */
+    @Override
+    public Mono<PageDto<ClientDto>> findClientsPage(String pageToken, Integer size, List<String> fields) {
+        Set<String> selected = FieldProjection.select(fields, ClientMapper.PROPERTIES);
+        if (selected == null) {
+            return this.findClientsPage(pageToken, size);
+        }
+        selected.add("id");
+        int pageSize = keysetPagination.size(size);
+        Pageable pageable = keysetPagination.pageable(pageSize, Sort.by("id"));
+        List<String> properties = FieldProjection.properties(selected, ClientMapper.PROPERTIES);
+        Flux<Client> page = pageToken == null
+                ? projectionDao.findPage(Client.class, properties, null, pageable)
+                : keysetPagination.decodeId(pageToken).flatMapMany(afterId -> projectionDao.findPage(Client.class, properties, afterId, pageable));
+        return page
+                .map(client -> ClientMapper.toDto(client, selected))
+                .collectList()
+                .map(items -> keysetPagination.page(items, pageSize, last -> keysetPagination.encode(last.getId())));
     }
 }
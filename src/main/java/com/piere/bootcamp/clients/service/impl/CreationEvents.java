@@ -0,0 +1,41 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.OutboxEvent;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.enums.AggregateTypeEnum;
+import com.piere.bootcamp.clients.model.enums.ChangeTypeEnum;
+import com.piere.bootcamp.clients.model.mapper.AuthorizedSignatoryMapper;
+import com.piere.bootcamp.clients.model.mapper.ClientMapper;
+import com.piere.bootcamp.clients.model.mapper.LegalRepresentativeMapper;
+import com.piere.bootcamp.clients.model.mapper.PersonMapper;
+import com.piere.bootcamp.clients.outbox.Outbox;
+
+/**
+ * Outbox events of a client written together with its people, people first so that consumers
+ * know them by the time the client references them.
+ */
+final class CreationEvents {
+
+    private CreationEvents() {
+    }
+
+    static List<OutboxEvent> of(Outbox outbox, List<Person> persons, List<LegalRepresentative> legalRepresentatives,
+            List<AuthorizedSignatory> authorizedSignatories, Client client) {
+        List<OutboxEvent> events = new ArrayList<>(persons.size() + legalRepresentatives.size() + authorizedSignatories.size() + 1);
+        persons.forEach(person -> events.add(outbox.event(AggregateTypeEnum.PERSON, ChangeTypeEnum.CREATED,
+                person.getId(), person.getVersion(), PersonMapper.toDto(person))));
+        legalRepresentatives.forEach(legalRep -> events.add(outbox.event(AggregateTypeEnum.LEGAL_REPRESENTATIVE,
+                ChangeTypeEnum.CREATED, legalRep.getId(), legalRep.getVersion(), LegalRepresentativeMapper.toDto(legalRep))));
+        authorizedSignatories.forEach(authSignatory -> events.add(outbox.event(AggregateTypeEnum.AUTHORIZED_SIGNATORY,
+                ChangeTypeEnum.CREATED, authSignatory.getId(), authSignatory.getVersion(), AuthorizedSignatoryMapper.toDto(authSignatory))));
+        events.add(outbox.event(AggregateTypeEnum.CLIENT, ChangeTypeEnum.CREATED, client.getId(), client.getVersion(),
+                ClientMapper.toDto(client)));
+        return events;
+    }
+}
@@ -0,0 +1,50 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Resolves the {@code fields} request parameter against the projectable fields of a DTO.
+ */
+final class FieldProjection {
+
+    private FieldProjection() {
+    }
+
+    /**
+     * @return the selected DTO fields, or {@code null} when no projection was requested
+     */
+    static Set<String> select(List<String> fields, Map<String, String> properties) {
+        if (fields == null) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!properties.containsKey(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown field '" + name + "', expected any of " + properties.keySet());
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? null : selected;
+    }
+
+    /**
+     * @return the entity properties to read for the selected fields
+     */
+    static List<String> properties(Set<String> selected, Map<String, String> properties) {
+        List<String> result = new ArrayList<>(selected.size());
+        selected.forEach(field -> result.add(properties.get(field)));
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.piere.bootcamp.clients.model.dto.PageDto;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Builds keyset pages: every page is read with a range predicate on the sort key
+ * and a limit, never with a skip, so the cost of a page does not depend on its depth.
+ */
+@Component
+public class KeysetPagination {
+
+    @Value("${clients.page.default-size:50}")
+    private int defaultSize;
+
+    @Value("${clients.page.max-size:200}")
+    private int maxSize;
+
+    /**
+     * Resolves the effective page size, capped to the configured maximum.
+     */
+    public int size(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultSize;
+        }
+        return Math.min(requested, maxSize);
+    }
+
+    /**
+     * Request one element past the page size to know whether a next page exists.
+     */
+    public Pageable pageable(int size, Sort sort) {
+        return PageRequest.of(0, size + 1, sort);
+    }
+
+    public <T> PageDto<T> page(List<T> items, int size, Function<T, String> nextPageToken) {
+        boolean hasNext = items.size() > size;
+        List<T> content = hasNext ? items.subList(0, size) : items;
+        return PageDto.<T>builder()
+                .content(content)
+                .size(content.size())
+                .nextPageToken(hasNext ? nextPageToken.apply(content.get(size - 1)) : null)
+                .build();
+    }
+
+    public String encode(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The value a page token carries; a token that is not Base64 fails with 400.
+     */
+    public Mono<String> decode(String pageToken) {
+        try {
+            return Mono.just(new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            return Mono.error(invalidPageToken());
+        }
+    }
+
+    /**
+     * The id a page token carries; a token that does not carry an id fails with 400 instead
+     * of matching nothing or restarting from the first page.
+     */
+    public Mono<String> decodeId(String pageToken) {
+        return decode(pageToken)
+                .filter(ObjectId::isValid)
+                .switchIfEmpty(Mono.error(KeysetPagination::invalidPageToken));
+    }
+
+    static ResponseStatusException invalidPageToken() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page token");
+    }
+}
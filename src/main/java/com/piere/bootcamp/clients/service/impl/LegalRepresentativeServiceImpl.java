@@ -1,15 +1,32 @@
 package com.piere.bootcamp.clients.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import com.piere.bootcamp.clients.aggregate.ClientAggregateStore;
 import com.piere.bootcamp.clients.dao.LegalRepresentativeDao;
+import com.piere.bootcamp.clients.dao.ProjectionDao;
 import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.OutboxEvent;
 import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+import com.piere.bootcamp.clients.model.dto.PageDto;
 import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.model.enums.AggregateTypeEnum;
+import com.piere.bootcamp.clients.model.enums.ChangeTypeEnum;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
+import com.piere.bootcamp.clients.model.mapper.LegalRepresentativeMapper;
+import com.piere.bootcamp.clients.outbox.Outbox;
+import com.piere.bootcamp.clients.scheduling.PipelineSchedulers;
 import com.piere.bootcamp.clients.service.LegalRepresentativeService;
 import com.piere.bootcamp.clients.service.PersonService;
 
@@ -18,24 +35,42 @@ import reactor.core.publisher.Mono;
 
 @Service
 public class LegalRepresentativeServiceImpl implements LegalRepresentativeService {
-    
+
     @Autowired
     private LegalRepresentativeDao legalRepresentativeDao;
 
+    @Autowired
+    private KeysetPagination keysetPagination;
+
+    @Autowired
+    private ProjectionDao projectionDao;
+
     @Autowired
     private PersonService personService;
 
+    @Autowired
+    private ClientAggregateStore clientAggregateStore;
+
+    @Autowired
+    private Outbox outbox;
+
+    @Autowired
+    private PipelineSchedulers pipelineSchedulers;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
     @Override
     public Mono<LegalRepresentativeDto> createLegalRepresentative(LegalRepresentativeDto legalRepresentative) {
-        return this.findByDocumentNumber(legalRepresentative.getPerson().getDocumentNumber())
+        return this.findByDocumentNumber(legalRepresentative.getPerson().getDocumentType(), legalRepresentative.getPerson().getDocumentNumber())
                 .flatMap(existingLegalRepresentative -> {
                     if (existingLegalRepresentative == null) {
                         Mono<PersonDto> person = personService.createPerson(legalRepresentative.getPerson());
-                        return person.flatMap(p -> legalRepresentativeDao.save(LegalRepresentative.builder()
-                                .personId(p.getId())
-                                .status(legalRepresentative.getStatus())
-                                .build()))
-                                .map(LegalRepresentativeDto.build()::toDto);
+                        return person.flatMap(p -> outbox.write(legalRepresentativeDao.save(LegalRepresentative.builder()
+                                        .personId(p.getId())
+                                        .status(legalRepresentative.getStatus())
+                                        .build())
+                                .map(LegalRepresentativeMapper::toDto), this::created));
                     } else {
                         return Mono.error(new IllegalArgumentException("Legal representative already exists"));
                     }
@@ -44,56 +79,146 @@ public class LegalRepresentativeServiceImpl implements LegalRepresentativeServic
 
     @Override
     public Mono<LegalRepresentativeDto> updateLegalRepresentative(LegalRepresentativeDto legalRepresentative) {
-        return personService.updatePerson(legalRepresentative.getPerson())
-                .flatMap(person -> legalRepresentativeDao
-                        .save(LegalRepresentativeDto.build().toEntity(legalRepresentative)))
-                .map(LegalRepresentativeDto.build()::toDto);
+        return this.currentVersion(legalRepresentative)
+                .flatMap(version -> personService.updatePerson(legalRepresentative.getPerson())
+                        .flatMap(person -> {
+                            LegalRepresentative entity = LegalRepresentativeMapper.toEntity(legalRepresentative);
+                            entity.setVersion(version);
+                            return outbox.write(legalRepresentativeDao.save(entity).map(LegalRepresentativeMapper::toDto),
+                                    updated -> outbox.event(AggregateTypeEnum.LEGAL_REPRESENTATIVE, ChangeTypeEnum.UPDATED,
+                                            updated.getId(), updated.getVersion(), updated));
+                        }))
+                .flatMap(saved -> clientAggregateStore.refreshReferencing(saved.getId()).thenReturn(saved));
     }
 
     @Override
     public Mono<Void> deleteLegalRepresentative(LegalRepresentativeDto legalRepresentative) {
-        return personService.deletePerson(legalRepresentative.getPerson())
-                .then(legalRepresentativeDao.delete(LegalRepresentativeDto.build().toEntity(legalRepresentative)));
-
+        return this.storedVersion(legalRepresentative)
+                .flatMap(stored -> {
+                    LegalRepresentative entity = LegalRepresentativeMapper.toEntity(legalRepresentative);
+                    entity.setVersion(stored.getVersion());
+                    return personService.deletePerson(legalRepresentative.getPerson())
+                            .then(outbox.write(legalRepresentativeDao.delete(entity).thenReturn(entity),
+                                    deleted -> outbox.deleted(AggregateTypeEnum.LEGAL_REPRESENTATIVE, deleted.getId(), deleted.getVersion())));
+                })
+                .then(clientAggregateStore.refreshReferencing(legalRepresentative.getId()));
     }
 
     @Override
     public Flux<LegalRepresentativeDto> findAllLegalRepresentatives() {
-        return legalRepresentativeDao.findAll()
-                .map(LegalRepresentativeDto.build()::toDto);
+        return pipelineSchedulers.map(legalRepresentativeDao.findAll(), LegalRepresentativeMapper::toDto);
+    }
+
+    @Override
+    public Flux<LegalRepresentativeDto> findAllLegalRepresentatives(List<String> fields) {
+        Set<String> selected = FieldProjection.select(fields, LegalRepresentativeMapper.PROPERTIES);
+        if (selected == null) {
+            return this.findAllLegalRepresentatives();
+        }
+        return pipelineSchedulers.map(projectionDao.findAll(LegalRepresentative.class, FieldProjection.properties(selected, LegalRepresentativeMapper.PROPERTIES)),
+                legalRepresentative -> LegalRepresentativeMapper.toDto(legalRepresentative, selected));
+    }
+
+    @Override
+    public Flux<LegalRepresentativeDto> findAllByIdList(Collection<String> ids) {
+        return pipelineSchedulers.map(legalRepresentativeDao.findAllById(ids), LegalRepresentativeMapper::toDto);
     }
 
     @Override
     public Mono<LegalRepresentativeDto> findByDocumentNumber(String documentNumber) {
-        return personService.findByDocumentNumber(documentNumber)
+        return this.findByDocumentNumber(null, documentNumber);
+    }
+
+    @Override
+    public Mono<LegalRepresentativeDto> findByDocumentNumber(DocumentTypeEnum documentType, String documentNumber) {
+        return personService.findByDocumentNumber(documentType, documentNumber)
                 .switchIfEmpty(Mono.empty())
                 .flatMap(person -> legalRepresentativeDao.findByPersonId(person.getId()))
-                .map(LegalRepresentativeDto.build()::toDto);
+                .map(LegalRepresentativeMapper::toDto);
     }
 
     @Override
     public Flux<LegalRepresentativeDto> createLegalRepresentatives(List<LegalRepresentativeDto> legalRepresentatives) {
-        return personService.createPersons(legalRepresentatives.stream()
-                .map(LegalRepresentativeDto::getPerson)
-                .collect(Collectors.toList()))
+        Map<String, LegalRepresentativeDto> byDocumentNumber = new HashMap<>(legalRepresentatives.size() * 4 / 3 + 1);
+        List<PersonDto> persons = new ArrayList<>(legalRepresentatives.size());
+        legalRepresentatives.forEach(legalRepresentative -> {
+            byDocumentNumber.put(legalRepresentative.getPerson().getDocumentNumber(), legalRepresentative);
+            persons.add(legalRepresentative.getPerson());
+        });
+
+        return batchWriter.write(personService.createPersons(persons)
+                .map(person -> {
+                    LegalRepresentativeDto legalRepresentative = byDocumentNumber.get(person.getDocumentNumber());
+                    legalRepresentative.setPerson(person);
+                    return LegalRepresentative.builder()
+                            .personId(person.getId())
+                            .status(legalRepresentative.getStatus())
+                            .build();
+                }), chunk -> outbox.writeAll(legalRepresentativeDao.insert(chunk).map(LegalRepresentativeMapper::toDto), this::created));
+    }
+
+    @Override
+    public Mono<PageDto<LegalRepresentativeDto>> findLegalRepresentativesPage(String pageToken, Integer size) {
+        int pageSize = keysetPagination.size(size);
+        Pageable pageable = keysetPagination.pageable(pageSize, Sort.by("id"));
+        Flux<LegalRepresentative> page = pageToken == null
+                ? legalRepresentativeDao.findAllBy(pageable)
+                : keysetPagination.decodeId(pageToken).flatMapMany(afterId -> legalRepresentativeDao.findByIdGreaterThan(afterId, pageable));
+        return page.map(LegalRepresentativeMapper::toDto)
                 .collectList()
-                .flatMapMany(persons -> {
-                    legalRepresentatives.forEach(legalRepresentative -> {
-                        persons.stream()
-                                .filter(person -> person.getDocumentNumber()
-                                        .equals(legalRepresentative.getPerson().getDocumentNumber()))
-                                .findFirst()
-                                .ifPresent(legalRepresentative::setPerson);
-                    });
-
-                    List<LegalRepresentative> legalRepresentativeEntities = legalRepresentatives.stream()
-                            .map(legalRepresentative -> LegalRepresentative.builder()
-                                    .personId(legalRepresentative.getPerson().getId())
-                                    .status(legalRepresentative.getStatus())
-                                    .build())
-                            .collect(Collectors.toList());
-                    return legalRepresentativeDao.saveAll(legalRepresentativeEntities)
-                            .map(LegalRepresentativeDto.build()::toDto);
+                .map(items -> keysetPagination.page(items, pageSize, last -> keysetPagination.encode(last.getId())));
+    }
+
+    /**
+     * The id is always read, since the next page token is the id of the last element.
+     */
+    @Override
+    public Mono<PageDto<LegalRepresentativeDto>> findLegalRepresentativesPage(String pageToken, Integer size, List<String> fields) {
+        Set<String> selected = FieldProjection.select(fields, LegalRepresentativeMapper.PROPERTIES);
+        if (selected == null) {
+            return this.findLegalRepresentativesPage(pageToken, size);
+        }
+        selected.add("id");
+        int pageSize = keysetPagination.size(size);
+        Pageable pageable = keysetPagination.pageable(pageSize, Sort.by("id"));
+        List<String> properties = FieldProjection.properties(selected, LegalRepresentativeMapper.PROPERTIES);
+        Flux<LegalRepresentative> page = pageToken == null
+                ? projectionDao.findPage(LegalRepresentative.class, properties, null, pageable)
+                : keysetPagination.decodeId(pageToken).flatMapMany(afterId -> projectionDao.findPage(LegalRepresentative.class, properties, afterId, pageable));
+        return page
+                .map(legalRepresentative -> LegalRepresentativeMapper.toDto(legalRepresentative, selected))
+                .collectList()
+                .map(items -> keysetPagination.page(items, pageSize, last -> keysetPagination.encode(last.getId())));
+    }
+
+    /**
+     * The version the update is checked against: the one the caller read, or the stored one
+     * when it sent none, in which case the update overwrites whatever is there.
+     */
+    private Mono<Long> currentVersion(LegalRepresentativeDto legalRepresentative) {
+        return this.storedVersion(legalRepresentative)
+                .flatMap(stored -> stored.getVersion() == null
+                        ? Mono.error(new IllegalStateException("Legal representative " + legalRepresentative.getId() + " is not versioned yet"))
+                        : Mono.just(stored.getVersion()));
+    }
+
+    /**
+     * The stored legal representative, read for its version only, once checked against the version
+     * the caller read. A delete needs it too: the repository deletes by id and version.
+     */
+    private Mono<LegalRepresentative> storedVersion(LegalRepresentativeDto legalRepresentative) {
+        return projectionDao.findVersion(LegalRepresentative.class, legalRepresentative.getId(), LegalRepresentative.ID_VERSION_INDEX)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Legal representative not found")))
+                .flatMap(stored -> {
+                    if (legalRepresentative.getVersion() != null && !legalRepresentative.getVersion().equals(stored.getVersion())) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Legal representative " + legalRepresentative.getId() + " is at version " + stored.getVersion() + ", not " + legalRepresentative.getVersion()));
+                    }
+                    return Mono.just(stored);
                 });
-    };
+    }
+
+    private OutboxEvent created(LegalRepresentativeDto legalRepresentative) {
+        return outbox.event(AggregateTypeEnum.LEGAL_REPRESENTATIVE, ChangeTypeEnum.CREATED, legalRepresentative.getId(), legalRepresentative.getVersion(), legalRepresentative);
+    }
 }
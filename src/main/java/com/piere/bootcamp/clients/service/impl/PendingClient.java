@@ -0,0 +1,103 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+
+import com.piere.bootcamp.clients.lookup.DocumentNumbers;
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.AuthorizedSignatoryDto;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.model.enums.ClientTypeEnum;
+import com.piere.bootcamp.clients.model.mapper.PersonMapper;
+
+/**
+ * Entities of one client, with ids assigned up front so that the client can reference its people
+ * before any of them is written. Representatives and signatories without a person are left out.
+ * Shared by the writers that insert whole clients, {@link TransactionalClientWriter} and
+ * {@link ClientBulkLoader}.
+ */
+final class PendingClient {
+
+    /**
+     * Lookup key of the client's own person.
+     */
+    final String key;
+
+    final String documentNumber;
+
+    final List<Person> persons = new ArrayList<>();
+
+    final List<LegalRepresentative> legalRepresentatives = new ArrayList<>();
+
+    final List<AuthorizedSignatory> authorizedSignatories = new ArrayList<>();
+
+    final Client client;
+
+    PendingClient(ClientDto dto) {
+        this.key = DocumentNumbers.key(dto.getPerson().getDocumentType(), dto.getPerson().getDocumentNumber());
+        this.documentNumber = dto.getPerson().getDocumentNumber();
+
+        Person person = newPerson(dto.getPerson());
+        persons.add(person);
+
+        if (dto.getClientType() == ClientTypeEnum.EMPRESARIAL) {
+            if (dto.getLegalRepresentatives() != null) {
+                for (LegalRepresentativeDto legalRep : dto.getLegalRepresentatives()) {
+                    if (legalRep.getPerson() == null) {
+                        continue;
+                    }
+                    Person legalRepPerson = newPerson(legalRep.getPerson());
+                    persons.add(legalRepPerson);
+                    legalRepresentatives.add(LegalRepresentative.builder()
+                            .id(new ObjectId().toHexString())
+                            .personId(legalRepPerson.getId())
+                            .status(legalRep.getStatus())
+                            .build());
+                }
+            }
+            if (dto.getAuthorizedSignatories() != null) {
+                for (AuthorizedSignatoryDto authSignatory : dto.getAuthorizedSignatories()) {
+                    if (authSignatory.getPerson() == null) {
+                        continue;
+                    }
+                    Person authSignatoryPerson = newPerson(authSignatory.getPerson());
+                    persons.add(authSignatoryPerson);
+                    authorizedSignatories.add(AuthorizedSignatory.builder()
+                            .id(new ObjectId().toHexString())
+                            .personId(authSignatoryPerson.getId())
+                            .status(authSignatory.getStatus())
+                            .build());
+                }
+            }
+        }
+
+        this.client = Client.builder()
+                .id(new ObjectId().toHexString())
+                .clientType(dto.getClientType())
+                .personId(person.getId())
+                .legalRepresentativeIds(legalRepresentatives.stream()
+                        .map(LegalRepresentative::getId)
+                        .collect(Collectors.toList()))
+                .authorizedSignatoryIds(authorizedSignatories.stream()
+                        .map(AuthorizedSignatory::getId)
+                        .collect(Collectors.toList()))
+                .createAt(LocalDate.now())
+                .status(dto.getStatus())
+                .build();
+    }
+
+    private static Person newPerson(PersonDto person) {
+        Person entity = PersonMapper.toEntity(person);
+        entity.setId(new ObjectId().toHexString());
+        return entity;
+    }
+}
@@ -1,13 +1,35 @@
 package com.piere.bootcamp.clients.service.impl;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.piere.bootcamp.clients.aggregate.ClientAggregateStore;
+import com.piere.bootcamp.clients.cache.PersonCache;
 import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.dao.ProjectionDao;
+import com.piere.bootcamp.clients.lookup.DocumentNumbers;
+import com.piere.bootcamp.clients.model.document.OutboxEvent;
+import com.piere.bootcamp.clients.model.document.Person;
 import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.model.dto.PageDto;
+import com.piere.bootcamp.clients.model.enums.AggregateTypeEnum;
+import com.piere.bootcamp.clients.model.enums.ChangeTypeEnum;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
+import com.piere.bootcamp.clients.model.mapper.PersonMapper;
+import com.piere.bootcamp.clients.outbox.Outbox;
+import com.piere.bootcamp.clients.scheduling.PipelineSchedulers;
 import com.piere.bootcamp.clients.service.PersonService;
 
 import reactor.core.publisher.Flux;
@@ -15,48 +37,262 @@ import reactor.core.publisher.Mono;
 
 @Service
 public class PersonServiceImpl implements PersonService {
+
+    private static final char DOCUMENT_NUMBER_TOKEN_SEPARATOR = ':';
     
     @Autowired
     private PersonDao personDao;
 
+    @Autowired
+    private PersonCache personCache;
+
+    @Autowired
+    private ClientAggregateStore clientAggregateStore;
+
+    @Autowired
+    private KeysetPagination keysetPagination;
+
+    @Autowired
+    private ProjectionDao projectionDao;
+
+    @Autowired
+    private Outbox outbox;
+
+    @Autowired
+    private PipelineSchedulers pipelineSchedulers;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Value("${clients.stream.cursor-batch-size:500}")
+    private int cursorBatchSize;
+
+    /**
+     * Text results are paged with a skip, whose cost grows with the depth of the page,
+     * so only the most relevant ones can be paged through.
+     */
+    @Value("${clients.search.max-results:1000}")
+    private int searchMaxResults;
+
     @Override
     public Mono<PersonDto> createPerson(PersonDto person) {
-        return personDao.save(PersonDto.build().toEntity(person))
-                .map(PersonDto.build()::toDto);
+        return outbox.write(personDao.save(newEntity(person)).map(PersonMapper::toDto), this::created);
     }
 
     @Override
     public Mono<PersonDto> updatePerson(PersonDto person) {
-        return personDao.findByDocumentNumber(person.getDocumentNumber())
+        return personCache.findByDocumentNumber(person.getDocumentType(), person.getDocumentNumber())
                 .switchIfEmpty(Mono.error(new IllegalArgumentException("Persona no encontrada")))
-                .flatMap(p -> personDao.save(PersonDto.build().toEntity(person)))
-                .map(PersonDto.build()::toDto);
+                .flatMap(p -> this.currentVersion(person, p.getId())
+                        .flatMap(version -> {
+                            Person entity = PersonMapper.toEntity(person);
+                            entity.setId(p.getId());
+                            entity.setVersion(version);
+                            return outbox.write(personDao.save(entity).map(PersonMapper::toDto),
+                                    updated -> outbox.event(AggregateTypeEnum.PERSON, ChangeTypeEnum.UPDATED,
+                                            updated.getId(), updated.getVersion(), updated));
+                        })
+                        .doOnSuccess(saved -> personCache.invalidateById(p.getId())))
+                .flatMap(saved -> clientAggregateStore.refreshReferencing(saved.getId()).thenReturn(saved));
     }
 
     @Override
     public Mono<Void> deletePerson(PersonDto person) {
-        return personDao.findByDocumentNumber(person.getDocumentNumber())
+        return personCache.findByDocumentNumber(person.getDocumentType(), person.getDocumentNumber())
                 .switchIfEmpty(Mono.error(new IllegalArgumentException("Persona no encontrada")))
-                .flatMap(p -> personDao.delete(p));
+                .flatMap(p -> this.storedVersion(person, p.getId())
+                        .flatMap(stored -> {
+                            Person entity = PersonMapper.toEntity(person);
+                            entity.setId(p.getId());
+                            entity.setVersion(stored.getVersion());
+                            return outbox.write(personDao.delete(entity).thenReturn(entity),
+                                    deleted -> outbox.deleted(AggregateTypeEnum.PERSON, deleted.getId(), deleted.getVersion()));
+                        })
+                        .doOnSuccess(deleted -> personCache.invalidateById(p.getId()))
+                        .then(clientAggregateStore.refreshReferencing(p.getId())));
     }
 
     @Override
     public Flux<PersonDto> findAllPersons() {
-        return personDao.findAll()
-                .map(PersonDto.build()::toDto);
+        return pipelineSchedulers.map(personDao.findAll(), PersonMapper::toDto);
+    }
+
+    @Override
+    public Flux<PersonDto> findAllPersons(List<String> fields) {
+        Set<String> selected = FieldProjection.select(fields, PersonMapper.PROPERTIES);
+        if (selected == null) {
+            return this.findAllPersons();
+        }
+        return pipelineSchedulers.map(projectionDao.findAll(Person.class, FieldProjection.properties(selected, PersonMapper.PROPERTIES)),
+                person -> PersonMapper.toDto(person, selected));
+    }
+
+    @Override
+    public Flux<PersonDto> streamAllPersons() {
+        return pipelineSchedulers.map(personDao.streamAll(cursorBatchSize), PersonMapper::toDto);
+    }
+
+    @Override
+    public Flux<PersonDto> findAllByIdList(Collection<String> ids) {
+        return pipelineSchedulers.map(personDao.findAllById(ids), PersonMapper::toDto);
     }
 
     @Override
     public Mono<PersonDto> findByDocumentNumber(String documentNumber) {
-        return personDao.findByDocumentNumber(documentNumber)
-                .map(PersonDto.build()::toDto);
+        return personCache.findByDocumentNumber(documentNumber)
+                .map(PersonMapper::toDto);
+    }
+
+    @Override
+    public Mono<PersonDto> findByDocumentNumber(DocumentTypeEnum documentType, String documentNumber) {
+        return personCache.findByDocumentNumber(documentType, documentNumber)
+                .map(PersonMapper::toDto);
     }
 
     @Override
     public Flux<PersonDto> createPersons(List<PersonDto> persons) {
-        return personDao.saveAll(persons.stream()
-                .map(PersonDto.build()::toEntity)
-                .collect(Collectors.toList()))
-                .map(PersonDto.build()::toDto);
-    }  
+        return batchWriter.write(Flux.fromIterable(persons), chunk -> outbox.writeAll(
+                pipelineSchedulers.mapAll(chunk, PersonServiceImpl::newEntity)
+                        .flatMapMany(personDao::insert)
+                        .map(PersonMapper::toDto), this::created));
+    }
+
+    @Override
+    public Mono<PageDto<PersonDto>> findPersonsPage(String pageToken, Integer size) {
+        int pageSize = keysetPagination.size(size);
+        Pageable pageable = keysetPagination.pageable(pageSize, Sort.by("id"));
+        Flux<Person> page = pageToken == null
+                ? personDao.findAllBy(pageable)
+                : keysetPagination.decodeId(pageToken).flatMapMany(afterId -> personDao.findByIdGreaterThan(afterId, pageable));
+        return page.map(PersonMapper::toDto)
+                .collectList()
+                .map(items -> keysetPagination.page(items, pageSize, last -> keysetPagination.encode(last.getId())));
+    }
+
+    /**
+     * The id is always read, since the next page token is the id of the last element.
+     */
+    @Override
+    public Mono<PageDto<PersonDto>> findPersonsPage(String pageToken, Integer size, List<String> fields) {
+        Set<String> selected = FieldProjection.select(fields, PersonMapper.PROPERTIES);
+        if (selected == null) {
+            return this.findPersonsPage(pageToken, size);
+        }
+        selected.add("id");
+        int pageSize = keysetPagination.size(size);
+        Pageable pageable = keysetPagination.pageable(pageSize, Sort.by("id"));
+        List<String> properties = FieldProjection.properties(selected, PersonMapper.PROPERTIES);
+        Flux<Person> page = pageToken == null
+                ? projectionDao.findPage(Person.class, properties, null, pageable)
+                : keysetPagination.decodeId(pageToken).flatMapMany(afterId -> projectionDao.findPage(Person.class, properties, afterId, pageable));
+        return page
+                .map(person -> PersonMapper.toDto(person, selected))
+                .collectList()
+                .map(items -> keysetPagination.page(items, pageSize, last -> keysetPagination.encode(last.getId())));
+    }
+
+    /**
+     * Text search is ranked by relevance and paged by offset; a search on the document number
+     * prefix alone is paged by keyset on the normalized document number and the id. The prefix
+     * is normalized like the document numbers, so {@code 0012} and {@code 12} find the same persons.
+     */
+    @Override
+    public Mono<PageDto<PersonDto>> searchPersons(String text, String documentNumberPrefix, String pageToken, Integer size) {
+        String terms = text == null || text.trim().isEmpty() ? null : text.trim();
+        String normalizedPrefix = DocumentNumbers.normalize(documentNumberPrefix);
+        String prefix = normalizedPrefix == null || normalizedPrefix.isEmpty() ? null : normalizedPrefix;
+        if (terms == null && prefix == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either q or documentNumber is required"));
+        }
+        int pageSize = keysetPagination.size(size);
+        if (terms == null) {
+            Flux<Person> page = pageToken == null
+                    ? personDao.findByDocumentNumberPrefix(prefix, null, null, pageSize + 1)
+                    : keysetPagination.decode(pageToken).flatMapMany(after -> this.findByDocumentNumberPrefix(prefix, after, pageSize + 1));
+            return page.map(PersonMapper::toDto)
+                    .collectList()
+                    .map(items -> keysetPagination.page(items, pageSize,
+                            last -> keysetPagination.encode(DocumentNumbers.normalize(last.getDocumentNumber())
+                                    + DOCUMENT_NUMBER_TOKEN_SEPARATOR + last.getId())));
+        }
+
+        Mono<Long> offset = pageToken == null ? Mono.just(0L) : keysetPagination.decode(pageToken).flatMap(PersonServiceImpl::offset);
+        return offset.flatMap(from -> this.search(terms, prefix, from, pageSize));
+    }
+
+    /**
+     * The page after the normalized document number and id a page token carries; a normalized
+     * document number holds no separator, so the first one ends it.
+     */
+    private Flux<Person> findByDocumentNumberPrefix(String prefix, String decodedToken, int limit) {
+        int separator = decodedToken.indexOf(DOCUMENT_NUMBER_TOKEN_SEPARATOR);
+        if (separator <= 0 || !ObjectId.isValid(decodedToken.substring(separator + 1))) {
+            return Flux.error(KeysetPagination.invalidPageToken());
+        }
+        return personDao.findByDocumentNumberPrefix(prefix, decodedToken.substring(0, separator),
+                decodedToken.substring(separator + 1), limit);
+    }
+
+    private Mono<PageDto<PersonDto>> search(String terms, String prefix, long offset, int pageSize) {
+        int limit = (int) Math.min(pageSize, searchMaxResults - offset);
+        if (limit <= 0) {
+            return Mono.just(keysetPagination.page(Collections.<PersonDto>emptyList(), pageSize, last -> null));
+        }
+        boolean lastAllowedPage = offset + limit >= searchMaxResults;
+        return personDao.search(terms, prefix, offset, lastAllowedPage ? limit : limit + 1)
+                .map(PersonMapper::toDto)
+                .collectList()
+                .map(items -> keysetPagination.page(items, limit,
+                        last -> keysetPagination.encode(String.valueOf(offset + limit))));
+    }
+
+    private static Mono<Long> offset(String decodedToken) {
+        try {
+            long offset = Long.parseLong(decodedToken);
+            return offset < 0 ? Mono.error(KeysetPagination.invalidPageToken()) : Mono.just(offset);
+        } catch (NumberFormatException e) {
+            return Mono.error(KeysetPagination.invalidPageToken());
+        }
+    }
+
+    /**
+     * The version the update is checked against: the one the caller read, or the stored one
+     * when it sent none, in which case the update overwrites whatever is there.
+     */
+    private Mono<Long> currentVersion(PersonDto person, String id) {
+        return this.storedVersion(person, id)
+                .flatMap(stored -> stored.getVersion() == null
+                        ? Mono.error(new IllegalStateException("Person " + id + " is not versioned yet"))
+                        : Mono.just(stored.getVersion()));
+    }
+
+    /**
+     * The stored person, read fresh for its version only since the cached one may be behind,
+     * once checked against the version the caller read. A delete needs it too: the repository
+     * deletes by id and version.
+     */
+    private Mono<Person> storedVersion(PersonDto person, String id) {
+        return projectionDao.findVersion(Person.class, id, Person.ID_VERSION_INDEX)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Persona no encontrada")))
+                .flatMap(stored -> {
+                    if (person.getVersion() != null && !person.getVersion().equals(stored.getVersion())) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Person " + id + " is at version " + stored.getVersion() + ", not " + person.getVersion()));
+                    }
+                    return Mono.just(stored);
+                });
+    }
+
+    private OutboxEvent created(PersonDto person) {
+        return outbox.event(AggregateTypeEnum.PERSON, ChangeTypeEnum.CREATED, person.getId(), person.getVersion(), person);
+    }
+
+    /**
+     * A version sent on create would make the save an update of a document that does not exist.
+     */
+    private static Person newEntity(PersonDto person) {
+        Person entity = PersonMapper.toEntity(person);
+        entity.setVersion(null);
+        return entity;
+    }
 }
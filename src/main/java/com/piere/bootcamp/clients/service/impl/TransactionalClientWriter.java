@@ -0,0 +1,110 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.mongodb.MongoException;
+import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.ClientWithPerson;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.mapper.ClientMapper;
+import com.piere.bootcamp.clients.outbox.Outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Creates a client and its people in a single Mongo transaction, so a failure leaves nothing behind,
+ * and their outbox events in the same one.
+ * Ids are assigned up front, which frees the writes from depending on each other's results: the
+ * whole client costs one {@code insertMany} per collection, the outbox included. A session cannot run two operations at
+ * once, so the four inserts are issued back to back instead of concurrently.
+ */
+@Component
+public class TransactionalClientWriter {
+
+    private static final String RETRY_METRIC = "clients.transaction.retries";
+
+    @Autowired
+    private PersonDao personDao;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private Outbox outbox;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${clients.create.transaction-retries:3}")
+    private int transactionRetries;
+
+    private Counter transientRetries;
+
+    @PostConstruct
+    void init() {
+        transientRetries = Counter.builder(RETRY_METRIC)
+                .description("Transaction and commit retries")
+                .tag("reason", MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)
+                .register(meterRegistry);
+    }
+
+    public Mono<ClientDto> createClient(ClientDto client) {
+        return transactionalOperator.transactional(Mono.defer(() -> write(new PendingClient(client))))
+                .retryWhen(Retry.backoff(transactionRetries, Duration.ofMillis(20))
+                        .filter(TransactionalClientWriter::isTransient)
+                        .doBeforeRetry(signal -> transientRetries.increment())
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private Mono<ClientDto> write(PendingClient pending) {
+        Mono<ClientWithPerson> existingClient = pending.key == null ? Mono.empty() : personDao.findClientByKey(pending.key)
+                .filter(existing -> existing.getClient() != null)
+                .next();
+        return existingClient
+                .flatMap(existing -> Mono.<Client>error(new IllegalArgumentException("Client already exists")))
+                .switchIfEmpty(Mono.defer(() -> insertAll(pending.persons, Person.class)
+                        .then(insertAll(pending.legalRepresentatives, LegalRepresentative.class))
+                        .then(insertAll(pending.authorizedSignatories, AuthorizedSignatory.class))
+                        .then(mongoTemplate.insert(pending.client))
+                        .flatMap(client -> outbox.appendAll(Flux.fromIterable(CreationEvents.of(outbox, pending.persons,
+                                pending.legalRepresentatives, pending.authorizedSignatories, client))).thenReturn(client))))
+                .map(ClientMapper::toDto);
+    }
+
+    private <T> Mono<Void> insertAll(Collection<T> entities, Class<T> type) {
+        if (entities.isEmpty()) {
+            return Mono.empty();
+        }
+        return mongoTemplate.insert(entities, type).then();
+    }
+
+    private static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException
+                    && ((MongoException) cause).hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
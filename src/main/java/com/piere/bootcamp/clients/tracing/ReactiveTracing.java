@@ -0,0 +1,46 @@
+package com.piere.bootcamp.clients.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.TraceContext;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Wraps a {@link Mono} in a child span of the trace carried in the Reactor context. The new span
+ * is written back into the context, so the Mongo commands issued inside it become its children.
+ * Without a tracer (tracing disabled) the {@code Mono} is returned untouched.
+ */
+@Component
+public class ReactiveTracing {
+
+    @Autowired(required = false)
+    private Tracer tracer;
+
+    public <T> Mono<T> inSpan(String name, Mono<T> mono) {
+        if (tracer == null) {
+            return mono;
+        }
+        return Mono.deferContextual(context -> {
+            Span span = startSpan(name, context);
+            return mono
+                    .doOnError(span::error)
+                    .doOnCancel(() -> span.event("cancelled"))
+                    .doFinally(signal -> span.end())
+                    .contextWrite(downstream -> downstream.put(TraceContext.class, span.context()));
+        });
+    }
+
+    private Span startSpan(String name, ContextView context) {
+        // The parent goes first: the Brave builder creates its span on the first other call.
+        Span.Builder builder = tracer.spanBuilder();
+        TraceContext parent = context.getOrDefault(TraceContext.class, null);
+        if (parent != null) {
+            builder.setParent(parent);
+        }
+        return builder.name(name).start();
+    }
+}
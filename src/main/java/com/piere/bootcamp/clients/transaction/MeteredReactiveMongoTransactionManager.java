@@ -0,0 +1,67 @@
+package com.piere.bootcamp.clients.transaction;
+
+import java.time.Duration;
+
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+
+import com.mongodb.MongoException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Times every commit and retries the commits whose outcome the driver reports as unknown,
+ * which the MongoDB drivers document as safe to retry.
+ */
+public class MeteredReactiveMongoTransactionManager extends ReactiveMongoTransactionManager {
+
+    static final String COMMIT_METRIC = "clients.transaction.commit";
+
+    static final String RETRY_METRIC = "clients.transaction.retries";
+
+    private static final int MAX_COMMIT_RETRIES = 3;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter commitRetries;
+
+    public MeteredReactiveMongoTransactionManager(ReactiveMongoDatabaseFactory databaseFactory, MeterRegistry meterRegistry) {
+        super(databaseFactory);
+        this.meterRegistry = meterRegistry;
+        this.commitRetries = Counter.builder(RETRY_METRIC)
+                .description("Transaction and commit retries")
+                .tag("reason", MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+            ReactiveMongoTransactionObject transactionObject) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return super.doCommit(synchronizationManager, transactionObject)
+                    .retryWhen(Retry.backoff(MAX_COMMIT_RETRIES, Duration.ofMillis(10))
+                            .filter(error -> hasLabel(error, MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL))
+                            .doBeforeRetry(signal -> commitRetries.increment()))
+                    .doFinally(signal -> sample.stop(Timer.builder(COMMIT_METRIC)
+                            .description("Time to commit a transaction, including commit retries")
+                            .tag("outcome", signal.name().toLowerCase())
+                            .publishPercentileHistogram()
+                            .register(meterRegistry)));
+        });
+    }
+
+    static boolean hasLabel(Throwable error, String label) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException && ((MongoException) cause).hasErrorLabel(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
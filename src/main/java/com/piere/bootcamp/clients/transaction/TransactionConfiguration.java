@@ -0,0 +1,28 @@
+package com.piere.bootcamp.clients.transaction;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Mongo transactions need a replica set, so nothing runs in one unless
+ * {@code clients.create.transactional} is enabled.
+ */
+@Configuration
+public class TransactionConfiguration {
+
+    @Bean
+    public ReactiveTransactionManager reactiveTransactionManager(ReactiveMongoDatabaseFactory databaseFactory,
+            MeterRegistry meterRegistry) {
+        return new MeteredReactiveMongoTransactionManager(databaseFactory, meterRegistry);
+    }
+
+    @Bean
+    public TransactionalOperator transactionalOperator(ReactiveTransactionManager reactiveTransactionManager) {
+        return TransactionalOperator.create(reactiveTransactionManager);
+    }
+}
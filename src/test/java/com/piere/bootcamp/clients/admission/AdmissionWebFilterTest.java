@@ -0,0 +1,82 @@
+package com.piere.bootcamp.clients.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.net.InetSocketAddress;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+@SpringJUnitConfig({ AdmissionWebFilter.class, CallerRateLimiter.class, SimpleMeterRegistry.class,
+		AdmissionWebFilterTest.Properties.class })
+@TestPropertySource(properties = {
+		"clients.admission.rate-limit.requests-per-second=1",
+		"clients.admission.rate-limit.burst=2",
+		"clients.admission.max-in-flight-mongo-operations=10",
+		"clients.admission.trusted-proxies=10.0.0.1" })
+class AdmissionWebFilterTest {
+
+	private static final WebFilterChain ADMITTED = exchange -> {
+		exchange.getResponse().setStatusCode(HttpStatus.OK);
+		return Mono.empty();
+	};
+
+	@Autowired
+	private AdmissionWebFilter filter;
+
+	@MockBean
+	private InFlightCommandListener inFlightCommandListener;
+
+	@Test
+	void callerHeaderFromAnUntrustedAddressDoesNotGetAFreshBucket() {
+		assertThat(send("192.168.1.10", UUID.randomUUID().toString())).isEqualTo(HttpStatus.OK);
+		assertThat(send("192.168.1.10", UUID.randomUUID().toString())).isEqualTo(HttpStatus.OK);
+		assertThat(send("192.168.1.10", UUID.randomUUID().toString())).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+	}
+
+	@Test
+	void callerHeaderFromATrustedProxyIdentifiesTheCaller() {
+		assertThat(send("10.0.0.1", "billing")).isEqualTo(HttpStatus.OK);
+		assertThat(send("10.0.0.1", "billing")).isEqualTo(HttpStatus.OK);
+		assertThat(send("10.0.0.1", "billing")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+		assertThat(send("10.0.0.1", "accounts")).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void callersOverTheirLimitAreRateLimitedBeforeShedding() {
+		send("192.168.1.20", null);
+		send("192.168.1.20", null);
+		when(inFlightCommandListener.inFlight()).thenReturn(10);
+
+		assertThat(send("192.168.1.20", null)).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+		assertThat(send("192.168.1.21", null)).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	private HttpStatus send(String remoteAddress, String caller) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/clients")
+			.remoteAddress(new InetSocketAddress(remoteAddress, 40000));
+		if (caller != null) {
+			request.header("X-Caller-Id", caller);
+		}
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		filter.filter(exchange, ADMITTED).block();
+		return exchange.getResponse().getStatusCode();
+	}
+
+	@EnableConfigurationProperties(AdmissionProperties.class)
+	static class Properties {
+	}
+}
@@ -0,0 +1,168 @@
+package com.piere.bootcamp.clients.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.lookup.DocumentNumbers;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
+import com.piere.bootcamp.clients.support.Fixtures;
+import com.piere.bootcamp.clients.support.ServiceTest;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+@ServiceTest
+class PersonCacheTest {
+
+	@Autowired
+	private PersonCache personCache;
+
+	@Autowired
+	private PersonDao personDao;
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private Disposable changeStream;
+
+	@AfterEach
+	void stopWatching() {
+		if (changeStream != null) {
+			changeStream.dispose();
+		}
+		reset(personDao);
+	}
+
+	@Test
+	void loadsAPersonOnceUntilItIsInvalidated() {
+		Person person = stored(1);
+
+		StepVerifier.create(personCache.findByDocumentNumber(DocumentTypeEnum.DNI, person.getDocumentNumber()))
+			.expectNext(person)
+			.verifyComplete();
+		StepVerifier.create(personCache.findByDocumentNumber(DocumentTypeEnum.DNI, person.getDocumentNumber()))
+			.expectNext(person)
+			.verifyComplete();
+		assertThat(loads).hasValue(1);
+
+		personCache.invalidateById(person.getId());
+
+		StepVerifier.create(personCache.findByDocumentNumber(DocumentTypeEnum.DNI, person.getDocumentNumber()))
+			.expectNext(person)
+			.verifyComplete();
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void doesNotCacheALoadThatWasInFlightWhenThePersonChanged() {
+		Person before = Fixtures.person(4);
+		Person after = Fixtures.person(4);
+		after.setId(before.getId());
+		after.setEmail("changed@mail.com");
+		Sinks.One<Person> inFlight = Sinks.one();
+		when(personDao.findByKey(DocumentNumbers.key(DocumentTypeEnum.DNI, before.getDocumentNumber())))
+			.thenAnswer(invocation -> loads.incrementAndGet() == 1 ? inFlight.asMono().flux() : Flux.just(after));
+
+		CompletableFuture<Person> first = personCache.findByDocumentNumber(DocumentTypeEnum.DNI, before.getDocumentNumber())
+			.toFuture();
+		personCache.invalidateById(before.getId());
+		inFlight.tryEmitValue(before);
+
+		assertThat(first.join().getEmail()).isEqualTo(before.getEmail());
+		StepVerifier.create(personCache.findByDocumentNumber(DocumentTypeEnum.DNI, before.getDocumentNumber()))
+			.assertNext(person -> assertThat(person.getEmail()).isEqualTo(after.getEmail()))
+			.verifyComplete();
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void changeEventsInvalidateTheChangedPerson() {
+		Person person = stored(2);
+		personCache.findByDocumentNumber(DocumentTypeEnum.DNI, person.getDocumentNumber()).block();
+
+		changeStream = personCache.watch(Flux.just(changeOf(person)));
+
+		personCache.findByDocumentNumber(DocumentTypeEnum.DNI, person.getDocumentNumber()).block();
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void stopsWatchingWhenTheServerHasNoChangeStreams() {
+		AtomicInteger subscriptions = new AtomicInteger();
+		Flux<ChangeStreamEvent<Document>> standalone = Flux.defer(() -> {
+			subscriptions.incrementAndGet();
+			return Flux.error(new MongoCommandException(new BsonDocument("ok", new BsonInt32(0))
+				.append("code", new BsonInt32(40573))
+				.append("errmsg", new BsonString("The $changeStream stage is only supported on replica sets")),
+					new ServerAddress()));
+		});
+
+		changeStream = personCache.watch(standalone);
+
+		assertThat(changeStream.isDisposed()).isTrue();
+		assertThat(subscriptions).hasValue(1);
+	}
+
+	@Test
+	void resumesAfterAnInterruptionWithAnEmptyCache() throws InterruptedException {
+		Person person = stored(3);
+		personCache.findByDocumentNumber(DocumentTypeEnum.DNI, person.getDocumentNumber()).block();
+		AtomicInteger subscriptions = new AtomicInteger();
+		Flux<ChangeStreamEvent<Document>> interrupted = Flux.defer(() -> subscriptions.incrementAndGet() == 1
+				? Flux.error(new MongoSocketReadException("Prematurely reached end of stream", new ServerAddress()))
+				: Flux.never());
+
+		changeStream = personCache.watch(interrupted);
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (subscriptions.get() < 2 && System.nanoTime() < deadline) {
+			Thread.sleep(50);
+		}
+
+		assertThat(subscriptions).hasValue(2);
+		personCache.findByDocumentNumber(DocumentTypeEnum.DNI, person.getDocumentNumber()).block();
+		assertThat(loads).hasValue(2);
+	}
+
+	private Person stored(int n) {
+		Person person = Fixtures.person(n);
+		when(personDao.findByKey(DocumentNumbers.key(DocumentTypeEnum.DNI, person.getDocumentNumber())))
+			.thenAnswer(invocation -> {
+				loads.incrementAndGet();
+				return Flux.just(person);
+			});
+		return person;
+	}
+
+	private static ChangeStreamEvent<Document> changeOf(Person person) {
+		BsonDocument documentKey = new BsonDocument("_id", new BsonObjectId(new ObjectId(person.getId())));
+		ChangeStreamDocument<Document> raw = new ChangeStreamDocument<>(OperationType.UPDATE, new BsonDocument(),
+				null, null, null, documentKey, null, null, null, null);
+		return new ChangeStreamEvent<>(raw, Document.class, mock(MongoConverter.class));
+	}
+}
@@ -0,0 +1,136 @@
+package com.piere.bootcamp.clients.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.routing.ReadRouting;
+import com.piere.bootcamp.clients.routing.ReadRoutingProperties;
+import com.piere.bootcamp.clients.support.Fixtures;
+import com.piere.bootcamp.clients.support.ServiceTest;
+
+import io.swagger.annotations.ApiParam;
+import reactor.core.publisher.Flux;
+
+/**
+ * Requests every list endpoint with the {@code fields} example its documentation gives.
+ */
+@ServiceTest
+@Import({ PersonController.class, ClientController.class, LegalRepresentativeController.class,
+		AuthorizedSignatoryController.class, ReadRouting.class, ReadRoutingProperties.class,
+		FieldsExampleTest.WebConfiguration.class })
+class FieldsExampleTest {
+
+	private static final Pattern EXAMPLE = Pattern.compile("e\\.g\\. ([\\w,]+)");
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Autowired
+	private ReactiveMongoTemplate mongoTemplate;
+
+	private WebTestClient webTestClient;
+
+	@BeforeEach
+	void bindControllers() {
+		webTestClient = WebTestClient.bindToApplicationContext(applicationContext).build();
+		when(mongoTemplate.find(any(Query.class), eq(Person.class))).thenReturn(Flux.just(Fixtures.person(1)));
+		when(mongoTemplate.find(any(Query.class), eq(Client.class))).thenReturn(Flux.just(Fixtures.client(1)));
+		when(mongoTemplate.find(any(Query.class), eq(LegalRepresentative.class)))
+			.thenReturn(Flux.just(new LegalRepresentative(new ObjectId().toHexString(), new ObjectId().toHexString(), true, 0L)));
+		when(mongoTemplate.find(any(Query.class), eq(AuthorizedSignatory.class)))
+			.thenReturn(Flux.just(new AuthorizedSignatory(new ObjectId().toHexString(), new ObjectId().toHexString(), true, 0L)));
+	}
+
+	@AfterEach
+	void resetTemplate() {
+		reset(mongoTemplate);
+	}
+
+	@Test
+	void personsAnswerTheDocumentedExample() {
+		assertAnswersTheDocumentedExample(PersonController.class, "findAllPersons", "/api/persons");
+	}
+
+	@Test
+	void clientsAnswerTheDocumentedExample() {
+		assertAnswersTheDocumentedExample(ClientController.class, "findAllClients", "/api/clients");
+	}
+
+	@Test
+	void legalRepresentativesAnswerTheDocumentedExample() {
+		assertAnswersTheDocumentedExample(LegalRepresentativeController.class, "findAllLegalRepresentatives",
+				"/api/legalrepresentatives");
+	}
+
+	@Test
+	void authorizedSignatoriesAnswerTheDocumentedExample() {
+		assertAnswersTheDocumentedExample(AuthorizedSignatoryController.class, "findAllAuthorizedSignatories",
+				"/api/authorizedsignatories");
+	}
+
+	@SuppressWarnings("rawtypes")
+	private void assertAnswersTheDocumentedExample(Class<?> controller, String method, String path) {
+		String example = documentedExample(controller, method);
+		List<String> fields = Arrays.asList(example.split(","));
+
+		webTestClient.get()
+			.uri(uri -> uri.path(path).queryParam("fields", example).build())
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus().isOk()
+			.expectBodyList(Map.class)
+			.value(items -> assertThat(items).singleElement()
+				.satisfies(item -> assertThat(item.keySet()).containsExactlyInAnyOrderElementsOf(fields)));
+	}
+
+	private static String documentedExample(Class<?> controller, String name) {
+		Method method = Arrays.stream(controller.getDeclaredMethods())
+			.filter(candidate -> candidate.getName().equals(name))
+			.findFirst()
+			.orElseThrow();
+		Parameter fields = Arrays.stream(method.getParameters())
+			.filter(parameter -> parameter.isAnnotationPresent(RequestParam.class)
+					&& "fields".equals(parameter.getAnnotation(RequestParam.class).value()))
+			.findFirst()
+			.orElseThrow();
+		Matcher example = EXAMPLE.matcher(fields.getAnnotation(ApiParam.class).value());
+		assertThat(example.find()).as("example in the documentation of %s.%s", controller.getSimpleName(), name).isTrue();
+		return example.group(1);
+	}
+
+	/**
+	 * The handler mapping and codecs the application gets from its auto-configuration.
+	 */
+	@EnableWebFlux
+	static class WebConfiguration {
+	}
+}
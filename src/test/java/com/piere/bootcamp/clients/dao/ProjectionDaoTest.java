@@ -0,0 +1,63 @@
+package com.piere.bootcamp.clients.dao;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.mongodb.MongoQueryException;
+import com.mongodb.ServerAddress;
+import com.piere.bootcamp.clients.model.document.Client;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@SpringJUnitConfig(ProjectionDao.class)
+class ProjectionDaoTest {
+
+	private static final String ID = "652f1c0e8b3e4a1f2c3d4e5f";
+
+	@Autowired
+	private ProjectionDao projectionDao;
+
+	@MockBean
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@Test
+	void readsTheVersionWithoutTheHintUntilTheIndexExists() {
+		Client client = Client.builder().id(ID).version(3L).build();
+		when(mongoTemplate.findOne(argThat(query -> query != null && query.getHint() != null), eq(Client.class)))
+			.thenReturn(Mono.error(badHint()));
+		when(mongoTemplate.findOne(argThat(query -> query != null && query.getHint() == null
+				&& query.getFieldsObject().containsKey("version")), eq(Client.class)))
+			.thenReturn(Mono.just(client));
+
+		StepVerifier.create(projectionDao.findVersion(Client.class, ID, Client.ID_VERSION_INDEX))
+			.expectNext(client)
+			.verifyComplete();
+	}
+
+	@Test
+	void otherErrorsAreNotRetriedWithoutTheHint() {
+		UncategorizedMongoDbException timeout = new UncategorizedMongoDbException("Operation timed out", null);
+		when(mongoTemplate.findOne(argThat(query -> query != null && query.getHint() != null), eq(Client.class)))
+			.thenReturn(Mono.error(timeout));
+
+		StepVerifier.create(projectionDao.findVersion(Client.class, ID, Client.ID_VERSION_INDEX))
+			.expectErrorMatches(timeout::equals)
+			.verify();
+	}
+
+	private static UncategorizedMongoDbException badHint() {
+		MongoQueryException cause = new MongoQueryException(new ServerAddress(), 2,
+				"error processing query: planner returned error :: caused by :: "
+						+ "hint provided does not correspond to an existing index");
+		return new UncategorizedMongoDbException(cause.getMessage(), cause);
+	}
+}
@@ -0,0 +1,58 @@
+package com.piere.bootcamp.clients.dao.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.piere.bootcamp.clients.model.document.Person;
+
+import reactor.core.publisher.Flux;
+
+@SpringJUnitConfig(PersonDaoCustomImpl.class)
+class PersonDaoCustomImplTest {
+
+	private static final String ID = "652f1c0e8b3e4a1f2c3d4e5f";
+
+	@Autowired
+	private PersonDaoCustomImpl personDao;
+
+	@MockBean
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@Test
+	void boundsAPrefixByItsLastCodePointIncremented() {
+		String supplementary = new String(Character.toChars(0x10000));
+
+		assertThat(PersonDaoCustomImpl.upperBound("12")).isEqualTo("13");
+		// U+10000 sorts above U+FFFF in UTF-8, so U+FFFF appended to the prefix is no bound
+		assertThat(PersonDaoCustomImpl.upperBound("A\uFFFF")).isEqualTo("A" + supplementary);
+		assertThat(PersonDaoCustomImpl.upperBound("A\uD7FF")).isEqualTo("A\uE000");
+		assertThat(PersonDaoCustomImpl.upperBound(new String(Character.toChars(Character.MAX_CODE_POINT)))).isNull();
+	}
+
+	@Test
+	void readsThePersonsAfterTheLastOneOfAPageOnTheNormalizedDocumentNumber() {
+		when(mongoTemplate.find(any(Query.class), eq(Person.class))).thenReturn(Flux.empty());
+
+		personDao.findByDocumentNumberPrefix("12", "1234", ID, 10).blockLast();
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).find(query.capture(), eq(Person.class));
+		assertThat(query.getValue().getQueryObject())
+			.containsEntry("normalizedDocumentNumber", new Document("$gte", "12").append("$lt", "13"))
+			.containsKey("$or");
+		assertThat(query.getValue().getSortObject())
+			.isEqualTo(new Document("normalizedDocumentNumber", 1).append("id", 1));
+	}
+}
@@ -0,0 +1,76 @@
+package com.piere.bootcamp.clients.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.piere.bootcamp.clients.model.document.ClientAggregate;
+import com.piere.bootcamp.clients.model.document.Person;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@SpringJUnitConfig({ IndexManager.class, IndexManagerTest.MappingConfiguration.class })
+class IndexManagerTest {
+
+	@Autowired
+	private IndexManager indexManager;
+
+	@MockBean
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@BeforeEach
+	void emptyCollections() {
+		ReactiveIndexOperations indexOperations = mock(ReactiveIndexOperations.class);
+		when(indexOperations.ensureIndex(any())).thenReturn(Mono.just("index"));
+		when(indexOperations.getIndexInfo()).thenReturn(Flux.empty());
+		when(mongoTemplate.indexOps(any(Class.class))).thenReturn(indexOperations);
+		when(mongoTemplate.getCollectionName(any())).thenAnswer(invocation -> ((Class<?>) invocation.getArgument(0)).getSimpleName());
+	}
+
+	@Test
+	void clientAggregatesOnlyGetTheirOwnIndexes() {
+		IndexReport report = indexManager.ensureIndexes(ClientAggregate.class).block();
+
+		assertThat(report.getDeclared()).containsExactlyInAnyOrder(
+				"person._id:1",
+				"legal_representatives._id:1",
+				"legal_representatives.person._id:1",
+				"authorized_signatories._id:1",
+				"authorized_signatories.person._id:1",
+				"_id:1");
+	}
+
+	@Test
+	void personsKeepTheIndexesLeftOutOfTheAggregates() {
+		IndexReport report = indexManager.ensureIndexes(Person.class).block();
+
+		assertThat(report.getDeclared())
+			.contains("_id:1,version:1", "document_number:1:unique")
+			.anyMatch(index -> index.startsWith("text("));
+	}
+
+	static class MappingConfiguration {
+
+		@Bean
+		MongoMappingContext mongoMappingContext() {
+			MongoMappingContext mappingContext = new MongoMappingContext();
+			mappingContext.setSimpleTypeHolder(new MongoCustomConversions(Collections.emptyList()).getSimpleTypeHolder());
+			return mappingContext;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.piere.bootcamp.clients.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.piere.bootcamp.clients.model.document.OutboxEvent;
+import com.piere.bootcamp.clients.model.enums.AggregateTypeEnum;
+import com.piere.bootcamp.clients.model.enums.ChangeTypeEnum;
+import com.piere.bootcamp.clients.support.ServiceTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ServiceTest
+@TestPropertySource(properties = {
+	"clients.outbox.enabled=true",
+	"clients.outbox.transactional=false",
+	"clients.outbox.after-write.backoff=1ms"
+})
+class OutboxTest {
+
+	@Autowired
+	private Outbox outbox;
+
+	@Autowired
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@AfterEach
+	void resetTemplate() {
+		reset(mongoTemplate);
+	}
+
+	@Test
+	void keepsAWrittenChangeWhenItsEventCannotBeInserted() {
+		when(mongoTemplate.insert(anyList(), eq(OutboxEvent.class))).thenReturn(Flux.error(connectionLost()));
+		when(mongoTemplate.insert(any(OutboxEvent.class))).thenReturn(Mono.error(connectionLost()));
+		double lostBefore = lost();
+
+		StepVerifier.create(outbox.write(Mono.just("client-1"), this::created))
+			.expectNext("client-1")
+			.verifyComplete();
+		StepVerifier.create(outbox.writeAll(Flux.just("client-2", "client-3"), this::created))
+			.expectNext("client-2", "client-3")
+			.verifyComplete();
+		assertThat(lost() - lostBefore).isEqualTo(3);
+	}
+
+	@Test
+	void insertsTheEventsOfAWrittenChange() {
+		when(mongoTemplate.insert(anyList(), eq(OutboxEvent.class)))
+			.thenAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+		double lostBefore = lost();
+
+		StepVerifier.create(outbox.write(Mono.just("client-1"), this::created))
+			.expectNext("client-1")
+			.verifyComplete();
+		assertThat(lost()).isEqualTo(lostBefore);
+	}
+
+	@Test
+	void retriesTheEventsOfAFailedBatchOneByOne() {
+		OutboxEvent insertedByTheBatch = created("client-1");
+		OutboxEvent failingOnce = created("client-2");
+		when(mongoTemplate.insert(anyList(), eq(OutboxEvent.class))).thenReturn(Flux.error(connectionLost()));
+		when(mongoTemplate.insert(insertedByTheBatch))
+			.thenReturn(Mono.error(new DuplicateKeyException("outbox _id " + insertedByTheBatch.getId())));
+		when(mongoTemplate.insert(failingOnce)).thenReturn(Mono.error(connectionLost()), Mono.just(failingOnce));
+		double lostBefore = lost();
+
+		StepVerifier.create(outbox.appendAllAfterWrite(Flux.just(insertedByTheBatch, failingOnce)))
+			.verifyComplete();
+		assertThat(lost()).isEqualTo(lostBefore);
+		verify(mongoTemplate, times(2)).insert(failingOnce);
+		verify(mongoTemplate, times(1)).insert(insertedByTheBatch);
+	}
+
+	@Test
+	void stillFailsAWriterThatAppendsWithinItsOwnTransaction() {
+		when(mongoTemplate.insert(any(OutboxEvent.class))).thenReturn(Mono.error(connectionLost()));
+
+		StepVerifier.create(outbox.append(created("client-1")))
+			.verifyError(MongoSocketReadException.class);
+	}
+
+	@Test
+	void ordersADeleteAfterTheLastVersionOfTheDocument() {
+		assertThat(outbox.deleted(AggregateTypeEnum.LEGAL_REPRESENTATIVE, "representative-1", 4L).getVersion())
+			.isEqualTo(5L);
+	}
+
+	private OutboxEvent created(String id) {
+		return outbox.event(AggregateTypeEnum.CLIENT, ChangeTypeEnum.CREATED, id, 0L, null);
+	}
+
+	private double lost() {
+		return meterRegistry.counter("clients.outbox.lost").count();
+	}
+
+	private static MongoSocketReadException connectionLost() {
+		return new MongoSocketReadException("connection lost", new ServerAddress());
+	}
+}
@@ -0,0 +1,105 @@
+package com.piere.bootcamp.clients.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piere.bootcamp.clients.dao.ClientDao;
+import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.service.ClientService;
+import com.piere.bootcamp.clients.service.PersonService;
+import com.piere.bootcamp.clients.support.Fixtures;
+import com.piere.bootcamp.clients.support.ServiceTest;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+/**
+ * Streams whole collections through {@link PipelineSchedulers}, as the find-all endpoints do. The
+ * documents arrive on a thread of their own, standing in for the Mongo driver, and are mapped and
+ * encoded on the mapping scheduler, whose threads BlockHound checks under {@code -Pblockhound}.
+ */
+@ServiceTest
+class StreamMappingTest {
+
+	private static final int DOCUMENTS = 2_000;
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private PersonDao personDao;
+
+	@Autowired
+	private ClientDao clientDao;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final Set<String> mappingThreads = ConcurrentHashMap.newKeySet();
+
+	@AfterEach
+	void resetDaos() {
+		reset(personDao, clientDao);
+	}
+
+	@Test
+	void findAllPersonsMapsOnTheMappingScheduler() {
+		List<Person> persons = IntStream.range(0, DOCUMENTS).mapToObj(Fixtures::person).collect(Collectors.toList());
+		when(personDao.findAll()).thenReturn(fromDriver(persons));
+
+		StepVerifier.create(personService.findAllPersons()
+				.doOnNext(person -> mappingThreads.add(Thread.currentThread().getName()))
+				.map(PersonDto::getId))
+			.expectNextSequence(persons.stream().map(Person::getId).collect(Collectors.toList()))
+			.verifyComplete();
+
+		assertThat(mappingThreads).isNotEmpty().allMatch(thread -> thread.startsWith("mapping-"));
+	}
+
+	@Test
+	void findAllClientsIsMappedAndEncodedOnTheMappingScheduler() {
+		List<Client> clients = IntStream.range(0, DOCUMENTS).mapToObj(n -> Fixtures.client(2)).collect(Collectors.toList());
+		when(clientDao.findAll()).thenReturn(fromDriver(clients));
+		Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper);
+
+		StepVerifier.create(encoder.encode(clientService.findAllClients(), DefaultDataBufferFactory.sharedInstance,
+				ResolvableType.forClass(ClientDto.class), MediaType.APPLICATION_NDJSON, null)
+				.doOnNext(buffer -> {
+					mappingThreads.add(Thread.currentThread().getName());
+					DataBufferUtils.release(buffer);
+				}))
+			.expectNextCount(DOCUMENTS)
+			.verifyComplete();
+
+		assertThat(mappingThreads).isNotEmpty().allMatch(thread -> thread.startsWith("mapping-"));
+	}
+
+	private static <T> Flux<T> fromDriver(List<T> documents) {
+		return Flux.fromIterable(documents).subscribeOn(Schedulers.boundedElastic());
+	}
+}
@@ -0,0 +1,111 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import com.piere.bootcamp.clients.dao.BulkInsertDao;
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.BulkClientResultDto;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.enums.BulkItemStatusEnum;
+import com.piere.bootcamp.clients.support.Fixtures;
+import com.piere.bootcamp.clients.support.ServiceTest;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ServiceTest
+class ClientBulkLoaderTest {
+
+	@Autowired
+	private ClientBulkLoader clientBulkLoader;
+
+	@MockBean
+	private BulkInsertDao bulkInsertDao;
+
+	@BeforeEach
+	void writeEverything() {
+		when(bulkInsertDao.insertUnordered(anyList(), any())).thenReturn(Mono.just(Collections.emptySet()));
+		when(bulkInsertDao.deleteAll(anyCollection(), any())).thenReturn(Mono.empty());
+	}
+
+	@Test
+	void deletesThePeopleOfAClientWhoseRepresentativesFailed() {
+		when(bulkInsertDao.insertUnordered(anyList(), eq(LegalRepresentative.class)))
+			.thenReturn(Mono.just(Collections.singleton(0)));
+
+		List<BulkClientResultDto> results = clientBulkLoader.createClients(Flux.just(client(1), client(2)))
+			.collectList()
+			.block();
+
+		assertThat(results).extracting(BulkClientResultDto::getStatus)
+			.containsExactly(BulkItemStatusEnum.FAILED, BulkItemStatusEnum.CREATED);
+		List<String> firstClientPersons = written(Person.class).stream()
+			.limit(3)
+			.map(Person::getId)
+			.collect(Collectors.toList());
+		String firstClientSignatory = written(AuthorizedSignatory.class).get(0).getId();
+		verify(bulkInsertDao).deleteAll(firstClientPersons, Person.class);
+		verify(bulkInsertDao).deleteAll(Collections.singletonList(firstClientSignatory), AuthorizedSignatory.class);
+	}
+
+	@Test
+	void deletesNothingWhenEveryClientIsWritten() {
+		List<BulkClientResultDto> results = clientBulkLoader.createClients(Flux.just(client(1), client(2)))
+			.collectList()
+			.block();
+
+		assertThat(results).extracting(BulkClientResultDto::getStatus)
+			.containsExactly(BulkItemStatusEnum.CREATED, BulkItemStatusEnum.CREATED);
+		verify(bulkInsertDao, never()).deleteAll(anyCollection(), any());
+	}
+
+	@Test
+	void reportsTheFailedClientWhenItsPeopleCannotBeDeleted() {
+		when(bulkInsertDao.insertUnordered(anyList(), eq(Client.class)))
+			.thenReturn(Mono.just(Collections.singleton(1)));
+		when(bulkInsertDao.deleteAll(anyCollection(), eq(Person.class)))
+			.thenReturn(Mono.error(new IllegalStateException("connection lost")));
+
+		List<BulkClientResultDto> results = clientBulkLoader.createClients(Flux.just(client(1), client(2)))
+			.collectList()
+			.block();
+
+		assertThat(results).extracting(BulkClientResultDto::getStatus)
+			.containsExactly(BulkItemStatusEnum.CREATED, BulkItemStatusEnum.FAILED);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> List<T> written(Class<T> type) {
+		ArgumentCaptor<List<T>> entities = ArgumentCaptor.forClass(List.class);
+		verify(bulkInsertDao).insertUnordered(entities.capture(), eq(type));
+		return entities.getValue();
+	}
+
+	private static ClientDto client(int n) {
+		ClientDto client = Fixtures.clientDto(0);
+		client.setPerson(Fixtures.personDto(n));
+		client.setLegalRepresentatives(Fixtures.legalRepresentatives(1, 100 + n));
+		client.setAuthorizedSignatories(Fixtures.authorizedSignatories(1, 200 + n));
+		return client;
+	}
+}
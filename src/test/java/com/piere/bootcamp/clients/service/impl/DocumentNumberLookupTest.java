@@ -0,0 +1,99 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.piere.bootcamp.clients.cache.PersonCache;
+import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.lookup.DocumentNumbers;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.ClientWithPerson;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
+import com.piere.bootcamp.clients.service.ClientService;
+import com.piere.bootcamp.clients.service.PersonService;
+import com.piere.bootcamp.clients.support.Fixtures;
+import com.piere.bootcamp.clients.support.ServiceTest;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@ServiceTest
+class DocumentNumberLookupTest {
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private PersonDao personDao;
+
+	@Autowired
+	private PersonCache personCache;
+
+	private final Person dni = Fixtures.person(7);
+
+	private final Person ruc = Fixtures.person(7);
+
+	@AfterEach
+	void resetDao() {
+		personCache.invalidateById(dni.getId());
+		reset(personDao);
+	}
+
+	@Test
+	void rejectsADocumentNumberSharedByTwoDocumentTypes() {
+		ruc.setDocumentType(DocumentTypeEnum.RUC);
+		String number = dni.getDocumentNumber();
+		when(personDao.findByKey(DocumentNumbers.key(null, number))).thenReturn(Flux.just(dni, ruc));
+		when(personDao.findClientByKey(DocumentNumbers.key(null, number)))
+			.thenReturn(Flux.just(joined(dni, Fixtures.client(0)), joined(ruc, null)));
+
+		StepVerifier.create(personService.findByDocumentNumber(number))
+			.verifyErrorSatisfies(error -> assertConflict(error));
+		StepVerifier.create(clientService.findByDocumentNumber(number))
+			.verifyErrorSatisfies(error -> assertConflict(error));
+	}
+
+	@Test
+	void resolvesADocumentNumberOnlyOnePersonHas() {
+		Client client = Fixtures.client(0);
+		String number = dni.getDocumentNumber();
+		when(personDao.findByKey(DocumentNumbers.key(null, number))).thenReturn(Flux.just(dni));
+		when(personDao.findClientByKey(DocumentNumbers.key(null, number))).thenReturn(Flux.just(joined(dni, client)));
+
+		StepVerifier.create(personService.findByDocumentNumber(number))
+			.assertNext(person -> assertThat(person.getId()).isEqualTo(dni.getId()))
+			.verifyComplete();
+		StepVerifier.create(clientService.findByDocumentNumber(number))
+			.assertNext(found -> assertThat(found.getId()).isEqualTo(client.getId()))
+			.verifyComplete();
+	}
+
+	@Test
+	void findsNoClientForAPersonWithoutOne() {
+		String number = dni.getDocumentNumber();
+		when(personDao.findClientByKey(DocumentNumbers.key(null, number))).thenReturn(Flux.just(joined(dni, null)));
+
+		StepVerifier.create(clientService.findByDocumentNumber(number))
+			.verifyComplete();
+	}
+
+	private static ClientWithPerson joined(Person person, Client client) {
+		return ClientWithPerson.builder().person(person).client(client).build();
+	}
+
+	private static void assertConflict(Throwable error) {
+		assertThat(error).isInstanceOf(ResponseStatusException.class);
+		assertThat(((ResponseStatusException) error).getStatus()).isEqualTo(HttpStatus.CONFLICT);
+	}
+}
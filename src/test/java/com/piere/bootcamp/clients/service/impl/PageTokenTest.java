@@ -0,0 +1,113 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.service.ClientService;
+import com.piere.bootcamp.clients.service.PersonService;
+import com.piere.bootcamp.clients.support.Fixtures;
+import com.piere.bootcamp.clients.support.ServiceTest;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@ServiceTest
+class PageTokenTest {
+
+	@Autowired
+	private KeysetPagination keysetPagination;
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private PersonDao personDao;
+
+	@AfterEach
+	void resetDao() {
+		reset(personDao);
+	}
+
+	@Test
+	void readsThePageAfterTheIdOfAToken() {
+		Person last = Fixtures.person(1);
+		Person next = Fixtures.person(2);
+		when(personDao.findByIdGreaterThan(eq(last.getId()), any(Pageable.class))).thenReturn(Flux.just(next));
+
+		StepVerifier.create(personService.findPersonsPage(keysetPagination.encode(last.getId()), 10))
+			.assertNext(page -> assertThat(page.getContent()).extracting("id").containsExactly(next.getId()))
+			.verifyComplete();
+	}
+
+	@Test
+	void pagesADocumentNumberSearchByTheNormalizedNumberAndId() {
+		Person first = Fixtures.person(12);
+		Person second = Fixtures.person(120);
+		Person third = Fixtures.person(121);
+		when(personDao.findByDocumentNumberPrefix("12", null, null, 2)).thenReturn(Flux.just(first, second));
+		when(personDao.findByDocumentNumberPrefix("12", "12", first.getId(), 2)).thenReturn(Flux.just(second, third));
+
+		String token = personService.searchPersons(null, "0012", null, 1).block().getNextPageToken();
+
+		assertThat(token).isEqualTo(keysetPagination.encode("12:" + first.getId()));
+		StepVerifier.create(personService.searchPersons(null, "00-12", token, 1))
+			.assertNext(page -> assertThat(page.getContent()).extracting("id").containsExactly(second.getId()))
+			.verifyComplete();
+	}
+
+	@Test
+	void rejectsATokenThatIsNotBase64() {
+		StepVerifier.create(personService.findPersonsPage("not a token!", 10))
+			.verifyErrorSatisfies(PageTokenTest::assertBadRequest);
+		StepVerifier.create(clientService.findClientsPage("not a token!", 10))
+			.verifyErrorSatisfies(PageTokenTest::assertBadRequest);
+	}
+
+	@Test
+	void rejectsATokenThatDoesNotCarryAnId() {
+		String token = keysetPagination.encode("12345678");
+
+		StepVerifier.create(personService.findPersonsPage(token, 10))
+			.verifyErrorSatisfies(PageTokenTest::assertBadRequest);
+		StepVerifier.create(clientService.findClientsPage(token, 10, Collections.singletonList("status")))
+			.verifyErrorSatisfies(PageTokenTest::assertBadRequest);
+	}
+
+	@Test
+	void rejectsASearchTokenThatDoesNotCarryAnOffset() {
+		StepVerifier.create(personService.searchPersons("name", null, keysetPagination.encode("-50"), 10))
+			.verifyErrorSatisfies(PageTokenTest::assertBadRequest);
+		StepVerifier.create(personService.searchPersons("name", null, keysetPagination.encode("abc"), 10))
+			.verifyErrorSatisfies(PageTokenTest::assertBadRequest);
+	}
+
+	@Test
+	void rejectsADocumentNumberTokenThatDoesNotCarryAnId() {
+		StepVerifier.create(personService.searchPersons(null, "12", keysetPagination.encode("12345678"), 10))
+			.verifyErrorSatisfies(PageTokenTest::assertBadRequest);
+		StepVerifier.create(personService.searchPersons(null, "12", keysetPagination.encode("12:abc"), 10))
+			.verifyErrorSatisfies(PageTokenTest::assertBadRequest);
+	}
+
+	private static void assertBadRequest(Throwable error) {
+		assertThat(error).isInstanceOf(ResponseStatusException.class);
+		assertThat(((ResponseStatusException) error).getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+}
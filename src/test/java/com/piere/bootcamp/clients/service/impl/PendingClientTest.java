@@ -0,0 +1,46 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.piere.bootcamp.clients.model.document.AuthorizedSignatory;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.support.Fixtures;
+
+class PendingClientTest {
+
+	@Test
+	void assignsIdsSoTheClientReferencesItsPeople() {
+		PendingClient pending = new PendingClient(Fixtures.clientDto(2));
+
+		assertThat(pending.persons).hasSize(5).allSatisfy(person -> assertThat(person.getId()).isNotNull());
+		assertThat(pending.client.getPersonId()).isEqualTo(pending.persons.get(0).getId());
+		assertThat(pending.client.getLegalRepresentativeIds())
+			.containsExactlyElementsOf(pending.legalRepresentatives.stream().map(LegalRepresentative::getId).collect(Collectors.toList()));
+		assertThat(pending.client.getAuthorizedSignatoryIds())
+			.containsExactlyElementsOf(pending.authorizedSignatories.stream().map(AuthorizedSignatory::getId).collect(Collectors.toList()));
+		assertThat(pending.legalRepresentatives)
+			.extracting(LegalRepresentative::getPersonId)
+			.isSubsetOf(pending.persons.stream().map(Person::getId).collect(Collectors.toList()));
+	}
+
+	@Test
+	void leavesOutRepresentativesAndSignatoriesWithoutAPerson() {
+		ClientDto client = Fixtures.clientDto(2);
+		client.getLegalRepresentatives().get(0).setPerson(null);
+		client.getAuthorizedSignatories().get(1).setPerson(null);
+
+		PendingClient pending = new PendingClient(client);
+
+		assertThat(pending.persons).hasSize(3);
+		assertThat(pending.legalRepresentatives).hasSize(1);
+		assertThat(pending.authorizedSignatories).hasSize(1);
+		assertThat(pending.client.getLegalRepresentativeIds()).hasSize(1);
+		assertThat(pending.client.getAuthorizedSignatoryIds()).hasSize(1);
+	}
+}
@@ -0,0 +1,182 @@
+package com.piere.bootcamp.clients.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.piere.bootcamp.clients.cache.PersonCache;
+import com.piere.bootcamp.clients.conditional.ETags;
+import com.piere.bootcamp.clients.dao.ClientDao;
+import com.piere.bootcamp.clients.dao.LegalRepresentativeDao;
+import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.lookup.DocumentNumbers;
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.LegalRepresentative;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
+import com.piere.bootcamp.clients.service.ClientService;
+import com.piere.bootcamp.clients.service.LegalRepresentativeService;
+import com.piere.bootcamp.clients.service.PersonService;
+import com.piere.bootcamp.clients.support.Fixtures;
+import com.piere.bootcamp.clients.support.ServiceTest;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The repositories delete a versioned document by id and version, and fail when that matches
+ * nothing; the DAOs here do the same against a stored version of 3.
+ */
+@ServiceTest
+class VersionedDeleteTest {
+
+	private static final long STORED_VERSION = 3L;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private LegalRepresentativeService legalRepresentativeService;
+
+	@Autowired
+	private ClientDao clientDao;
+
+	@Autowired
+	private LegalRepresentativeDao legalRepresentativeDao;
+
+	@Autowired
+	private PersonDao personDao;
+
+	@Autowired
+	private PersonCache personCache;
+
+	@Autowired
+	private ReactiveMongoTemplate mongoTemplate;
+
+	private final AtomicReference<Object> deleted = new AtomicReference<>();
+
+	private final Person person = Fixtures.person(9);
+
+	@BeforeEach
+	void storeVersions() {
+		Client storedClient = new Client();
+		storedClient.setVersion(STORED_VERSION);
+		Person storedPerson = new Person();
+		storedPerson.setVersion(STORED_VERSION);
+		LegalRepresentative storedLegalRepresentative = new LegalRepresentative();
+		storedLegalRepresentative.setVersion(STORED_VERSION);
+		when(mongoTemplate.findOne(any(Query.class), eq(Client.class))).thenReturn(Mono.just(storedClient));
+		when(mongoTemplate.findOne(any(Query.class), eq(Person.class))).thenReturn(Mono.just(storedPerson));
+		when(mongoTemplate.findOne(any(Query.class), eq(LegalRepresentative.class))).thenReturn(Mono.just(storedLegalRepresentative));
+
+		when(clientDao.delete(any())).thenReturn(Mono.error(new OptimisticLockingFailureException("stale")));
+		when(clientDao.delete(argThat(client -> client != null && Long.valueOf(STORED_VERSION).equals(client.getVersion()))))
+			.thenAnswer(invocation -> Mono.fromRunnable(() -> deleted.set(invocation.getArgument(0))));
+		when(personDao.delete(any())).thenReturn(Mono.error(new OptimisticLockingFailureException("stale")));
+		when(personDao.delete(argThat(person -> person != null && Long.valueOf(STORED_VERSION).equals(person.getVersion()))))
+			.thenAnswer(invocation -> Mono.fromRunnable(() -> deleted.set(invocation.getArgument(0))));
+		when(legalRepresentativeDao.delete(any())).thenReturn(Mono.error(new OptimisticLockingFailureException("stale")));
+		when(legalRepresentativeDao.delete(argThat(legalRepresentative -> legalRepresentative != null
+				&& Long.valueOf(STORED_VERSION).equals(legalRepresentative.getVersion()))))
+			.thenAnswer(invocation -> Mono.fromRunnable(() -> deleted.set(invocation.getArgument(0))));
+		// The cached person was read before its last update
+		when(personDao.findByKey(DocumentNumbers.key(DocumentTypeEnum.DNI, person.getDocumentNumber())))
+			.thenReturn(Flux.just(person));
+	}
+
+	@AfterEach
+	void resetDaos() {
+		personCache.invalidateById(person.getId());
+		reset(clientDao, personDao, legalRepresentativeDao, mongoTemplate);
+	}
+
+	@Test
+	void deletesAClientSentWithoutAVersion() {
+		ClientDto client = Fixtures.clientDto(0);
+
+		StepVerifier.create(clientService.deleteClient(client))
+			.verifyComplete();
+
+		assertThat(deleted.get()).isInstanceOf(Client.class).extracting("id").isEqualTo(client.getId());
+	}
+
+	@Test
+	void rejectsAStaleClientDelete() {
+		ClientDto client = Fixtures.clientDto(0);
+		client.setVersion(STORED_VERSION - 1);
+
+		StepVerifier.create(ETags.preconditionFailedOnConflict(clientService.deleteClient(client)))
+			.verifyErrorSatisfies(VersionedDeleteTest::assertPreconditionFailed);
+
+		assertThat(deleted.get()).isNull();
+	}
+
+	@Test
+	void deletesAPersonSentWithoutAVersionThoughTheCachedOneIsBehind() {
+		PersonDto sent = Fixtures.personDto(9);
+
+		StepVerifier.create(personService.deletePerson(sent))
+			.verifyComplete();
+
+		assertThat(deleted.get()).isInstanceOf(Person.class).extracting("id").isEqualTo(person.getId());
+	}
+
+	@Test
+	void rejectsAStalePersonDelete() {
+		PersonDto sent = Fixtures.personDto(9);
+		sent.setVersion(STORED_VERSION - 1);
+
+		StepVerifier.create(ETags.preconditionFailedOnConflict(personService.deletePerson(sent)))
+			.verifyErrorSatisfies(VersionedDeleteTest::assertPreconditionFailed);
+
+		assertThat(deleted.get()).isNull();
+	}
+
+	@Test
+	void deletesALegalRepresentativeSentWithoutAVersion() {
+		LegalRepresentativeDto legalRepresentative = Fixtures.legalRepresentatives(1, 9).get(0);
+
+		StepVerifier.create(legalRepresentativeService.deleteLegalRepresentative(legalRepresentative))
+			.verifyComplete();
+
+		assertThat(deleted.get()).isInstanceOf(LegalRepresentative.class).extracting("id").isEqualTo(legalRepresentative.getId());
+	}
+
+	@Test
+	void keepsThePersonOfAStaleLegalRepresentativeDelete() {
+		LegalRepresentativeDto legalRepresentative = Fixtures.legalRepresentatives(1, 9).get(0);
+		legalRepresentative.setVersion(STORED_VERSION - 1);
+
+		StepVerifier.create(ETags.preconditionFailedOnConflict(legalRepresentativeService.deleteLegalRepresentative(legalRepresentative)))
+			.verifyErrorSatisfies(VersionedDeleteTest::assertPreconditionFailed);
+
+		assertThat(deleted.get()).isNull();
+	}
+
+	private static void assertPreconditionFailed(Throwable error) {
+		assertThat(error).isInstanceOf(ResponseStatusException.class);
+		assertThat(((ResponseStatusException) error).getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+	}
+}
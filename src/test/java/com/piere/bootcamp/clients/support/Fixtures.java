@@ -0,0 +1,95 @@
+package com.piere.bootcamp.clients.support;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+
+import com.piere.bootcamp.clients.model.document.Client;
+import com.piere.bootcamp.clients.model.document.Person;
+import com.piere.bootcamp.clients.model.dto.AuthorizedSignatoryDto;
+import com.piere.bootcamp.clients.model.dto.ClientDto;
+import com.piere.bootcamp.clients.model.dto.LegalRepresentativeDto;
+import com.piere.bootcamp.clients.model.dto.PersonDto;
+import com.piere.bootcamp.clients.model.enums.ClientTypeEnum;
+import com.piere.bootcamp.clients.model.enums.DocumentTypeEnum;
+import com.piere.bootcamp.clients.model.mapper.ClientMapper;
+import com.piere.bootcamp.clients.model.mapper.PersonMapper;
+
+/**
+ * Sample documents and DTOs shared by the tests and benchmarks.
+ */
+public final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	public static PersonDto personDto(int n) {
+		return PersonDto.builder()
+				.tradeName("Trade " + n)
+				.companyName("Company " + n)
+				.name("Name")
+				.lastname("Lastname")
+				.email("person" + n + "@mail.com")
+				.address("Av. Principal " + n)
+				.cellphone("999888777")
+				.phone("014445566")
+				.documentType(DocumentTypeEnum.DNI)
+				.documentNumber(String.format("%08d", n))
+				.birthDate(LocalDate.of(1990, 1, 1))
+				.build();
+	}
+
+	public static Person person(int n) {
+		Person person = PersonMapper.toEntity(personDto(n));
+		person.setId(new ObjectId().toHexString());
+		return person;
+	}
+
+	public static List<LegalRepresentativeDto> legalRepresentatives(int count, int offset) {
+		List<LegalRepresentativeDto> legalRepresentatives = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			legalRepresentatives.add(LegalRepresentativeDto.builder()
+					.id(new ObjectId().toHexString())
+					.person(personDto(offset + i))
+					.status(true)
+					.build());
+		}
+		return legalRepresentatives;
+	}
+
+	public static List<AuthorizedSignatoryDto> authorizedSignatories(int count, int offset) {
+		List<AuthorizedSignatoryDto> authorizedSignatories = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			authorizedSignatories.add(AuthorizedSignatoryDto.builder()
+					.id(new ObjectId().toHexString())
+					.person(personDto(offset + i))
+					.status(true)
+					.build());
+		}
+		return authorizedSignatories;
+	}
+
+	/**
+	 * A corporate client with its person, representatives and signatories filled in.
+	 */
+	public static ClientDto clientDto(int people) {
+		PersonDto person = personDto(0);
+		person.setId(new ObjectId().toHexString());
+		return ClientDto.builder()
+				.id(new ObjectId().toHexString())
+				.clientType(ClientTypeEnum.EMPRESARIAL)
+				.person(person)
+				.personId(person.getId())
+				.legalRepresentatives(legalRepresentatives(people, 1_000))
+				.authorizedSignatories(authorizedSignatories(people, 2_000))
+				.createAt(LocalDate.now())
+				.status(true)
+				.build();
+	}
+
+	public static Client client(int people) {
+		return ClientMapper.toEntity(clientDto(people));
+	}
+}
@@ -0,0 +1,21 @@
+package com.piere.bootcamp.clients.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * A test of the services against {@link StubDaos}, without Mongo or the web layer.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@SpringBootTest(classes = ServiceTestConfiguration.class)
+@ActiveProfiles(ServiceTestConfiguration.PROFILE)
+public @interface ServiceTest {
+}
@@ -0,0 +1,102 @@
+package com.piere.bootcamp.clients.support;
+
+import org.mockito.Mockito;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piere.bootcamp.clients.aggregate.ClientAggregateStore;
+import com.piere.bootcamp.clients.cache.PersonCache;
+import com.piere.bootcamp.clients.dao.AuthorizedSignatoryDao;
+import com.piere.bootcamp.clients.dao.BulkInsertDao;
+import com.piere.bootcamp.clients.dao.ClientAggregateDao;
+import com.piere.bootcamp.clients.dao.ClientDao;
+import com.piere.bootcamp.clients.dao.IdempotencyRecordDao;
+import com.piere.bootcamp.clients.dao.LegalRepresentativeDao;
+import com.piere.bootcamp.clients.dao.PersonDao;
+import com.piere.bootcamp.clients.dao.ProjectionDao;
+import com.piere.bootcamp.clients.idempotency.IdempotencyStore;
+import com.piere.bootcamp.clients.outbox.Outbox;
+import com.piere.bootcamp.clients.scheduling.SchedulingConfiguration;
+import com.piere.bootcamp.clients.scheduling.SchedulingProperties;
+import com.piere.bootcamp.clients.service.impl.AuthorizedSignatoryServiceImpl;
+import com.piere.bootcamp.clients.service.impl.BatchWriter;
+import com.piere.bootcamp.clients.service.impl.ClientBulkLoader;
+import com.piere.bootcamp.clients.service.impl.ClientServiceImpl;
+import com.piere.bootcamp.clients.service.impl.KeysetPagination;
+import com.piere.bootcamp.clients.service.impl.LegalRepresentativeServiceImpl;
+import com.piere.bootcamp.clients.service.impl.PersonServiceImpl;
+import com.piere.bootcamp.clients.service.impl.TransactionalClientWriter;
+import com.piere.bootcamp.clients.tracing.ReactiveTracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The services as the application wires them, on top of {@link StubDaos} and a mocked template
+ * instead of Mongo. Activate the {@code services} profile along with it, see {@link ServiceTest}.
+ * Not a {@code @Configuration}, so the component scan of the application tests leaves it out.
+ */
+@EnableConfigurationProperties
+@Import({ SchedulingConfiguration.class, SchedulingProperties.class, ClientServiceImpl.class,
+		PersonServiceImpl.class, LegalRepresentativeServiceImpl.class, AuthorizedSignatoryServiceImpl.class,
+		ClientBulkLoader.class, TransactionalClientWriter.class, BatchWriter.class, KeysetPagination.class,
+		ProjectionDao.class, BulkInsertDao.class, PersonCache.class, ClientAggregateStore.class,
+		IdempotencyStore.class, Outbox.class, ReactiveTracing.class })
+public class ServiceTestConfiguration {
+
+	public static final String PROFILE = "services";
+
+	@Bean
+	PersonDao personDao() {
+		return StubDaos.stub(PersonDao.class);
+	}
+
+	@Bean
+	ClientDao clientDao() {
+		return StubDaos.stub(ClientDao.class);
+	}
+
+	@Bean
+	LegalRepresentativeDao legalRepresentativeDao() {
+		return StubDaos.stub(LegalRepresentativeDao.class);
+	}
+
+	@Bean
+	AuthorizedSignatoryDao authorizedSignatoryDao() {
+		return StubDaos.stub(AuthorizedSignatoryDao.class);
+	}
+
+	@Bean
+	ClientAggregateDao clientAggregateDao() {
+		return StubDaos.stub(ClientAggregateDao.class);
+	}
+
+	@Bean
+	IdempotencyRecordDao idempotencyRecordDao() {
+		return StubDaos.stub(IdempotencyRecordDao.class);
+	}
+
+	@Bean
+	ReactiveMongoTemplate reactiveMongoTemplate() {
+		return Mockito.mock(ReactiveMongoTemplate.class);
+	}
+
+	@Bean
+	TransactionalOperator transactionalOperator() {
+		return Mockito.mock(TransactionalOperator.class);
+	}
+
+	@Bean
+	ObjectMapper objectMapper() {
+		return new ObjectMapper().findAndRegisterModules();
+	}
+
+	@Bean
+	MeterRegistry meterRegistry() {
+		return new SimpleMeterRegistry();
+	}
+}
@@ -0,0 +1,70 @@
+package com.piere.bootcamp.clients.support;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.reactivestreams.Publisher;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stub DAOs that keep nothing: saves assign an id and echo the entity back, lookups find nothing.
+ * They are mocks that record no invocations, so a test can stub the lookups it needs and a
+ * benchmark can call them indefinitely.
+ */
+public final class StubDaos {
+
+	private StubDaos() {
+	}
+
+	public static <T> T stub(Class<T> daoType) {
+		return Mockito.mock(daoType, Mockito.withSettings()
+				.stubOnly()
+				.defaultAnswer(StubDaos::answer));
+	}
+
+	private static Object answer(InvocationOnMock invocation) throws Throwable {
+		Method method = invocation.getMethod();
+		Object[] args = invocation.getArguments();
+		switch (method.getName()) {
+			case "save":
+				return Mono.just(withId(args[0]));
+			case "saveAll":
+			case "insert":
+				if (args[0] instanceof Publisher) {
+					return Flux.from((Publisher<?>) args[0]).map(StubDaos::withId);
+				}
+				if (!(args[0] instanceof Iterable)) {
+					return Mono.just(withId(args[0]));
+				}
+				List<Object> saved = new ArrayList<>();
+				((Iterable<?>) args[0]).forEach(entity -> saved.add(withId(entity)));
+				return Flux.fromIterable(saved);
+			default:
+				if (Flux.class.isAssignableFrom(method.getReturnType())) {
+					return Flux.empty();
+				}
+				if (Mono.class.isAssignableFrom(method.getReturnType())) {
+					return Mono.empty();
+				}
+				return Mockito.RETURNS_DEFAULTS.answer(invocation);
+		}
+	}
+
+	private static Object withId(Object entity) {
+		try {
+			Method getId = entity.getClass().getMethod("getId");
+			if (getId.invoke(entity) == null) {
+				entity.getClass().getMethod("setId", String.class).invoke(entity, new ObjectId().toHexString());
+			}
+			return entity;
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
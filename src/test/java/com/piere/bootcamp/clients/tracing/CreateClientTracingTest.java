@@ -0,0 +1,130 @@
+package com.piere.bootcamp.clients.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.TraceContext;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.brave.bridge.BraveBaggageManager;
+import org.springframework.cloud.sleuth.brave.bridge.BraveCurrentTraceContext;
+import org.springframework.cloud.sleuth.brave.bridge.BraveTracer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import com.piere.bootcamp.clients.service.ClientService;
+import com.piere.bootcamp.clients.support.Fixtures;
+import com.piere.bootcamp.clients.support.ServiceTest;
+
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import reactor.test.StepVerifier;
+
+@ServiceTest
+@Import(CreateClientTracingTest.InMemoryTracing.class)
+class CreateClientTracingTest {
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private Tracer tracer;
+
+	@Autowired
+	private InMemorySpanHandler spans;
+
+	@BeforeEach
+	void clearSpans() {
+		spans.clear();
+	}
+
+	@Test
+	void createClientTracesEachStepAsAChildOfTheRequest() {
+		Span request = tracer.nextSpan().name("request").start();
+
+		StepVerifier.create(clientService.createClient(Fixtures.clientDto(2))
+				.contextWrite(context -> context.put(TraceContext.class, request.context())))
+			.expectNextCount(1)
+			.verifyComplete();
+		request.end();
+
+		List<MutableSpan> children = spans.finished().stream()
+			.filter(span -> request.context().spanId().equals(span.parentId()))
+			.collect(Collectors.toList());
+		assertThat(children)
+			.extracting(MutableSpan::name)
+			.containsExactlyInAnyOrder("createClient.legalRepresentatives", "createClient.authorizedSignatories",
+					"createClient.person", "createClient.save");
+		assertThat(children)
+			.allSatisfy(span -> {
+				assertThat(span.traceId()).isEqualTo(request.context().traceId());
+				assertThat(span.error()).isNull();
+			});
+	}
+
+	@Test
+	void createClientWithoutATraceStartsNewTraces() {
+		StepVerifier.create(clientService.createClient(Fixtures.clientDto(1)))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		assertThat(spans.finished())
+			.hasSize(4)
+			.allSatisfy(span -> assertThat(span.parentId()).isNull());
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class InMemoryTracing {
+
+		@Bean
+		InMemorySpanHandler inMemorySpanHandler() {
+			return new InMemorySpanHandler();
+		}
+
+		@Bean(destroyMethod = "close")
+		Tracing tracing(InMemorySpanHandler spanHandler) {
+			return Tracing.newBuilder()
+				.localServiceName("msvc-clients")
+				.addSpanHandler(spanHandler)
+				.build();
+		}
+
+		@Bean
+		Tracer tracer(Tracing tracing) {
+			return new BraveTracer(tracing.tracer(), new BraveCurrentTraceContext(tracing.currentTraceContext()),
+					new BraveBaggageManager());
+		}
+	}
+
+	/**
+	 * Keeps every finished span instead of reporting it.
+	 */
+	static class InMemorySpanHandler extends SpanHandler {
+
+		private final List<MutableSpan> finished = new CopyOnWriteArrayList<>();
+
+		@Override
+		public boolean end(brave.propagation.TraceContext context, MutableSpan span, Cause cause) {
+			if (cause == Cause.FINISHED) {
+				finished.add(span);
+			}
+			return true;
+		}
+
+		List<MutableSpan> finished() {
+			return finished;
+		}
+
+		void clear() {
+			finished.clear();
+		}
+	}
+}